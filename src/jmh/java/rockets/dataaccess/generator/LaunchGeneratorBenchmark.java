@@ -0,0 +1,64 @@
+package rockets.dataaccess.generator;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long {@link LaunchGenerator} takes to stream a large number of
+ * launches, as objects and as CSV written to a writer that discards it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LaunchGeneratorBenchmark {
+    @Param({"10000000"})
+    public long launches;
+
+    private LaunchGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new LaunchGenerator(1);
+        generator.rockets();
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+        generator.launches(launches).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void parallelStream(Blackhole blackhole) {
+        generator.launches(launches).parallel().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void writeCsv() throws IOException {
+        generator.writeCsv(new Discard(), launches);
+    }
+
+    private static final class Discard extends Writer {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
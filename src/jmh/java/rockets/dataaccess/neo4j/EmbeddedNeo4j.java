@@ -0,0 +1,67 @@
+package rockets.dataaccess.neo4j;
+
+import org.neo4j.harness.ServerControls;
+import org.neo4j.harness.TestServerBuilders;
+import org.neo4j.ogm.drivers.embedded.driver.EmbeddedDriver;
+import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
+import org.neo4j.ogm.transaction.Transaction;
+import rockets.model.Entity;
+import rockets.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An in-process Neo4j for benchmarks, started the way
+ * {@code Neo4jDAOUnitTest} starts it.
+ */
+public final class EmbeddedNeo4j implements AutoCloseable {
+    private static final int BATCH_SIZE = 1000;
+
+    private final ServerControls server;
+
+    private final SessionFactory sessionFactory;
+
+    private final Session session;
+
+    public EmbeddedNeo4j() {
+        server = TestServerBuilders.newInProcessBuilder().newServer();
+        sessionFactory = new SessionFactory(new EmbeddedDriver(server.graph()), User.class.getPackage().getName());
+        session = sessionFactory.openSession();
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    /**
+     * Saves entities in transactions of {@value #BATCH_SIZE} rather than one
+     * {@link Neo4jDAO#createOrUpdate(Entity)} each, then clears the session.
+     * Ids given by another DAO are dropped, so that the entities are created.
+     */
+    public void saveAll(Collection<? extends Entity> entities) {
+        for (Entity entity : entities) {
+            entity.setId(null);
+        }
+        List<Entity> list = new ArrayList<>(entities);
+        for (int first = 0; first < list.size(); first += BATCH_SIZE) {
+            Transaction tx = session.beginTransaction();
+            session.save(list.subList(first, Math.min(list.size(), first + BATCH_SIZE)));
+            tx.commit();
+            // the session slows down as it grows, and the saved entities keep their ids
+            session.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        sessionFactory.close();
+        server.close();
+    }
+}
@@ -0,0 +1,140 @@
+package rockets.dataaccess.neo4j;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.BatchResult;
+import rockets.dataaccess.generator.LaunchGenerator;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the calls of {@link Neo4jDAO} on an embedded Neo4j holding a
+ * number of rockets: creating a rocket, updating one, creating a batch of
+ * them one call each or in one call of createOrUpdateAll, loading one by id,
+ * loading all of them, and deleting one. Each is reported as throughput and
+ * as sampled latency, whose percentiles show regressions the average hides.
+ * <p>
+ * Rockets created by a benchmark are deleted after each iteration, so the
+ * graph grows by at most one iteration of creates. The DAO holds a single
+ * session, so run with one thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Neo4jDAOBenchmark {
+    private static final int PROVIDERS = 10;
+
+    private static final int BATCH = 100;
+
+    private static final String CREATED = "created_";
+
+    @Param({"100", "1000", "5000"})
+    public int rockets;
+
+    private EmbeddedNeo4j neo4j;
+
+    private Neo4jDAO dao;
+
+    private List<Rocket> saved;
+
+    private LaunchServiceProvider manufacturer;
+
+    private Random random;
+
+    private long created;
+
+    @Setup
+    public void setUp() {
+        neo4j = new EmbeddedNeo4j();
+        LaunchGenerator generator = new LaunchGenerator(1);
+        generator.setProviders(PROVIDERS);
+        generator.setRockets(rockets);
+        saved = generator.rockets();
+        neo4j.saveAll(generator.providers());
+        neo4j.saveAll(saved);
+        dao = new Neo4jDAO(neo4j.getSession(), neo4j.getSessionFactory());
+        manufacturer = generator.providers().get(0);
+        random = new Random(1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCreated() {
+        neo4j.getSession().query("MATCH (r:Rocket) WHERE r.name STARTS WITH $prefix DETACH DELETE r",
+                Collections.singletonMap("prefix", CREATED));
+        neo4j.getSession().clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        neo4j.close();
+    }
+
+    private Rocket newRocket() {
+        return new Rocket(CREATED + created++, "USA", manufacturer);
+    }
+
+    @Benchmark
+    public Rocket createOrUpdateNew() {
+        return dao.createOrUpdate(newRocket());
+    }
+
+    @Benchmark
+    public Rocket createOrUpdateExisting() {
+        Rocket rocket = saved.get(random.nextInt(saved.size()));
+        rocket.setMassToLEO(random.nextInt(100_000));
+        return dao.createOrUpdate(rocket);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Rocket createOrUpdateBatch() {
+        Rocket last = null;
+        for (int i = 0; i < BATCH; i++) {
+            last = dao.createOrUpdate(newRocket());
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<BatchResult> createOrUpdateAll() {
+        List<Rocket> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(newRocket());
+        }
+        return dao.createOrUpdateAll(batch);
+    }
+
+    @Benchmark
+    public Rocket load() {
+        return dao.load(Rocket.class, saved.get(random.nextInt(saved.size())).getId());
+    }
+
+    @Benchmark
+    public Collection<Rocket> loadAll() {
+        return dao.loadAll(Rocket.class);
+    }
+
+    @Benchmark
+    public void delete(Doomed doomed) {
+        dao.delete(doomed.rocket);
+    }
+
+    /**
+     * A rocket created before each call of {@link #delete(Doomed)}.
+     */
+    @State(Scope.Thread)
+    public static class Doomed {
+        private Rocket rocket;
+
+        @Setup(Level.Invocation)
+        public void create(Neo4jDAOBenchmark benchmark) {
+            rocket = benchmark.dao.createOrUpdate(benchmark.newRocket());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package rockets.dataaccess.neo4j;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Neo4jDAO#createOrUpdate} of a rocket, which finds the
+ * rocket by name and country, on graphs of growing size with and without
+ * {@link Neo4jDAO#createSchema()}, in each {@link Neo4jDAO.UpsertMode}. With
+ * the schema the lookup or merge is an index seek and the latency should not
+ * grow with the graph; without it every rocket is scanned.
+ * <p>
+ * The rockets are created with Cypher rather than through the DAO, as saving a
+ * million entities one at a time would dominate the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpsertBenchmark {
+    private static final int SEED_BATCH = 100_000;
+
+    private static final String COUNTRY = "USA";
+
+    private static final String CREATED = "created_";
+
+    @Param({"1000", "100000", "1000000"})
+    public int rockets;
+
+    @Param({"true", "false"})
+    public boolean schema;
+
+    @Param({"LOOKUP_THEN_SAVE", "MERGE"})
+    public Neo4jDAO.UpsertMode upsertMode;
+
+    private EmbeddedNeo4j neo4j;
+
+    private Neo4jDAO dao;
+
+    private LaunchServiceProvider manufacturer;
+
+    private Random random;
+
+    private long created;
+
+    @Setup
+    public void setUp() {
+        neo4j = new EmbeddedNeo4j();
+        for (int from = 0; from < rockets; from += SEED_BATCH) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("from", from);
+            parameters.put("to", Math.min(rockets, from + SEED_BATCH) - 1);
+            parameters.put("country", COUNTRY);
+            neo4j.getSession().query("UNWIND range($from, $to) AS i CREATE (:Rocket {name: 'rocket_' + i, country: $country})",
+                    parameters);
+        }
+        manufacturer = new LaunchServiceProvider("SpaceX", 2002, COUNTRY);
+        neo4j.saveAll(Collections.singletonList(manufacturer));
+        dao = new Neo4jDAO(neo4j.getSession());
+        dao.setUpsertMode(upsertMode);
+        if (schema) {
+            dao.createSchema();
+        }
+        random = new Random(1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCreated() {
+        neo4j.getSession().query("MATCH (r:Rocket) WHERE r.name STARTS WITH $prefix DETACH DELETE r",
+                Collections.singletonMap("prefix", CREATED));
+        neo4j.getSession().clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        neo4j.close();
+    }
+
+    @Benchmark
+    public Rocket updateExisting() {
+        return dao.createOrUpdate(new Rocket("rocket_" + random.nextInt(rockets), COUNTRY, manufacturer));
+    }
+
+    @Benchmark
+    public Rocket createNew() {
+        return dao.createOrUpdate(new Rocket(CREATED + created++, COUNTRY, manufacturer));
+    }
+}
@@ -0,0 +1,51 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.DAO;
+import rockets.mining.sketch.HeavyHitter;
+import rockets.model.Rocket;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the exact {@link RocketMiner#mostLaunchedRockets(int)} with the
+ * fixed-memory {@link ApproximateRocketMiner#mostLaunchedRockets(int)}. Run
+ * with {@code -prof gc} to compare the allocation of the two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ApproximateMinerBenchmark {
+    private static final int ROCKETS = 100_000;
+
+    @Param({"100000", "1000000"})
+    public int launches;
+
+    @Param({"10"})
+    public int k;
+
+    private RocketMiner miner;
+
+    private ApproximateRocketMiner approximateMiner;
+
+    @Setup
+    public void setUp() {
+        DAO dao = BenchmarkData.populate(ROCKETS, launches, 1);
+        miner = new RocketMiner(dao);
+        approximateMiner = new ApproximateRocketMiner(dao);
+    }
+
+    @Benchmark
+    public List<Rocket> exact() {
+        return miner.mostLaunchedRockets(k);
+    }
+
+    @Benchmark
+    public List<HeavyHitter<Rocket>> approximate() {
+        return approximateMiner.mostLaunchedRockets(k);
+    }
+}
@@ -0,0 +1,27 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.generator.LaunchGenerator;
+import rockets.dataaccess.memory.InMemoryDAO;
+
+/**
+ * Builds the seeded datasets shared by the miner benchmarks.
+ */
+final class BenchmarkData {
+    static final int PROVIDERS = 50;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return an in-memory DAO holding the given number of rockets and launches.
+     */
+    static DAO populate(int rocketCount, int launchCount, long seed) {
+        LaunchGenerator generator = new LaunchGenerator(seed);
+        generator.setProviders(PROVIDERS);
+        generator.setRockets(rocketCount);
+        DAO dao = new InMemoryDAO();
+        generator.populate(dao, launchCount);
+        return dao;
+    }
+}
@@ -0,0 +1,81 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the miner over hydrated launches with the miner over a
+ * {@link LaunchColumnStore}. The setup logs the heap taken by the loaded
+ * launches and by the column store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LaunchColumnStoreBenchmark {
+    private static Logger logger = LoggerFactory.getLogger(LaunchColumnStoreBenchmark.class);
+
+    @Param({"100000", "1000000"})
+    public int launches;
+
+    @Param({"false", "true"})
+    public boolean columnar;
+
+    private RocketMiner miner;
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        DAO dao = BenchmarkData.populate(1_000, launches, 1);
+        long loaded = usedHeap();
+        miner = new RocketMiner(dao);
+        if (columnar) {
+            miner.setColumnStore(LaunchColumnStore.load(dao));
+            logger.info("column store: {} KiB", (usedHeap() - loaded) / 1024);
+        }
+        logger.info("launch objects: {} KiB", (loaded - before) / 1024);
+    }
+
+    @Benchmark
+    public List<Rocket> mostLaunchedRockets() {
+        return miner.mostLaunchedRockets(10);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProviders() {
+        return miner.mostReliableLaunchServiceProviders(10);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders() {
+        return miner.highestRevenueLaunchServiceProviders(10, 1990);
+    }
+
+    @Benchmark
+    public List<Launch> mostExpensiveLaunches() {
+        return miner.mostExpensiveLaunches(10);
+    }
+
+    @Benchmark
+    public String dominantCountry() {
+        return miner.dominantCountry("LEO");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,55 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the queries on launch dates answered by a {@link LaunchDateIndex}
+ * with the scan of every launch they replace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LaunchDateIndexBenchmark {
+    @Param({"100000", "1000000"})
+    public int launches;
+
+    private RocketMiner miner;
+
+    private LaunchDateIndex index;
+
+    @Setup
+    public void setUp() {
+        DAO dao = BenchmarkData.populate(1_000, launches, 1);
+        miner = new RocketMiner(dao);
+        index = LaunchDateIndex.load(dao);
+    }
+
+    @Benchmark
+    public List<Launch> scanMostRecent() {
+        return miner.mostRecentLaunches(10);
+    }
+
+    @Benchmark
+    public List<Launch> indexMostRecent() {
+        return index.mostRecentLaunches(10);
+    }
+
+    @Benchmark
+    public List<Launch> scanMonth() {
+        return miner.launchesInMonth(1990, 6);
+    }
+
+    @Benchmark
+    public List<Launch> indexMonth() {
+        return index.launchesBetween(LocalDate.of(1990, 6, 1), LocalDate.of(1990, 6, 30));
+    }
+}
@@ -0,0 +1,60 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.DAO;
+import rockets.metrics.Metrics;
+import rockets.model.Rocket;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of recording {@link Metrics} on miner queries, with
+ * recording on and off: a scan of every launch, and a query answered in
+ * microseconds from {@link MinerViews}, where the cost of recording shows most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetricsBenchmark {
+    private static final int ROCKETS = 1_000;
+
+    @Param({"100000"})
+    public int launches;
+
+    @Param({"false", "true"})
+    public boolean recording;
+
+    @Param({"10"})
+    public int k;
+
+    private RocketMiner miner;
+
+    private RocketMiner viewMiner;
+
+    @Setup
+    public void setUp() {
+        DAO dao = BenchmarkData.populate(ROCKETS, launches, 1);
+        miner = new RocketMiner(dao);
+        viewMiner = new RocketMiner(dao);
+        viewMiner.setViews(MinerViews.load(dao));
+        if (recording) {
+            Metrics metrics = new Metrics();
+            miner.setMetrics(metrics);
+            viewMiner.setMetrics(metrics);
+        }
+    }
+
+    @Benchmark
+    public List<Rocket> scan() {
+        return miner.mostLaunchedRockets(k);
+    }
+
+    @Benchmark
+    public List<Rocket> view() {
+        return viewMiner.mostLaunchedRockets(k);
+    }
+}
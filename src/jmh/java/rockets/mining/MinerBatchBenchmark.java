@@ -0,0 +1,52 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the dashboard queries run back to back with the same queries run
+ * as one {@link MinerBatch}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MinerBatchBenchmark {
+    @Param({"100000", "1000000"})
+    public int launches;
+
+    private RocketMiner miner;
+
+    @Setup
+    public void setUp() {
+        miner = new RocketMiner(BenchmarkData.populate(10_000, launches, 1));
+    }
+
+    @Benchmark
+    public void separate(Blackhole blackhole) {
+        blackhole.consume(miner.mostLaunchedRockets(10));
+        blackhole.consume(miner.mostReliableLaunchServiceProviders(10));
+        blackhole.consume(miner.dominantCountry("LEO"));
+        blackhole.consume(miner.mostExpensiveLaunches(10));
+        blackhole.consume(miner.highestRevenueLaunchServiceProviders(10, 1990));
+    }
+
+    @Benchmark
+    public void batch(Blackhole blackhole) {
+        MinerBatch batch = miner.batch();
+        MinerBatch.Result<?>[] results = {
+                batch.mostLaunchedRockets(10),
+                batch.mostReliableLaunchServiceProviders(10),
+                batch.dominantCountry("LEO"),
+                batch.mostExpensiveLaunches(10),
+                batch.highestRevenueLaunchServiceProviders(10, 1990)};
+        batch.run();
+        for (MinerBatch.Result<?> result : results) {
+            blackhole.consume(result.get());
+        }
+    }
+}
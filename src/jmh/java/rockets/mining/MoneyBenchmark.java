@@ -0,0 +1,99 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares comparing and summing launch prices as {@link Money} with the
+ * BigDecimal arithmetic it replaced. Run with {@code -prof gc}: the Money
+ * loops should not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MoneyBenchmark {
+    @Param({"1000000"})
+    public int launches;
+
+    private RocketMiner miner;
+
+    private BigDecimal[] decimals;
+
+    private Money[] monies;
+
+    @Setup
+    public void setUp() {
+        DAO dao = BenchmarkData.populate(1_000, launches, 1);
+        miner = new RocketMiner(dao);
+        Collection<Launch> loaded = dao.loadAll(Launch.class);
+        decimals = new BigDecimal[loaded.size()];
+        monies = new Money[loaded.size()];
+        int i = 0;
+        for (Launch l : loaded) {
+            decimals[i] = l.getPrice();
+            monies[i] = l.getPriceMoney();
+            i++;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal price : decimals) {
+            sum = sum.add(price);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Money sumMoney() {
+        MoneySum sum = new MoneySum();
+        for (Money price : monies) {
+            sum.add(price);
+        }
+        return sum.toMoney();
+    }
+
+    @Benchmark
+    public BigDecimal maxBigDecimal() {
+        BigDecimal max = decimals[0];
+        for (BigDecimal price : decimals) {
+            if (price.subtract(max).compareTo(BigDecimal.ZERO) > 0) {
+                max = price;
+            }
+        }
+        return max;
+    }
+
+    @Benchmark
+    public Money maxMoney() {
+        Money max = monies[0];
+        for (Money price : monies) {
+            if (price.compareTo(max) > 0) {
+                max = price;
+            }
+        }
+        return max;
+    }
+
+    @Benchmark
+    public List<Launch> mostExpensive() {
+        return miner.mostExpensiveLaunches(10);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> highestRevenue() {
+        return miner.highestRevenueLaunchServiceProviders(10, 1990, 2010);
+    }
+}
@@ -0,0 +1,61 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.Rocket;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the bounded-heap {@link RocketMiner#mostLaunchedRockets(int)} with
+ * the sort-then-pad implementation it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MostLaunchedRocketsBenchmark {
+    private static final int ROCKETS = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int launches;
+
+    @Param({"10"})
+    public int k;
+
+    private DAO dao;
+
+    private RocketMiner miner;
+
+    @Setup
+    public void setUp() {
+        dao = BenchmarkData.populate(ROCKETS, launches, 1);
+        miner = new RocketMiner(dao);
+    }
+
+    @Benchmark
+    public List<Rocket> topK() {
+        return miner.mostLaunchedRockets(k);
+    }
+
+    @Benchmark
+    public List<Rocket> sortAndPad() {
+        Collection<Launch> launches = dao.loadAll(Launch.class);
+        Collection<Rocket> rockets = dao.loadAll(Rocket.class);
+        List<Rocket> result = launches.stream().map(s -> s.getLaunchVehicle())
+                .collect(Collectors.groupingBy(s -> s, Collectors.counting()))
+                .entrySet().stream().sorted((o1, o2) -> (int) (o2.getValue() - o1.getValue()))
+                .map(s -> s.getKey()).collect(Collectors.toList());
+        for (Rocket r : rockets) {
+            if (!result.contains(r)) {
+                result.add(r);
+            }
+        }
+        return result.stream().limit(k).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,63 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the miner aggregations scale with the parallelism of the
+ * fork-join pool set with {@link RocketMiner#setForkJoinPool(ForkJoinPool)}.
+ * The sequential miner is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelMinerBenchmark {
+    @Param({"1000000"})
+    public int launches;
+
+    @Param({"0", "1", "2", "4", "8", "16"})
+    public int threads;
+
+    private ForkJoinPool pool;
+
+    private RocketMiner miner;
+
+    @Setup
+    public void setUp() {
+        miner = new RocketMiner(BenchmarkData.populate(10_000, launches, 1));
+        if (threads > 0) {
+            pool = new ForkJoinPool(threads);
+            miner.setForkJoinPool(pool);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> mostReliable() {
+        return miner.mostReliableLaunchServiceProviders(10);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> highestRevenue() {
+        return miner.highestRevenueLaunchServiceProviders(10, 1990);
+    }
+
+    @Benchmark
+    public List<Rocket> mostLaunched() {
+        return miner.mostLaunchedRockets(10);
+    }
+}
@@ -0,0 +1,62 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.Payloads;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link RocketMiner#lightestPayloadsLauchInLEO(int)} over the payload
+ * totals kept by {@link Launch} with summing the payloads of every launch into
+ * a map keyed by launch, as it did before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PayloadMassBenchmark {
+    private static final int ROCKETS = 1_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int launches;
+
+    @Param({"10"})
+    public int k;
+
+    private DAO dao;
+
+    private RocketMiner miner;
+
+    @Setup
+    public void setUp() {
+        dao = BenchmarkData.populate(ROCKETS, launches, 1);
+        miner = new RocketMiner(dao);
+    }
+
+    @Benchmark
+    public List<Launch> massColumn() {
+        return miner.lightestPayloadsLauchInLEO(k);
+    }
+
+    @Benchmark
+    public List<Launch> mapOfLaunches() {
+        Map<Launch, Integer> payloadsInLEO = new HashMap<>();
+        for (Launch l : dao.loadAll(Launch.class)) {
+            int mass = 0;
+            for (Payloads p : l.getPayload()) {
+                mass += p.getMassToLEO();
+            }
+            payloadsInLEO.merge(l, mass, Integer::sum);
+        }
+        List<Launch> result = new ArrayList<>();
+        for (Map.Entry<Launch, Integer> e : TopK.select(payloadsInLEO.entrySet(), k, Map.Entry.comparingByValue())) {
+            result.add(e.getKey());
+        }
+        return result;
+    }
+}
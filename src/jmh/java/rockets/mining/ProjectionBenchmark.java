@@ -0,0 +1,115 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.LaunchRow;
+import rockets.dataaccess.generator.LaunchGenerator;
+import rockets.dataaccess.neo4j.EmbeddedNeo4j;
+import rockets.dataaccess.neo4j.Neo4jDAO;
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares reading launches from an embedded Neo4j as hydrated entities with
+ * reading them as the flat rows of {@link DAO#streamLaunchRows()}, and the
+ * miner answering from each. Run with -prof gc to see the allocation per
+ * query. With many rockets, hydrating them and their providers outweighs
+ * reading the launches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProjectionBenchmark {
+    // saving the dataset through OGM takes minutes beyond a few thousand launches
+    @Param({"1000", "5000"})
+    public int launches;
+
+    @Param({"100", "5000"})
+    public int rockets;
+
+    @Param({"10"})
+    public int k;
+
+    private EmbeddedNeo4j neo4j;
+
+    private DAO dao;
+
+    private RocketMiner inMemory;
+
+    private RocketMiner projection;
+
+    @Setup
+    public void setUp() {
+        neo4j = new EmbeddedNeo4j();
+        LaunchGenerator generator = new LaunchGenerator(1);
+        generator.setProviders(BenchmarkData.PROVIDERS);
+        generator.setRockets(rockets);
+        List<Entity> entities = new ArrayList<>(generator.providers());
+        entities.addAll(generator.rockets());
+        generator.launches(launches).forEach(entities::add);
+        neo4j.saveAll(entities);
+        dao = new Neo4jDAO(neo4j.getSession(), neo4j.getSessionFactory());
+        inMemory = new RocketMiner(dao);
+        projection = new RocketMiner(dao);
+        projection.setExecutionMode(RocketMiner.ExecutionMode.PROJECTION);
+    }
+
+    @TearDown
+    public void tearDown() {
+        neo4j.close();
+    }
+
+    @Benchmark
+    public long streamLaunches() {
+        try (Stream<Launch> stream = dao.stream(Launch.class)) {
+            return stream.count();
+        }
+    }
+
+    @Benchmark
+    public long streamLaunchRows() {
+        try (Stream<LaunchRow> rows = dao.streamLaunchRows()) {
+            return rows.count();
+        }
+    }
+
+    @Benchmark
+    public List<Rocket> mostLaunchedRocketsInMemory() {
+        return inMemory.mostLaunchedRockets(k);
+    }
+
+    @Benchmark
+    public List<Rocket> mostLaunchedRocketsProjection() {
+        return projection.mostLaunchedRockets(k);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProvidersInMemory() {
+        return inMemory.mostReliableLaunchServiceProviders(k);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProvidersProjection() {
+        return projection.mostReliableLaunchServiceProviders(k);
+    }
+
+    @Benchmark
+    public String dominantCountryInMemory() {
+        return inMemory.dominantCountry("LEO");
+    }
+
+    @Benchmark
+    public String dominantCountryProjection() {
+        return projection.dominantCountry("LEO");
+    }
+}
@@ -0,0 +1,75 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.math.BigDecimal.ROUND_HALF_DOWN;
+import static rockets.model.Launch.LaunchOutcome.FAILED;
+
+/**
+ * Compares the allocation rate of the {@link ReliabilityCounter} accumulation
+ * with the BigDecimal accumulator it replaced. Run with {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReliabilityBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int launches;
+
+    private Collection<Launch> loadedLaunches;
+
+    private RocketMiner miner;
+
+    @Setup
+    public void setUp() {
+        DAO dao = BenchmarkData.populate(1_000, launches, 1);
+        loadedLaunches = dao.loadAll(Launch.class);
+        miner = new RocketMiner(dao);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> mostReliable() {
+        return miner.mostReliableLaunchServiceProviders(10);
+    }
+
+    @Benchmark
+    public Map<LaunchServiceProvider, ReliabilityCounter> counters() {
+        Map<LaunchServiceProvider, ReliabilityCounter> counters = new LinkedHashMap<>();
+        for (Launch l : loadedLaunches) {
+            counters.computeIfAbsent(l.getLaunchServiceProvider(), p -> new ReliabilityCounter()).record(l.getLaunchOutcome());
+        }
+        return counters;
+    }
+
+    @Benchmark
+    public Map<LaunchServiceProvider, BigDecimal[]> bigDecimalAccumulator() {
+        // success, failed and percentage of each provider, updated on every launch
+        Map<LaunchServiceProvider, BigDecimal[]> servers = new LinkedHashMap<>();
+        for (Launch l : loadedLaunches) {
+            BigDecimal[] server = servers.get(l.getLaunchServiceProvider());
+            if (server == null) {
+                boolean failed = l.getLaunchOutcome() == FAILED;
+                servers.put(l.getLaunchServiceProvider(), new BigDecimal[]{
+                        new BigDecimal(failed ? 0 : 1), new BigDecimal(failed ? 1 : 0), new BigDecimal(failed ? 0 : 1)});
+                continue;
+            }
+            if (l.getLaunchOutcome() == FAILED) {
+                server[1] = server[1].add(new BigDecimal(1));
+            } else {
+                server[0] = server[0].add(new BigDecimal(1));
+            }
+            server[2] = server[0].divide(server[1].add(server[0]), 10, ROUND_HALF_DOWN);
+        }
+        return servers;
+    }
+}
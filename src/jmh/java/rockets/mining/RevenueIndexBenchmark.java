@@ -0,0 +1,54 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.dataaccess.DAO;
+import rockets.model.LaunchServiceProvider;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares revenue rankings answered by a {@link RevenueIndex} with the scan
+ * of every launch they replace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RevenueIndexBenchmark {
+    @Param({"100000", "1000000"})
+    public int launches;
+
+    private RocketMiner miner;
+
+    private RevenueIndex index;
+
+    @Setup
+    public void setUp() {
+        DAO dao = BenchmarkData.populate(1_000, launches, 1);
+        miner = new RocketMiner(dao);
+        index = RevenueIndex.load(dao);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> scanYear() {
+        return miner.highestRevenueLaunchServiceProviders(10, 1990);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> indexYear() {
+        return index.highestRevenueLaunchServiceProviders(10, 1990);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> scanDecade() {
+        return miner.highestRevenueLaunchServiceProviders(10, 1980, 1989);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> indexDecade() {
+        return index.highestRevenueLaunchServiceProviders(10, 1980, 1989);
+    }
+}
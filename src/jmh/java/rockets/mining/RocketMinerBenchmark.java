@@ -0,0 +1,131 @@
+package rockets.mining;
+
+import org.openjdk.jmh.annotations.*;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The baseline of every {@link RocketMiner} query over an in-memory DAO, as
+ * the number of launches grows. Each query is measured as throughput and as
+ * average latency; the GC profiler, on by default in the benchmark profile,
+ * adds the allocation rate:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="RocketMinerBenchmark -prof gc"
+ * </pre>
+ * {@link RocketMiner#batch()} is measured by {@link MinerBatchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RocketMinerBenchmark {
+    private static final int ROCKETS = 1_000;
+
+    private static final int YEAR = 2000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int launches;
+
+    @Param({"10"})
+    public int k;
+
+    private RocketMiner miner;
+
+    @Setup
+    public void setUp() {
+        miner = new RocketMiner(BenchmarkData.populate(ROCKETS, launches, 1));
+    }
+
+    @Benchmark
+    public List<Rocket> mostLaunchedRockets() {
+        return miner.mostLaunchedRockets(k);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProviders() {
+        return miner.mostReliableLaunchServiceProviders(k);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProvidersByWilsonBound() {
+        return miner.mostReliableLaunchServiceProviders(k, ReliabilityRanking.WILSON_LOWER_BOUND, 10);
+    }
+
+    @Benchmark
+    public List<Launch> mostRecentLaunches() {
+        return miner.mostRecentLaunches(k);
+    }
+
+    @Benchmark
+    public List<Launch> launchesBetween() {
+        return miner.launchesBetween(LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 12, 31));
+    }
+
+    @Benchmark
+    public List<Launch> launchesInQuarter() {
+        return miner.launchesInQuarter(YEAR, 2);
+    }
+
+    @Benchmark
+    public List<Launch> launchesInMonth() {
+        return miner.launchesInMonth(YEAR, 6);
+    }
+
+    @Benchmark
+    public String dominantCountry() {
+        return miner.dominantCountry("LEO");
+    }
+
+    @Benchmark
+    public List<Launch> mostExpensiveLaunches() {
+        return miner.mostExpensiveLaunches(k);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders() {
+        return miner.highestRevenueLaunchServiceProviders(k, YEAR);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProvidersOverYears() {
+        return miner.highestRevenueLaunchServiceProviders(k, YEAR - 9, YEAR);
+    }
+
+    @Benchmark
+    public List<LaunchServiceProvider> highestTrailingRevenueLaunchServiceProviders() {
+        return miner.highestTrailingRevenueLaunchServiceProviders(k, 5, YEAR);
+    }
+
+    @Benchmark
+    public LaunchServiceProvider dominantLaunchServiceProvider() {
+        return miner.dominantLaunchServiceProvider("GTO");
+    }
+
+    @Benchmark
+    public Map<String, OrbitDominance> dominanceTable() {
+        return miner.dominanceTable();
+    }
+
+    @Benchmark
+    public List<Launch> lightestPayloadsLauchInLEO() {
+        return miner.lightestPayloadsLauchInLEO(k);
+    }
+
+    @Benchmark
+    public String dominantCountryInPayLoads() {
+        return miner.dominantCountryInPayLoads("LEO");
+    }
+
+    @Benchmark
+    public PayloadMatrix payloadMatrix() {
+        return miner.payloadMatrix();
+    }
+}
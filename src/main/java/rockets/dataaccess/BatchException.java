@@ -0,0 +1,40 @@
+package rockets.dataaccess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown by {@link DAO#createOrUpdateAll(java.util.Collection)} when a batch
+ * fails. The failed batch and the batches after it were not written; the
+ * batches before it were, and are reported here.
+ */
+public class BatchException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<BatchResult> committed;
+
+    private final int failedAt;
+
+    /**
+     * @param committed the batches written before the failure.
+     * @param failedAt the position in the collection of the first entity of the failed batch.
+     * @param cause why the batch failed.
+     */
+    public BatchException(List<BatchResult> committed, int failedAt, Throwable cause) {
+        super(String.format("the batch starting at entity %d failed", failedAt), cause);
+        this.committed = Collections.unmodifiableList(new ArrayList<>(committed));
+        this.failedAt = failedAt;
+    }
+
+    public List<BatchResult> getCommitted() {
+        return committed;
+    }
+
+    /**
+     * @return the position in the collection of the first entity that was not written.
+     */
+    public int getFailedAt() {
+        return failedAt;
+    }
+}
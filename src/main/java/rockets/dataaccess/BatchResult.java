@@ -0,0 +1,70 @@
+package rockets.dataaccess;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * What a batch of {@link DAO#createOrUpdateAll(java.util.Collection)} wrote:
+ * the entities at positions {@code first} to {@code first + size - 1} of the
+ * collection, saved in one transaction.
+ */
+public final class BatchResult {
+    private final int first;
+
+    private final int created;
+
+    private final int updated;
+
+    /**
+     * @param first the position of the first entity of the batch in the collection.
+     * @param created the entities of the batch that were created.
+     * @param updated the entities of the batch that updated an existing one.
+     */
+    public BatchResult(int first, int created, int updated) {
+        isTrue(first >= 0, "first cannot be negative");
+        isTrue(created >= 0, "created cannot be negative");
+        isTrue(updated >= 0, "updated cannot be negative");
+        this.first = first;
+        this.created = created;
+        this.updated = updated;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSize() {
+        return created + updated;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchResult that = (BatchResult) o;
+        return first == that.first &&
+                created == that.created &&
+                updated == that.updated;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * first + created) + updated;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "first=" + first +
+                ", created=" + created +
+                ", updated=" + updated +
+                '}';
+    }
+}
@@ -1,15 +1,96 @@
 package rockets.dataaccess;
 
 import rockets.model.Entity;
+import rockets.model.Launch;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.notNull;
 
 public interface DAO {
     <T extends Entity> T load(Class<T> clazz, Long id);
 
     <T extends Entity> T createOrUpdate(T entity);
 
+    /**
+     * Creates or updates every entity, in the order of the collection, as
+     * {@link #createOrUpdate(Entity)} would, and reports each batch of
+     * entities written together. If a batch fails, a {@link BatchException}
+     * reports the batches written before it. Implementations that write a
+     * batch in a transaction, such as
+     * {@link rockets.dataaccess.neo4j.Neo4jDAO}, roll the failed batch back.
+     * <p>
+     * The default writes each entity with {@link #createOrUpdate(Entity)} as
+     * a batch of its own, counted as created if the entity had no id. It
+     * cannot roll anything back: the entities before the failed one stay
+     * written, and the failed one is left as its own write left it.
+     *
+     * @return the batches, in order.
+     */
+    default <T extends Entity> List<BatchResult> createOrUpdateAll(Collection<T> entities) {
+        notNull(entities);
+        List<BatchResult> results = new ArrayList<>();
+        int position = 0;
+        for (T entity : entities) {
+            boolean created = entity.getId() == null;
+            try {
+                createOrUpdate(entity);
+            } catch (RuntimeException e) {
+                throw new BatchException(results, position, e);
+            }
+            results.add(new BatchResult(position++, created ? 1 : 0, created ? 0 : 1));
+        }
+        return results;
+    }
+
     <T extends Entity> Collection<T> loadAll(Class<T> clazz);
 
+    /**
+     * Returns the ids of every entity of a class, in the order
+     * {@link #loadAll(Class)} returns the entities, for callers that only
+     * need to refer to them.
+     * <p>
+     * The default maps the entities returned by {@link #loadAll(Class)}.
+     */
+    default <T extends Entity> List<Long> loadIds(Class<T> clazz) {
+        List<Long> ids = new ArrayList<>();
+        for (T entity : loadAll(clazz)) {
+            ids.add(entity.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Streams every entity of a class, for callers that can consume them one
+     * at a time. The stream should be closed once consumed, for example with
+     * try-with-resources, so that the DAO can release what it holds for it.
+     * <p>
+     * A DAO may let go of a streamed entity once the stream moves past it,
+     * so streamed entities are detached: they are not the instances
+     * {@link #load(Class, Long)} returns, and may refer to entities loaded
+     * for the stream only. A streamed entity can still be changed and passed
+     * to {@link #createOrUpdate(Entity)}, which updates the stored entity,
+     * relationships included.
+     * <p>
+     * The default streams the collection returned by {@link #loadAll(Class)}.
+     */
+    default <T extends Entity> Stream<T> stream(Class<T> clazz) {
+        return loadAll(clazz).stream();
+    }
+
+    /**
+     * Streams a flat row per launch, for callers that only aggregate scalar
+     * properties and need no launch objects. Close the stream like
+     * {@link #stream(Class)}.
+     * <p>
+     * The default maps the launches streamed by {@link #stream(Class)}.
+     */
+    default Stream<LaunchRow> streamLaunchRows() {
+        return stream(Launch.class).map(LaunchRow::of);
+    }
+
     <T extends Entity> void delete(T entity);
 }
@@ -0,0 +1,32 @@
+package rockets.dataaccess;
+
+import rockets.model.Entity;
+
+/**
+ * Receives the writes made through an {@link ObservableDAO}.
+ */
+public interface DAOListener {
+    /**
+     * Called before an entity is created or updated, so that a listener that
+     * cannot follow the write rejects it before it reaches the DAO.
+     *
+     * @param entity the entity about to be saved.
+     * @throws IllegalArgumentException to reject the write.
+     */
+    default void saving(Entity entity) {
+    }
+
+    /**
+     * Called after an entity was created or updated.
+     *
+     * @param entity the saved entity, with its id set.
+     */
+    void saved(Entity entity);
+
+    /**
+     * Called after an entity was deleted.
+     *
+     * @param entity the deleted entity.
+     */
+    void deleted(Entity entity);
+}
@@ -0,0 +1,93 @@
+package rockets.dataaccess;
+
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the writes made to each entity type through an {@link ObservableDAO}.
+ * A result computed from some entity types is still current as long as the
+ * {@link #version(Class[]) version} of those types has not changed.
+ * Saving an entity also saves the entities it refers to, so a save bumps
+ * the type of every entity reachable from the saved one:
+ * <pre>
+ * ObservableDAO dao = new ObservableDAO(neo4jDAO);
+ * DataVersions versions = new DataVersions();
+ * dao.addListener(versions);
+ * </pre>
+ */
+public class DataVersions implements DAOListener {
+    private final Map<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public void saved(Entity entity) {
+        Set<Class<?>> types = new HashSet<>();
+        Set<Entity> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Entity> pending = new ArrayDeque<>();
+        pending.push(entity);
+        while (!pending.isEmpty()) {
+            Entity next = pending.pop();
+            if (!visited.add(next)) {
+                continue;
+            }
+            types.add(next.getClass());
+            for (Entity referred : referredBy(next)) {
+                if (referred != null) {
+                    pending.push(referred);
+                }
+            }
+        }
+        types.forEach(this::bump);
+    }
+
+    // the entities a save of the given one cascades to
+    private static Collection<? extends Entity> referredBy(Entity entity) {
+        if (entity instanceof Launch) {
+            Launch launch = (Launch) entity;
+            List<Entity> referred = new ArrayList<>();
+            referred.add(launch.getLaunchVehicle());
+            referred.add(launch.getLaunchServiceProvider());
+            if (launch.getPayload() != null) {
+                referred.addAll(launch.getPayload());
+            }
+            return referred;
+        }
+        if (entity instanceof Rocket) {
+            Rocket rocket = (Rocket) entity;
+            return Arrays.asList(rocket.getManufacturer(), rocket.getRocketKind());
+        }
+        if (entity instanceof LaunchServiceProvider && ((LaunchServiceProvider) entity).getRockets() != null) {
+            return ((LaunchServiceProvider) entity).getRockets();
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void deleted(Entity entity) {
+        bump(entity.getClass());
+    }
+
+    private void bump(Class<?> clazz) {
+        versions.computeIfAbsent(clazz, c -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * @return the number of writes made so far to entities of the given types.
+     * It only grows, so it changes exactly when one of the types is written.
+     */
+    public long version(Class<?>... classes) {
+        long version = 0;
+        for (Class<?> clazz : classes) {
+            AtomicLong writes = versions.get(clazz);
+            if (writes != null) {
+                version += writes.get();
+            }
+        }
+        return version;
+    }
+}
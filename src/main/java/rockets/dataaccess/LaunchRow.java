@@ -0,0 +1,206 @@
+package rockets.dataaccess;
+
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.Money;
+
+import java.util.Objects;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The scalar properties of a launch that the miner aggregates, with the
+ * launch vehicle and launch service provider referred to by id. A row is
+ * flat: it holds no entity, so reading one needs no object graph.
+ */
+public final class LaunchRow {
+    /**
+     * The id of a missing launch vehicle or launch service provider.
+     */
+    public static final long NO_ID = -1;
+
+    /**
+     * The epoch day of a launch without a launch date.
+     */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private final long id;
+
+    private final long launchEpochDay;
+
+    private final long rocketId;
+
+    private final long providerId;
+
+    private final String providerCountry;
+
+    private final String orbit;
+
+    private final String launchSite;
+
+    private final boolean failed;
+
+    private final long priceMinorUnits;
+
+    private final String priceCurrency;
+
+    private final int payloadMassToLEO;
+
+    private final int payloadMassToGTO;
+
+    private final int payloadMassToOther;
+
+    public LaunchRow(long id, long launchEpochDay, long rocketId, long providerId, String providerCountry,
+                     String orbit, String launchSite, boolean failed, long priceMinorUnits, String priceCurrency,
+                     int payloadMassToLEO, int payloadMassToGTO, int payloadMassToOther) {
+        this.id = id;
+        this.launchEpochDay = launchEpochDay;
+        this.rocketId = rocketId;
+        this.providerId = providerId;
+        this.providerCountry = providerCountry;
+        this.orbit = orbit;
+        this.launchSite = launchSite;
+        this.failed = failed;
+        this.priceMinorUnits = priceMinorUnits;
+        this.priceCurrency = priceCurrency;
+        this.payloadMassToLEO = payloadMassToLEO;
+        this.payloadMassToGTO = payloadMassToGTO;
+        this.payloadMassToOther = payloadMassToOther;
+    }
+
+    /**
+     * @return the row of a launch that has an id.
+     */
+    public static LaunchRow of(Launch launch) {
+        notNull(launch.getId(), "launches need an id to be projected");
+        Money price = launch.getPriceMoney();
+        return new LaunchRow(launch.getId(),
+                launch.getLaunchDate() == null ? NO_DATE : launch.getLaunchDate().toEpochDay(),
+                idOf(launch.getLaunchVehicle()),
+                idOf(launch.getLaunchServiceProvider()),
+                launch.getLaunchServiceProvider() == null ? null : launch.getLaunchServiceProvider().getCountry(),
+                launch.getOrbit(),
+                launch.getLaunchSite(),
+                launch.getLaunchOutcome() == Launch.LaunchOutcome.FAILED,
+                price == null ? 0 : price.getMinorUnits(),
+                price == null ? null : price.getCurrency(),
+                launch.getPayloadMassToLEO(),
+                launch.getPayloadMassToGTO(),
+                launch.getPayloadMassToOther());
+    }
+
+    private static long idOf(Entity entity) {
+        return entity == null || entity.getId() == null ? NO_ID : entity.getId();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the launch date as an epoch day, or {@link #NO_DATE}.
+     */
+    public long getLaunchEpochDay() {
+        return launchEpochDay;
+    }
+
+    /**
+     * @return the id of the launch vehicle, or {@link #NO_ID}.
+     */
+    public long getRocketId() {
+        return rocketId;
+    }
+
+    /**
+     * @return the id of the launch service provider, or {@link #NO_ID}.
+     */
+    public long getProviderId() {
+        return providerId;
+    }
+
+    public String getProviderCountry() {
+        return providerCountry;
+    }
+
+    public String getOrbit() {
+        return orbit;
+    }
+
+    public String getLaunchSite() {
+        return launchSite;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return the price in minor units of {@link #getPriceCurrency()}, or 0 if there is no price.
+     */
+    public long getPriceMinorUnits() {
+        return priceMinorUnits;
+    }
+
+    /**
+     * @return the currency of the price, or null if there is no price.
+     */
+    public String getPriceCurrency() {
+        return priceCurrency;
+    }
+
+    public int getPayloadMassToLEO() {
+        return payloadMassToLEO;
+    }
+
+    public int getPayloadMassToGTO() {
+        return payloadMassToGTO;
+    }
+
+    public int getPayloadMassToOther() {
+        return payloadMassToOther;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LaunchRow that = (LaunchRow) o;
+        return id == that.id &&
+                launchEpochDay == that.launchEpochDay &&
+                rocketId == that.rocketId &&
+                providerId == that.providerId &&
+                failed == that.failed &&
+                priceMinorUnits == that.priceMinorUnits &&
+                payloadMassToLEO == that.payloadMassToLEO &&
+                payloadMassToGTO == that.payloadMassToGTO &&
+                payloadMassToOther == that.payloadMassToOther &&
+                Objects.equals(providerCountry, that.providerCountry) &&
+                Objects.equals(orbit, that.orbit) &&
+                Objects.equals(launchSite, that.launchSite) &&
+                Objects.equals(priceCurrency, that.priceCurrency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "LaunchRow{" +
+                "id=" + id +
+                ", launchEpochDay=" + launchEpochDay +
+                ", rocketId=" + rocketId +
+                ", providerId=" + providerId +
+                ", providerCountry='" + providerCountry + '\'' +
+                ", orbit='" + orbit + '\'' +
+                ", launchSite='" + launchSite + '\'' +
+                ", failed=" + failed +
+                ", priceMinorUnits=" + priceMinorUnits +
+                ", priceCurrency='" + priceCurrency + '\'' +
+                ", payloadMassToLEO=" + payloadMassToLEO +
+                ", payloadMassToGTO=" + payloadMassToGTO +
+                ", payloadMassToOther=" + payloadMassToOther +
+                '}';
+    }
+}
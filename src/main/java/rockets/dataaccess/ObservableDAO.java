@@ -0,0 +1,118 @@
+package rockets.dataaccess;
+
+import rockets.model.Entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A DAO that tells its listeners about every write it passes on to another DAO.
+ * Listeners are called on the writing thread, after the write succeeded. A
+ * listener may reject a save beforehand, in which case nothing is written and
+ * no listener is told about it.
+ */
+public class ObservableDAO implements DAO {
+    private final DAO dao;
+
+    private final List<DAOListener> listeners = new CopyOnWriteArrayList<>();
+
+    public ObservableDAO(DAO dao) {
+        notNull(dao);
+        this.dao = dao;
+    }
+
+    public void addListener(DAOListener listener) {
+        notNull(listener);
+        listeners.add(listener);
+    }
+
+    public void removeListener(DAOListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public <T extends Entity> T load(Class<T> clazz, Long id) {
+        return dao.load(clazz, id);
+    }
+
+    @Override
+    public <T extends Entity> T createOrUpdate(T entity) {
+        checkSaving(entity);
+        T saved = dao.createOrUpdate(entity);
+        for (DAOListener listener : listeners) {
+            listener.saved(saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Tells the listeners about every entity of the batches that were written,
+     * also when a later batch failed.
+     */
+    @Override
+    public <T extends Entity> List<BatchResult> createOrUpdateAll(Collection<T> entities) {
+        notNull(entities);
+        List<T> list = new ArrayList<>(entities);
+        for (T entity : list) {
+            checkSaving(entity);
+        }
+        List<BatchResult> results;
+        try {
+            results = dao.createOrUpdateAll(list);
+        } catch (BatchException e) {
+            notifySaved(list, e.getCommitted());
+            throw e;
+        }
+        notifySaved(list, results);
+        return results;
+    }
+
+    private void checkSaving(Entity entity) {
+        for (DAOListener listener : listeners) {
+            listener.saving(entity);
+        }
+    }
+
+    private void notifySaved(List<? extends Entity> entities, List<BatchResult> batches) {
+        for (BatchResult batch : batches) {
+            for (Entity saved : entities.subList(batch.getFirst(), batch.getFirst() + batch.getSize())) {
+                for (DAOListener listener : listeners) {
+                    listener.saved(saved);
+                }
+            }
+        }
+    }
+
+    @Override
+    public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
+        return dao.loadAll(clazz);
+    }
+
+    @Override
+    public <T extends Entity> List<Long> loadIds(Class<T> clazz) {
+        return dao.loadIds(clazz);
+    }
+
+    @Override
+    public <T extends Entity> Stream<T> stream(Class<T> clazz) {
+        return dao.stream(clazz);
+    }
+
+    @Override
+    public Stream<LaunchRow> streamLaunchRows() {
+        return dao.streamLaunchRows();
+    }
+
+    @Override
+    public <T extends Entity> void delete(T entity) {
+        dao.delete(entity);
+        for (DAOListener listener : listeners) {
+            listener.deleted(entity);
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package rockets.dataaccess.generator;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.lang3.Validate;
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+import rockets.model.Payloads;
+import rockets.model.Rocket;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates a seeded, synthetic graph of launch service providers, rockets,
+ * payloads and launches, for tests and benchmarks that need more than a
+ * hand-built fixture. The same seed and settings always give the same graph.
+ * <p>
+ * The providers and rockets, the fleet, are built on first use and shared by
+ * every launch; the settings cannot change after that. Launch {@code i}
+ * depends only on the seed, the settings and {@code i}, so launches are
+ * streamed without being kept, and a parallel stream gives the same launches
+ * as a sequential one.
+ * <p>
+ * Providers are picked with a Zipf distribution: with skew s, provider i
+ * (from 0) flies in proportion to 1 / (i + 1)^s, so 0 is uniform and 1 lets
+ * the first few providers fly most launches. The rockets of a provider are
+ * picked the same way, with their own skew. Rockets come in families of up to
+ * four, whose later members have the first as their rocket kind. Each
+ * provider fails at its own rate, spread around the configured one, and
+ * prices are log-normal around a median.
+ */
+public final class LaunchGenerator {
+    static final String[] CSV_HEADER = {"index", "launch_date", "launch_vehicle", "rocket_kind",
+            "launch_service_provider", "country", "launch_site", "orbit", "launch_outcome", "price", "currency",
+            "payloads", "payload_mass_to_leo", "payload_mass_to_gto", "payload_mass_to_other"};
+
+    private static final String[] COUNTRIES = {"USA", "Russia", "China", "Europe", "Japan", "India", "Israel",
+            "Iran", "New Zealand", "South Korea"};
+
+    private static final int FAMILY_SIZE = 4;
+
+    private static final int SITES_PER_PROVIDER = 3;
+
+    private static final int PAYLOAD_MANUFACTURERS = 20;
+
+    private final long seed;
+
+    private int providers = 50;
+
+    private int rockets = 500;
+
+    private double providerSkew = 1;
+
+    private double rocketSkew = 1;
+
+    private String[] orbits = {"LEO", "GTO", "SSO", "MEO"};
+
+    private double[] orbitCdf = cdf(new double[]{0.55, 0.3, 0.1, 0.05});
+
+    private double failureRate = 0.05;
+
+    private Money medianPrice = Money.ofMinor(6_000_000_000L, Money.DEFAULT_CURRENCY);
+
+    private double priceSpread = 0.5;
+
+    private double pricedShare = 1;
+
+    private LocalDate from = LocalDate.of(1960, 1, 1);
+
+    private LocalDate to = LocalDate.of(2019, 12, 31);
+
+    private int maxPayloads = 3;
+
+    private volatile Fleet fleet;
+
+    public LaunchGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public void setProviders(int providers) {
+        Validate.isTrue(providers > 0, "providers must be positive");
+        checkNotBuilt();
+        this.providers = providers;
+    }
+
+    /**
+     * Sets the number of rockets, which are shared among the providers in
+     * turn; there must be at least one per provider.
+     */
+    public void setRockets(int rockets) {
+        Validate.isTrue(rockets > 0, "rockets must be positive");
+        checkNotBuilt();
+        this.rockets = rockets;
+    }
+
+    public void setProviderSkew(double providerSkew) {
+        Validate.isTrue(providerSkew >= 0, "skew cannot be negative");
+        checkNotBuilt();
+        this.providerSkew = providerSkew;
+    }
+
+    public void setRocketSkew(double rocketSkew) {
+        Validate.isTrue(rocketSkew >= 0, "skew cannot be negative");
+        checkNotBuilt();
+        this.rocketSkew = rocketSkew;
+    }
+
+    /**
+     * Sets the orbits of the launches, each picked in proportion to its
+     * weight. The orbits are taken in the iteration order of the map, which
+     * should be stable for the launches to be.
+     */
+    public void setOrbitMix(Map<String, Double> weights) {
+        Validate.notEmpty(weights, "the orbit mix cannot be empty");
+        String[] orbits = new String[weights.size()];
+        double[] orbitWeights = new double[weights.size()];
+        int i = 0;
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            Validate.notNull(entry.getKey(), "orbits cannot be null");
+            Validate.isTrue(entry.getValue() != null && entry.getValue() > 0, "orbit weights must be positive");
+            orbits[i] = entry.getKey();
+            orbitWeights[i++] = entry.getValue();
+        }
+        checkNotBuilt();
+        this.orbits = orbits;
+        this.orbitCdf = cdf(orbitWeights);
+    }
+
+    /**
+     * Sets the average failure rate. Each provider fails at between a quarter
+     * and one and three quarters of it.
+     */
+    public void setFailureRate(double failureRate) {
+        Validate.isTrue(failureRate >= 0 && failureRate <= 1, "failure rate must be between 0 and 1");
+        checkNotBuilt();
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * Sets the median price, whose currency every price is in, and the
+     * standard deviation of the logarithm of the prices around it.
+     */
+    public void setPrices(Money medianPrice, double priceSpread) {
+        Validate.notNull(medianPrice, "median price cannot be null");
+        Validate.isTrue(medianPrice.getMinorUnits() > 0, "median price must be positive");
+        Validate.isTrue(priceSpread >= 0, "price spread cannot be negative");
+        checkNotBuilt();
+        this.medianPrice = medianPrice;
+        this.priceSpread = priceSpread;
+    }
+
+    /**
+     * Sets the share of launches that have a price; the others have none.
+     */
+    public void setPricedShare(double pricedShare) {
+        Validate.isTrue(pricedShare >= 0 && pricedShare <= 1, "priced share must be between 0 and 1");
+        checkNotBuilt();
+        this.pricedShare = pricedShare;
+    }
+
+    /**
+     * Sets the first and last days on which launches take place.
+     */
+    public void setDates(LocalDate from, LocalDate to) {
+        Validate.notNull(from, "from cannot be null");
+        Validate.notNull(to, "to cannot be null");
+        Validate.isTrue(!to.isBefore(from), "the dates cannot end before they start");
+        checkNotBuilt();
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Sets the most payloads a launch carries; each carries at least one.
+     */
+    public void setMaxPayloads(int maxPayloads) {
+        Validate.isTrue(maxPayloads > 0, "maxPayloads must be positive");
+        checkNotBuilt();
+        this.maxPayloads = maxPayloads;
+    }
+
+    /**
+     * @return the providers, the same objects on every call.
+     */
+    public List<LaunchServiceProvider> providers() {
+        return fleet().providerList;
+    }
+
+    /**
+     * @return the rockets, the same objects on every call. Each family comes
+     * before its variants, so saving them in order saves a rocket kind before
+     * the rockets of that kind.
+     */
+    public List<Rocket> rockets() {
+        return fleet().rocketList;
+    }
+
+    /**
+     * @return launch {@code index}, a new object on every call.
+     */
+    public Launch launch(long index) {
+        Validate.isTrue(index >= 0, "index cannot be negative");
+        Fleet fleet = fleet();
+        SplittableRandom random = new SplittableRandom(mix(mix(seed) + index));
+        Provider provider = fleet.providers[pick(fleet.providerCdf, random)];
+        Rocket rocket = provider.rockets[pick(provider.rocketCdf, random)];
+        Launch launch = new Launch();
+        launch.setLaunchDate(LocalDate.ofEpochDay(from.toEpochDay() + random.nextLong(fleet.days)));
+        launch.setLaunchVehicle(rocket);
+        launch.setLaunchServiceProvider(provider.lsp);
+        launch.setLaunchSite(provider.sites[random.nextInt(provider.sites.length)]);
+        launch.setOrbit(orbits[pick(orbitCdf, random)]);
+        launch.setLaunchOutcome(random.nextDouble() < provider.failureRate
+                ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+        if (random.nextDouble() < pricedShare) {
+            launch.setPriceMoney(Money.ofMinor(price(random), medianPrice.getCurrency()));
+        }
+        int count = 1 + random.nextInt(maxPayloads);
+        Set<Payloads> payloads = new LinkedHashSet<>(2 * count);
+        for (int i = 0; i < count; i++) {
+            String country = random.nextInt(10) < 7 ? provider.lsp.getCountry() : COUNTRIES[random.nextInt(COUNTRIES.length)];
+            Payloads payload = new Payloads("payload_" + index + "_" + i, country,
+                    fleet.manufacturers[random.nextInt(fleet.manufacturers.length)]);
+            // a share of at most 1 / count of the capacity keeps the payloads within it for every orbit
+            double share = (0.1 + 0.9 * random.nextDouble()) / count;
+            payload.setMassToLEO((int) (rocket.getMassToLEO() * share));
+            payload.setMassToGTO((int) (rocket.getMassToGTO() * share));
+            payload.setMassToOther((int) (rocket.getMassToOther() * share));
+            payloads.add(payload);
+        }
+        launch.setPayload(payloads);
+        return launch;
+    }
+
+    /**
+     * @return a lazy stream of launches 0 to {@code count - 1}.
+     */
+    public Stream<Launch> launches(long count) {
+        Validate.isTrue(count >= 0, "count cannot be negative");
+        // built before the stream, so that a parallel stream shares one fleet
+        fleet();
+        return LongStream.range(0, count).mapToObj(this::launch);
+    }
+
+    /**
+     * Saves the providers, the rockets and {@code count} launches, one at a
+     * time. The DAO gives the shared providers and rockets their ids, so
+     * populate a single DAO from a generator.
+     */
+    public void populate(DAO dao, long count) {
+        Validate.notNull(dao, "dao cannot be null");
+        for (LaunchServiceProvider lsp : providers()) {
+            dao.createOrUpdate(lsp);
+        }
+        for (Rocket rocket : rockets()) {
+            dao.createOrUpdate(rocket);
+        }
+        launches(count).forEach(dao::createOrUpdate);
+    }
+
+    /**
+     * Writes {@code count} launches as CSV, with a header and a row per
+     * launch naming its rocket and provider. The output is flushed but not
+     * closed.
+     */
+    public void writeCsv(Appendable out, long count) throws IOException {
+        Validate.notNull(out, "out cannot be null");
+        CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT.withHeader(CSV_HEADER));
+        for (long i = 0; i < count; i++) {
+            Launch launch = launch(i);
+            Rocket kind = launch.getLaunchVehicle().getRocketKind();
+            Money price = launch.getPriceMoney();
+            printer.printRecord(i, launch.getLaunchDate(), launch.getLaunchVehicle().getName(),
+                    kind == null ? null : kind.getName(), launch.getLaunchServiceProvider().getName(),
+                    launch.getLaunchServiceProvider().getCountry(), launch.getLaunchSite(), launch.getOrbit(),
+                    launch.getLaunchOutcome(), price == null ? null : price.toBigDecimal().toPlainString(),
+                    price == null ? null : price.getCurrency(), launch.getPayload().size(),
+                    launch.getPayloadMassToLEO(), launch.getPayloadMassToGTO(), launch.getPayloadMassToOther());
+        }
+        printer.flush();
+    }
+
+    private void checkNotBuilt() {
+        Validate.validState(fleet == null, "the settings cannot change once the fleet is built");
+    }
+
+    private Fleet fleet() {
+        Fleet fleet = this.fleet;
+        if (fleet == null) {
+            synchronized (this) {
+                fleet = this.fleet;
+                if (fleet == null) {
+                    Validate.validState(rockets >= providers, "there must be at least one rocket per provider");
+                    fleet = new Fleet();
+                    this.fleet = fleet;
+                }
+            }
+        }
+        return fleet;
+    }
+
+    private long price(SplittableRandom random) {
+        // Box-Muller, as SplittableRandom has no nextGaussian
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        return Math.max(1, Math.round(medianPrice.getMinorUnits() * Math.exp(priceSpread * gaussian)));
+    }
+
+    private static int pick(double[] cdf, SplittableRandom random) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble() * cdf[cdf.length - 1]);
+        return Math.min(i < 0 ? -i - 1 : i + 1, cdf.length - 1);
+    }
+
+    private static double[] cdf(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum;
+        }
+        return cdf;
+    }
+
+    private static double[] zipf(int n, double skew) {
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1 / Math.pow(i + 1, skew);
+        }
+        return cdf(weights);
+    }
+
+    // the finalizer of MurmurHash3, so that neighbouring indices get unrelated random streams
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Provider {
+        private final LaunchServiceProvider lsp;
+
+        private final String[] sites = new String[SITES_PER_PROVIDER];
+
+        private final double failureRate;
+
+        private Rocket[] rockets;
+
+        private double[] rocketCdf;
+
+        private Provider(LaunchServiceProvider lsp, double failureRate) {
+            this.lsp = lsp;
+            this.failureRate = failureRate;
+            for (int i = 0; i < sites.length; i++) {
+                sites[i] = lsp.getName() + "_site_" + i;
+            }
+        }
+    }
+
+    private final class Fleet {
+        private final Provider[] providers = new Provider[LaunchGenerator.this.providers];
+
+        private final double[] providerCdf = zipf(providers.length, providerSkew);
+
+        private final long days = ChronoUnit.DAYS.between(from, to) + 1;
+
+        private final String[] manufacturers = new String[PAYLOAD_MANUFACTURERS];
+
+        private final List<LaunchServiceProvider> providerList;
+
+        private final List<Rocket> rocketList;
+
+        private Fleet() {
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = 0; i < manufacturers.length; i++) {
+                manufacturers[i] = "manufacturer_" + i;
+            }
+            List<LaunchServiceProvider> providerList = new ArrayList<>();
+            for (int i = 0; i < providers.length; i++) {
+                LaunchServiceProvider lsp = new LaunchServiceProvider("lsp_" + i,
+                        from.getYear() - random.nextInt(30), COUNTRIES[i % COUNTRIES.length]);
+                providers[i] = new Provider(lsp, Math.min(1, failureRate * (0.25 + 1.5 * random.nextDouble())));
+                providerList.add(lsp);
+            }
+            List<Rocket> rocketList = new ArrayList<>();
+            for (int i = 0; i < providers.length; i++) {
+                Provider provider = providers[i];
+                // rockets are dealt to the providers in turn
+                int count = rockets / providers.length + (i < rockets % providers.length ? 1 : 0);
+                provider.rockets = new Rocket[count];
+                provider.rocketCdf = zipf(count, rocketSkew);
+                Rocket kind = null;
+                for (int j = 0; j < count; j++) {
+                    int member = j % FAMILY_SIZE;
+                    Rocket rocket = new Rocket(provider.lsp.getName() + "_rocket_" + (j / FAMILY_SIZE) + "." + member,
+                            provider.lsp.getCountry(), provider.lsp);
+                    if (member == 0) {
+                        kind = rocket;
+                        rocket.setMassToLEO(2_000 + random.nextInt(60_000));
+                        rocket.setMassToGTO((int) (rocket.getMassToLEO() * (0.3 + 0.15 * random.nextDouble())));
+                        rocket.setMassToOther((int) (rocket.getMassToLEO() * (0.5 + 0.3 * random.nextDouble())));
+                    } else {
+                        // later variants of a family carry more
+                        double growth = 1 + 0.1 * member;
+                        rocket.setRocketKind(kind);
+                        rocket.setMassToLEO((int) (kind.getMassToLEO() * growth));
+                        rocket.setMassToGTO((int) (kind.getMassToGTO() * growth));
+                        rocket.setMassToOther((int) (kind.getMassToOther() * growth));
+                    }
+                    provider.rockets[j] = rocket;
+                    rocketList.add(rocket);
+                }
+            }
+            this.providerList = Collections.unmodifiableList(providerList);
+            this.rocketList = Collections.unmodifiableList(rocketList);
+        }
+    }
+}
@@ -3,45 +3,535 @@ package rockets.dataaccess.neo4j;
 import com.google.common.collect.Sets;
 import org.neo4j.ogm.cypher.Filter;
 import org.neo4j.ogm.cypher.Filters;
+import org.neo4j.ogm.session.Neo4jSession;
 import org.neo4j.ogm.session.Session;
+import org.neo4j.ogm.session.SessionFactory;
 import org.neo4j.ogm.transaction.Transaction;
+import rockets.dataaccess.BatchException;
+import rockets.dataaccess.BatchResult;
 import rockets.dataaccess.DAO;
+import rockets.dataaccess.LaunchRow;
+import rockets.metrics.Metrics;
 import rockets.model.Entity;
 import rockets.model.Launch;
 import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+import rockets.model.MoneyConverter;
 import rockets.model.Rocket;
 import rockets.model.User;
 
-import java.util.Collection;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
 import static org.neo4j.ogm.cypher.ComparisonOperator.EQUALS;
 
 public class Neo4jDAO implements DAO {
+    /**
+     * How {@link #createOrUpdate(Entity)} finds the entity it updates.
+     */
+    public enum UpsertMode {
+        /**
+         * Load the entity with the same natural key, then save the entity
+         * with the id of the loaded one in a transaction of its own: two
+         * round trips, which concurrent writers of the same key can interleave.
+         */
+        LOOKUP_THEN_SAVE,
+        /**
+         * Write a rocket, launch service provider or user, and the rockets and
+         * launch service providers it refers to, with one Cypher statement
+         * that merges each of them on its natural key and sets its properties
+         * and relationships. The statement runs in a transaction of its own
+         * and first locks the lock node of each natural key it writes, so
+         * concurrent writers of the same key wait for each other instead of
+         * creating duplicates. Keys share the {@link #LOCK_STRIPES} lock nodes
+         * by hash, so writers of other keys only wait when their keys share a
+         * lock node. Requires {@link #createSchema()}.
+         * <p>
+         * The rockets of a launch service provider are not written. Launches,
+         * and entities whose natural key has a null property, are saved as in
+         * {@link #LOOKUP_THEN_SAVE}, without the lookup that would not match.
+         */
+        MERGE
+    }
+
     private static final int DEPTH_ENTITY = 1;
 
+    // a stream session starts empty, so pages are loaded deep enough for the vehicle of a launch to have
+    // its manufacturer, which rocket equality compares
+    private static final int DEPTH_STREAM = 2;
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * The number of lock nodes that the natural keys written by
+     * {@link UpsertMode#MERGE} are spread over.
+     */
+    public static final int LOCK_STRIPES = 64;
+
+    /**
+     * The indexes and unique constraints on the properties that
+     * {@link #createOrUpdate(Entity)} looks entities up by, and on the lock
+     * nodes of {@link UpsertMode#MERGE}, created by {@link #createSchema()}.
+     * Each statement does nothing if it was applied before.
+     */
+    public static final List<String> SCHEMA = Collections.unmodifiableList(Arrays.asList(
+            "CREATE INDEX ON :Rocket(name, country)",
+            "CREATE INDEX ON :LaunchServiceProvider(name, yearFounded, country)",
+            "CREATE INDEX ON :Launch(launchDate, launchSite, launchOutcome)",
+            "CREATE CONSTRAINT ON (u:User) ASSERT u.email IS UNIQUE",
+            "CREATE CONSTRAINT ON (l:UpsertLock) ASSERT l.key IS UNIQUE"));
+
+    /**
+     * The statements that bring launches written by earlier versions up to
+     * date, run by {@link #createSchema()}. Each one only changes the nodes
+     * that still need it:
+     * <ul>
+     * <li>a price stored as a decimal string in {@code price} moves to the
+     * {@link MoneyConverter} properties, in {@link Money#DEFAULT_CURRENCY},
+     * rounded to the cent;</li>
+     * <li>a launch without the payload mass totals of
+     * {@link Launch#getPayloadMassToLEO()} and its siblings gets the sums of
+     * its payloads.</li>
+     * <li>the lock nodes that {@link UpsertMode#MERGE} used to keep per
+     * natural key are deleted.</li>
+     * </ul>
+     */
+    public static final List<String> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+            "MATCH (l:Launch) WHERE exists(l.price) AND NOT exists(l.`" + MoneyConverter.MINOR_UNITS + "`) " +
+            "SET l.`" + MoneyConverter.MINOR_UNITS + "` = toInteger(round(toFloat(l.price) * 100)), " +
+            "    l.`" + MoneyConverter.CURRENCY + "` = '" + Money.DEFAULT_CURRENCY + "' " +
+            "REMOVE l.price",
+            "MATCH (l:Launch) WHERE NOT exists(l.payloadMassToLEO) " +
+            "OPTIONAL MATCH (l)-[:PAYLOADS]->(p:Payloads) " +
+            "WITH l, sum(coalesce(p.massToLEO, 0)) AS leo, sum(coalesce(p.massToGTO, 0)) AS gto, " +
+            "     sum(coalesce(p.massToOther, 0)) AS other " +
+            "SET l.payloadMassToLEO = leo, l.payloadMassToGTO = gto, l.payloadMassToOther = other",
+            "MATCH (l:UpsertLock) WHERE NOT l.key IN range(0, " + (LOCK_STRIPES - 1) + ") DELETE l"));
+
+    private static final long SCHEMA_TIMEOUT_SECONDS = 600;
+
+    // the properties findExistingEntity matches each class on; launches are left out, as its filter on
+    // the launch vehicle relationship never matches, so a launch is only ever matched by its id
+    private static final Map<Class<?>, NaturalKey> NATURAL_KEYS = new HashMap<>();
+
+    static {
+        NATURAL_KEYS.put(Rocket.class, new NaturalKey(Rocket.class, entity -> {
+            Rocket rocket = (Rocket) entity;
+            return new Object[]{rocket.getName(), rocket.getCountry()};
+        }, "name", "country"));
+        NATURAL_KEYS.put(User.class, new NaturalKey(User.class, entity -> new Object[]{((User) entity).getEmail()}, "email"));
+        NATURAL_KEYS.put(LaunchServiceProvider.class, new NaturalKey(LaunchServiceProvider.class, entity -> {
+            LaunchServiceProvider lsp = (LaunchServiceProvider) entity;
+            return new Object[]{lsp.getName(), lsp.getYearFounded(), lsp.getCountry()};
+        }, "name", "yearFounded", "country"));
+    }
+
+    // locks the stripes of the keys a merge writes, in order, so that writers of the same keys take turns
+    private static final String LOCK_KEYS =
+            "UNWIND $locks AS key MERGE (lock:UpsertLock {key: key}) SET lock.locked = true " +
+            "WITH count(lock) AS locks";
+
+    // %s is replaced by the label of the class, whose nodes are scanned in the order loadAll finds them
+    private static final String IDS_QUERY = "MATCH (n:`%s`) RETURN id(n) AS id";
+
+    // %s is replaced by the label of the streamed class; the neighbours are the nodes a page loads with its entities
+    private static final String PAGE_IDS_QUERY =
+            "MATCH (n:`%s`) WHERE id(n) > $after WITH n ORDER BY id(n) LIMIT $size " +
+            "OPTIONAL MATCH (n)--(m) " +
+            "RETURN id(n) AS id, collect(DISTINCT id(m)) AS neighbours ORDER BY id";
+
+    private static final String PAGE_LAUNCH_ROWS_QUERY =
+            "MATCH (l:Launch) WHERE id(l) > $after " +
+            "WITH l ORDER BY id(l) LIMIT $size " +
+            "OPTIONAL MATCH (l)-[:LAUNCH_VEHICLE]->(r:Rocket) " +
+            "OPTIONAL MATCH (l)-[:LAUNCH_SERVICE_PROVIDER]->(p:LaunchServiceProvider) " +
+            "RETURN id(l) AS id, l.launchDate AS launchDate, id(r) AS rocketId, id(p) AS providerId, " +
+            "       p.country AS providerCountry, l.orbit AS orbit, l.launchSite AS launchSite, " +
+            "       l.launchOutcome = 'FAILED' AS failed, " +
+            "       l.`" + MoneyConverter.MINOR_UNITS + "` AS priceMinorUnits, " +
+            "       l.`" + MoneyConverter.CURRENCY + "` AS priceCurrency, " +
+            "       l.payloadMassToLEO AS payloadMassToLEO, l.payloadMassToGTO AS payloadMassToGTO, " +
+            "       l.payloadMassToOther AS payloadMassToOther " +
+            "ORDER BY id";
+
     private Session session;
 
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private UpsertMode upsertMode = UpsertMode.LOOKUP_THEN_SAVE;
+
+    private final SessionFactory streamSessions;
+
+    private Metrics metrics;
+
     public Neo4jDAO(Session session) {
+        this(session, null);
+    }
+
+    /**
+     * @param session the session the DAO loads and saves entities in.
+     * @param streamSessions opens the session each {@link #stream(Class)}
+     * loads its pages in, or null to load them in {@code session}.
+     */
+    public Neo4jDAO(Session session, SessionFactory streamSessions) {
         this.session = session;
+        this.streamSessions = streamSessions;
+    }
+
+    /**
+     * Creates the indexes and constraints of {@link #SCHEMA}, if they do not
+     * exist, waits until the indexes are populated, then runs the
+     * {@link #MIGRATIONS}. Call it once when the application starts: without
+     * the indexes, every lookup by natural key scans all the nodes of its
+     * label.
+     * <p>
+     * A composite index serves a lookup that matches all of its properties;
+     * Community Edition cannot enforce uniqueness over several properties, so
+     * only the email of a user is constrained to be unique.
+     *
+     * @throws org.neo4j.ogm.exception.CypherException if two users share an email.
+     */
+    public void createSchema() {
+        measure("Neo4jDAO.createSchema", () -> {
+            for (String statement : SCHEMA) {
+                session.query(statement, Collections.emptyMap());
+            }
+            session.query("CALL db.awaitIndexes($timeout)", Collections.singletonMap("timeout", SCHEMA_TIMEOUT_SECONDS));
+            for (String statement : MIGRATIONS) {
+                session.query(statement, Collections.emptyMap());
+            }
+            return null;
+        });
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @param pageSize the number of entities {@link #stream(Class)} loads at a time.
+     */
+    public void setPageSize(int pageSize) {
+        isTrue(pageSize > 0, "pageSize must be positive");
+        this.pageSize = pageSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize the number of entities {@link #createOrUpdateAll(Collection)} writes in a transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        isTrue(batchSize > 0, "batchSize must be positive");
+        this.batchSize = batchSize;
+    }
+
+    public UpsertMode getUpsertMode() {
+        return upsertMode;
+    }
+
+    public void setUpsertMode(UpsertMode upsertMode) {
+        notNull(upsertMode);
+        this.upsertMode = upsertMode;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Records every call of this DAO, with the lookup of the existing entity
+     * made by {@link #createOrUpdate(Entity)} recorded on its own as
+     * {@code Neo4jDAO.findExistingEntity}, every batch written by
+     * {@link #createOrUpdateAll(Collection)}, and every page a stream loads.
+     *
+     * @param metrics the metrics to record to, or null to stop recording.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private <T> T measure(String operation, Supplier<T> call) {
+        Metrics metrics = this.metrics;
+        return metrics == null ? call.get() : metrics.measure(operation, call);
+    }
+
+    private void recordPage(String operation, long start, int rows) {
+        Metrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.record(operation, System.nanoTime() - start, rows);
+        }
     }
 
     @Override
     public <T extends Entity> T load(Class<T> clazz, Long id) {
-        return session.load(clazz, id, DEPTH_ENTITY);
+        return measure("Neo4jDAO.load", () -> session.load(clazz, id, DEPTH_ENTITY));
     }
 
     @Override
     public <T extends Entity> T createOrUpdate(T entity) {
-        Class clazz = entity.getClass();
+        return measure("Neo4jDAO.createOrUpdate", () -> {
+            Class clazz = entity.getClass();
+
+            if (upsertMode == UpsertMode.LOOKUP_THEN_SAVE) {
+                T existingEntity = measure("Neo4jDAO.findExistingEntity", () -> findExistingEntity(entity, clazz));
+                if (null != existingEntity) {
+                    entity.setId(existingEntity.getId());
+                }
+            } else if (merge(entity)) {
+                return entity;
+            }
+            Transaction tx = session.beginTransaction();
+            attach(Collections.singletonList(entity));
+            session.save(entity);
+            tx.commit();
+            return entity;
+        });
+    }
+
+    // writes the entity with one statement, or returns false if it has no natural key to merge on
+    private boolean merge(Entity entity) {
+        NaturalKey naturalKey = NATURAL_KEYS.get(entity.getClass());
+        if (naturalKey == null || naturalKey.parameters(entity) == null) {
+            return false;
+        }
+        MergeStatement statement = new MergeStatement();
+        statement.merge(entity);
+        Map<String, Object> row = session.query(statement.cypher(), statement.parameters).queryResults().iterator().next();
+        statement.variables.forEach((merged, variable) -> {
+            long id = ((Number) row.get(variable)).longValue();
+            merged.setId(id);
+            // the session did not see the write, so it must not keep an older copy
+            session.detachNodeEntity(id);
+        });
+        return true;
+    }
+
+    /**
+     * Creates or updates the entities in transactions of {@link #getBatchSize()}
+     * entities. A batch finds the existing entities it updates with one query
+     * per class, saves all of its entities together and commits once, where
+     * {@link #createOrUpdate(Entity)} takes a query and a commit per entity.
+     * An entity that matches an earlier new entity of its batch updates it, as
+     * it would if they were saved one at a time.
+     * <p>
+     * If a batch fails, its transaction is rolled back, its entities and the
+     * entities they refer to get back the ids they had, and the session is
+     * cleared, as it may hold the state
+     * the batch wrote.
+     */
+    @Override
+    public <T extends Entity> List<BatchResult> createOrUpdateAll(Collection<T> entities) {
+        notNull(entities);
+        return measure("Neo4jDAO.createOrUpdateAll", () -> {
+            List<T> list = new ArrayList<>(entities);
+            List<BatchResult> results = new ArrayList<>();
+            for (int first = 0; first < list.size(); first += batchSize) {
+                List<T> batch = list.subList(first, Math.min(list.size(), first + batchSize));
+                int position = first;
+                try {
+                    results.add(measure("Neo4jDAO.createOrUpdateBatch", () -> saveBatch(batch, position)));
+                } catch (RuntimeException e) {
+                    throw new BatchException(results, first, e);
+                }
+            }
+            return results;
+        });
+    }
 
-        T existingEntity = findExistingEntity(entity, clazz);
-        if (null != existingEntity) {
-            entity.setId(existingEntity.getId());
+    private <T extends Entity> BatchResult saveBatch(List<T> batch, int first) {
+        // saving cascades to related entities, which get ids too
+        Map<Entity, Long> ids = new IdentityHashMap<>();
+        for (Entity entity : batch) {
+            collectIds(entity, ids);
         }
         Transaction tx = session.beginTransaction();
-        session.save(entity);
-        tx.commit();
-        return entity;
+        try {
+            Map<Integer, Long> existing = findExistingIds(batch);
+            Set<Entity> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            Map<List<Object>, T> created = new HashMap<>();
+            List<T> saved = new ArrayList<>(batch.size());
+            List<T> duplicates = new ArrayList<>();
+            List<T> originals = new ArrayList<>();
+            int updated = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                T entity = batch.get(i);
+                if (!seen.add(entity)) {
+                    updated++;
+                    continue;
+                }
+                Long id = existing.get(i);
+                if (id != null) {
+                    entity.setId(id);
+                }
+                List<Object> key = entity.getId() == null ? naturalKey(entity) : null;
+                T original = key == null ? null : created.putIfAbsent(key, entity);
+                if (original != null) {
+                    duplicates.add(entity);
+                    originals.add(original);
+                } else {
+                    saved.add(entity);
+                }
+                if (entity.getId() != null || original != null) {
+                    updated++;
+                }
+            }
+            attach(saved);
+            session.save(saved);
+            if (!duplicates.isEmpty()) {
+                for (int i = 0; i < duplicates.size(); i++) {
+                    duplicates.get(i).setId(originals.get(i).getId());
+                }
+                session.save(duplicates);
+            }
+            tx.commit();
+            return new BatchResult(first, batch.size() - updated, updated);
+        } catch (RuntimeException e) {
+            Transaction.Status status = tx.status();
+            if (status != Transaction.Status.ROLLEDBACK && status != Transaction.Status.CLOSED) {
+                try {
+                    tx.rollback();
+                } catch (RuntimeException rollback) {
+                    e.addSuppressed(rollback);
+                }
+            }
+            ids.forEach(Entity::setId);
+            session.clear();
+            throw e;
+        } finally {
+            tx.close();
+        }
+    }
+
+    /**
+     * Loads the entities that have an id but are not held by the session,
+     * such as streamed ones, so that saving them replaces the relationships
+     * they had instead of adding to them.
+     */
+    private void attach(List<? extends Entity> entities) {
+        Map<Class<? extends Entity>, List<Long>> detached = new LinkedHashMap<>();
+        for (Entity entity : entities) {
+            if (entity.getId() != null && !holds(entity.getId())) {
+                detached.computeIfAbsent(entity.getClass(), c -> new ArrayList<>()).add(entity.getId());
+            }
+        }
+        detached.forEach((clazz, ids) -> session.loadAll(clazz, ids, DEPTH_ENTITY));
+    }
+
+    // whether the session of the DAO holds the node, which a stream then leaves in place
+    private boolean holds(Long id) {
+        return ((Neo4jSession) session).context().getNodeEntity(id) != null;
+    }
+
+    private static void collectIds(Entity entity, Map<Entity, Long> ids) {
+        if (entity == null || ids.containsKey(entity)) {
+            return;
+        }
+        ids.put(entity, entity.getId());
+        if (entity instanceof Launch) {
+            Launch launch = (Launch) entity;
+            collectIds(launch.getLaunchVehicle(), ids);
+            collectIds(launch.getLaunchServiceProvider(), ids);
+            if (launch.getPayload() != null) {
+                launch.getPayload().forEach(payload -> collectIds(payload, ids));
+            }
+        } else if (entity instanceof Rocket) {
+            Rocket rocket = (Rocket) entity;
+            collectIds(rocket.getManufacturer(), ids);
+            collectIds(rocket.getRocketKind(), ids);
+        } else if (entity instanceof LaunchServiceProvider) {
+            LaunchServiceProvider lsp = (LaunchServiceProvider) entity;
+            if (lsp.getRockets() != null) {
+                lsp.getRockets().forEach(rocket -> collectIds(rocket, ids));
+            }
+        }
+    }
+
+    // the ids of the existing entities the batch matches, by position in the batch, with one query per class
+    private Map<Integer, Long> findExistingIds(List<? extends Entity> batch) {
+        Map<NaturalKey, List<Map<String, Object>>> keysByClass = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Entity entity = batch.get(i);
+            NaturalKey naturalKey = NATURAL_KEYS.get(entity.getClass());
+            Map<String, Object> key = naturalKey == null ? null : naturalKey.parameters(entity);
+            if (key != null) {
+                key.put("position", i);
+                keysByClass.computeIfAbsent(naturalKey, k -> new ArrayList<>()).add(key);
+            }
+        }
+        Map<Integer, Long> existing = new HashMap<>();
+        for (Map.Entry<NaturalKey, List<Map<String, Object>>> entry : keysByClass.entrySet()) {
+            Iterable<Map<String, Object>> rows = session.query(entry.getKey().existingIdsQuery,
+                    Collections.singletonMap("keys", entry.getValue())).queryResults();
+            for (Map<String, Object> row : rows) {
+                existing.put(((Number) row.get("position")).intValue(), ((Number) row.get("id")).longValue());
+            }
+        }
+        return existing;
+    }
+
+    private static List<Object> naturalKey(Entity entity) {
+        NaturalKey naturalKey = NATURAL_KEYS.get(entity.getClass());
+        if (naturalKey == null) {
+            return null;
+        }
+        List<Object> key = new ArrayList<>();
+        key.add(entity.getClass());
+        key.addAll(Arrays.asList(naturalKey.values.apply(entity)));
+        // like a lookup, a key with a null property matches nothing
+        return key.contains(null) ? null : key;
+    }
+
+    // the properties a merge sets, which are the properties the session saves
+    private static Map<String, Object> mergedProperties(Entity entity) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("wikilink", entity.getWikilink());
+        if (entity instanceof Rocket) {
+            Rocket rocket = (Rocket) entity;
+            properties.put("name", rocket.getName());
+            properties.put("country", rocket.getCountry());
+            properties.put("massToLEO", rocket.getMassToLEO());
+            properties.put("massToGTO", rocket.getMassToGTO());
+            properties.put("massToOther", rocket.getMassToOther());
+            properties.put("characteristics", rocket.getCharacteristics());
+        } else if (entity instanceof LaunchServiceProvider) {
+            LaunchServiceProvider lsp = (LaunchServiceProvider) entity;
+            properties.put("name", lsp.getName());
+            properties.put("yearFounded", lsp.getYearFounded());
+            properties.put("country", lsp.getCountry());
+            properties.put("headquarters", lsp.getHeadquarters());
+        } else if (entity instanceof User) {
+            User user = (User) entity;
+            properties.put("firstName", user.getFirstName());
+            properties.put("lastName", user.getLastName());
+            properties.put("email", user.getEmail());
+            properties.put("password", user.getPassword());
+            properties.put("passwordSetTime", user.getPasswordSetTime());
+        }
+        return properties;
+    }
+
+    // the entities a merge relates the entity to, by relationship type, where null removes the relationship
+    private static Map<String, Entity> mergedRelationships(Entity entity) {
+        Map<String, Entity> relationships = new LinkedHashMap<>();
+        if (entity instanceof Rocket) {
+            Rocket rocket = (Rocket) entity;
+            relationships.put("MANUFACTURER", rocket.getManufacturer());
+            relationships.put("ROCKET_KIND", rocket.getRocketKind());
+        }
+        return relationships;
     }
 
     private <T extends Entity> T findExistingEntity(Entity entity, Class clazz) {
@@ -79,12 +569,385 @@ public class Neo4jDAO implements DAO {
 
     @Override
     public <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
-        return session.loadAll(clazz);
+        return measure("Neo4jDAO.loadAll", () -> session.loadAll(clazz));
+    }
+
+    /**
+     * Returns the ids with one Cypher query, without loading any entity.
+     */
+    @Override
+    public <T extends Entity> List<Long> loadIds(Class<T> clazz) {
+        return measure("Neo4jDAO.loadIds", () -> {
+            List<Long> ids = new ArrayList<>();
+            for (Map<String, Object> row : query(String.format(IDS_QUERY, clazz.getSimpleName()), Collections.emptyMap())) {
+                ids.add(((Number) row.get("id")).longValue());
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Streams the entities of a class a page at a time, in order of id. Each
+     * page is loaded when the previous one has been consumed, and pages are
+     * found by id rather than by offset, so entities saved or deleted while
+     * streaming do not shift the pages.
+     * <p>
+     * When the DAO has a factory of stream sessions, the stream loads its
+     * pages in a session of its own, two levels deep, and clears it once a
+     * page has been consumed or the stream is closed. Without a factory the
+     * pages are loaded in the session of the DAO, which then detaches the
+     * entities a page loaded that it did not hold before. Either way only a
+     * page and the entities it refers to are held at a time.
+     * <p>
+     * Streamed entities are detached from the session of the DAO.
+     * {@link #createOrUpdate(Entity)} loads such an entity into the session
+     * before saving it, so that its changed relationships replace the stored
+     * ones.
+     */
+    @Override
+    public <T extends Entity> Stream<T> stream(Class<T> clazz) {
+        Pages<T> pages = new Pages<>(clazz);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false)
+                .onClose(pages::close);
+    }
+
+    /**
+     * Streams the launch rows a page at a time, in order of launch id, like
+     * {@link #stream(Class)}. Each page is one Cypher query that returns the
+     * scalar properties of its launches and the ids of their launch vehicles
+     * and launch service providers, so no entity is hydrated or kept by the
+     * session.
+     */
+    @Override
+    public Stream<LaunchRow> streamLaunchRows() {
+        LaunchRowPages pages = new LaunchRowPages();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false)
+                .onClose(pages::close);
+    }
+
+    /**
+     * Runs a read-only Cypher query inside the database and returns its rows.
+     * Nodes in the rows whose labels are mapped are returned as entities.
+     *
+     * @param cypher the query
+     * @param parameters the query parameters
+     * @return the rows, in the order the query returns them
+     */
+    public Iterable<Map<String, Object>> query(String cypher, Map<String, ?> parameters) {
+        return session.query(cypher, parameters, true).queryResults();
+    }
+
+    private static final class NaturalKey {
+        private final String label;
+
+        private final String[] properties;
+
+        private final Function<Entity, Object[]> values;
+
+        private final String existingIdsQuery;
+
+        private NaturalKey(Class<? extends Entity> clazz, Function<Entity, Object[]> values, String... properties) {
+            this.label = clazz.getSimpleName();
+            this.properties = properties;
+            this.values = values;
+            StringBuilder match = new StringBuilder();
+            for (String property : properties) {
+                match.append(match.length() == 0 ? " WHERE " : " AND ")
+                        .append("n.`").append(property).append("` = key.`").append(property).append('`');
+            }
+            this.existingIdsQuery = "UNWIND $keys AS key MATCH (n:`" + label + "`)" + match +
+                    " RETURN key.position AS position, min(id(n)) AS id";
+        }
+
+        // the query parameters of the key, or null if a property is null, which no entity matches
+        private Map<String, Object> parameters(Entity entity) {
+            Object[] values = this.values.apply(entity);
+            Map<String, Object> parameters = new HashMap<>();
+            for (int i = 0; i < properties.length; i++) {
+                if (values[i] == null) {
+                    return null;
+                }
+                parameters.put(properties[i], values[i]);
+            }
+            return parameters;
+        }
+
+        // the key of the lock node of the entity; keys that read the same always share a lock
+        private int lock(Entity entity) {
+            StringJoiner lock = new StringJoiner(":", label + ":", "");
+            for (Object value : values.apply(entity)) {
+                lock.add(String.valueOf(value));
+            }
+            return Math.floorMod(lock.toString().hashCode(), LOCK_STRIPES);
+        }
+
+        // the label and key of a node pattern, with the values of the key in a map parameter
+        private String pattern(String parameter) {
+            StringJoiner pattern = new StringJoiner(", ", ":`" + label + "` {", "}");
+            for (String property : properties) {
+                pattern.add("`" + property + "`: $" + parameter + ".`" + property + "`");
+            }
+            return pattern.toString();
+        }
+    }
+
+    // a statement that merges an entity, then the rockets and launch service providers it refers to
+    private static final class MergeStatement {
+        private final Map<Entity, String> variables = new IdentityHashMap<>();
+
+        private final SortedSet<Integer> locks = new TreeSet<>();
+
+        private final Map<String, Object> parameters = new HashMap<>();
+
+        private final List<String> bound = new ArrayList<>();
+
+        private final StringBuilder clauses = new StringBuilder();
+
+        // appends the clauses that merge the entity, unless it was merged already, and returns its variable
+        private String merge(Entity entity) {
+            String variable = variables.get(entity);
+            if (variable != null) {
+                return variable;
+            }
+            NaturalKey naturalKey = NATURAL_KEYS.get(entity.getClass());
+            variable = "n" + variables.size();
+            variables.put(entity, variable);
+            locks.add(naturalKey.lock(entity));
+            parameters.put(variable, mergedProperties(entity));
+            parameters.put(variable + "Key", naturalKey.parameters(entity));
+            String pattern = naturalKey.pattern(variable + "Key");
+            if (entity.getId() != null) {
+                // an entity whose key matches no node keeps its own node, if it has one, which takes the new key;
+                // setting the properties of a null node does nothing
+                parameters.put(variable + "Id", entity.getId());
+                clauses.append(" OPTIONAL MATCH (found").append(pattern).append(')')
+                        .append(" WITH ").append(carry("count(found) AS matches"))
+                        .append(" OPTIONAL MATCH (own:`").append(naturalKey.label).append("`)")
+                        .append(" WHERE matches = 0 AND id(own) = $").append(variable).append("Id")
+                        .append(" SET own += $").append(variable).append("Key");
+            }
+            clauses.append(" MERGE (").append(variable).append(pattern).append(')')
+                    .append(" WITH ").append(carry(variable))
+                    .append(" ORDER BY id(").append(variable).append(") LIMIT 1")
+                    .append(" SET ").append(variable).append(" += $").append(variable);
+            bound.add(variable);
+            clauses.append(" WITH ").append(carry(null));
+            for (Map.Entry<String, Entity> relationship : mergedRelationships(entity).entrySet()) {
+                String type = relationship.getKey();
+                Entity target = relationship.getValue();
+                if (target == null) {
+                    clauses.append(" OPTIONAL MATCH (").append(variable).append(")-[old:`").append(type).append("`]->()")
+                            .append(" DELETE old WITH DISTINCT ").append(carry(null));
+                } else if (NATURAL_KEYS.containsKey(target.getClass())
+                        && NATURAL_KEYS.get(target.getClass()).parameters(target) != null) {
+                    String targetVariable = merge(target);
+                    clauses.append(" OPTIONAL MATCH (").append(variable).append(")-[old:`").append(type).append("`]->(other)")
+                            .append(" WHERE other <> ").append(targetVariable)
+                            .append(" DELETE old WITH DISTINCT ").append(carry(null))
+                            .append(" MERGE (").append(variable).append(")-[:`").append(type).append("`]->(")
+                            .append(targetVariable).append(')')
+                            .append(" WITH ").append(carry(null));
+                }
+            }
+            return variable;
+        }
+
+        // the variables bound so far, followed by the given expression
+        private String carry(String expression) {
+            StringJoiner carried = new StringJoiner(", ");
+            bound.forEach(carried::add);
+            if (expression != null) {
+                carried.add(expression);
+            }
+            return carried.toString();
+        }
+
+        private String cypher() {
+            parameters.put("locks", new ArrayList<>(locks));
+            StringJoiner ids = new StringJoiner(", ", " RETURN ", "");
+            for (String variable : bound) {
+                ids.add("id(" + variable + ") AS " + variable);
+            }
+            return LOCK_KEYS + clauses + ids;
+        }
+    }
+
+    private class Pages<T extends Entity> implements Iterator<T> {
+        private final Class<T> clazz;
+
+        private final String query;
+
+        private final Session pageSession;
+
+        private Iterator<T> page = Collections.emptyIterator();
+
+        // the nodes the current page added to the session of the DAO
+        private List<Long> loaded = Collections.emptyList();
+
+        private long after = -1;
+
+        private boolean last;
+
+        private Pages(Class<T> clazz) {
+            this.clazz = clazz;
+            this.query = String.format(PAGE_IDS_QUERY, clazz.getSimpleName());
+            this.pageSession = streamSessions == null ? session : streamSessions.openSession();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !last) {
+                nextPage();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        private void nextPage() {
+            long start = System.nanoTime();
+            clear();
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("after", after);
+            parameters.put("size", pageSize);
+            List<Long> ids = new ArrayList<>(pageSize);
+            Set<Long> nodes = new LinkedHashSet<>();
+            for (Map<String, Object> row : query(query, parameters)) {
+                Long id = ((Number) row.get("id")).longValue();
+                ids.add(id);
+                nodes.add(id);
+                // the driver returns a collected list as an array
+                for (Object neighbour : (Object[]) row.get("neighbours")) {
+                    nodes.add(((Number) neighbour).longValue());
+                }
+            }
+            last = ids.size() < pageSize;
+            if (ids.isEmpty()) {
+                page = Collections.emptyIterator();
+                recordPage("Neo4jDAO.streamPage", start, 0);
+                return;
+            }
+            after = ids.get(ids.size() - 1);
+            if (pageSession == session) {
+                loaded = new ArrayList<>();
+                for (Long node : nodes) {
+                    if (!holds(node)) {
+                        loaded.add(node);
+                    }
+                }
+            }
+            List<T> entities = new ArrayList<>(pageSession.loadAll(clazz, ids, pageSession == session ? DEPTH_ENTITY : DEPTH_STREAM));
+            entities.sort(Comparator.comparing(Entity::getId));
+            page = entities.iterator();
+            recordPage("Neo4jDAO.streamPage", start, entities.size());
+        }
+
+        private void close() {
+            clear();
+            last = true;
+            page = Collections.emptyIterator();
+        }
+
+        // drops the previous page and every entity loaded with it, but not the entities the session held before
+        private void clear() {
+            if (pageSession != session) {
+                pageSession.clear();
+            }
+            for (Long node : loaded) {
+                session.detachNodeEntity(node);
+            }
+            loaded = Collections.emptyList();
+        }
+    }
+
+    private class LaunchRowPages implements Iterator<LaunchRow> {
+        private Iterator<LaunchRow> page = Collections.emptyIterator();
+
+        private long after = -1;
+
+        private boolean last;
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !last) {
+                nextPage();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public LaunchRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        private void nextPage() {
+            long start = System.nanoTime();
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("after", after);
+            parameters.put("size", pageSize);
+            List<LaunchRow> rows = new ArrayList<>(pageSize);
+            for (Map<String, Object> row : query(PAGE_LAUNCH_ROWS_QUERY, parameters)) {
+                rows.add(toLaunchRow(row));
+            }
+            last = rows.size() < pageSize;
+            if (!rows.isEmpty()) {
+                after = rows.get(rows.size() - 1).getId();
+            }
+            page = rows.iterator();
+            recordPage("Neo4jDAO.streamLaunchRowsPage", start, rows.size());
+        }
+
+        private void close() {
+            last = true;
+            page = Collections.emptyIterator();
+        }
+    }
+
+    private static LaunchRow toLaunchRow(Map<String, Object> row) {
+        Object launchDate = row.get("launchDate");
+        Object priceMinorUnits = row.get("priceMinorUnits");
+        return new LaunchRow(((Number) row.get("id")).longValue(),
+                launchDate == null ? LaunchRow.NO_DATE : LocalDate.parse(launchDate.toString()).toEpochDay(),
+                idOrNone(row.get("rocketId")),
+                idOrNone(row.get("providerId")),
+                (String) row.get("providerCountry"),
+                (String) row.get("orbit"),
+                (String) row.get("launchSite"),
+                Boolean.TRUE.equals(row.get("failed")),
+                priceMinorUnits == null ? 0 : ((Number) priceMinorUnits).longValue(),
+                priceMinorUnits == null ? null : (String) row.get("priceCurrency"),
+                intOrZero(row.get("payloadMassToLEO")),
+                intOrZero(row.get("payloadMassToGTO")),
+                intOrZero(row.get("payloadMassToOther")));
+    }
+
+    private static long idOrNone(Object id) {
+        return id == null ? LaunchRow.NO_ID : ((Number) id).longValue();
+    }
+
+    private static int intOrZero(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
     }
 
     // TODO: need to be tested!
     // test result shows on report.
     public <T extends Entity> void delete(T entity) {
-        session.delete(entity);
+        Metrics metrics = this.metrics;
+        if (metrics == null) {
+            session.delete(entity);
+        } else {
+            metrics.measure("Neo4jDAO.delete", () -> session.delete(entity));
+        }
     }
 }
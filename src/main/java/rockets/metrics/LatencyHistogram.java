@@ -0,0 +1,80 @@
+package rockets.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Counts latencies in nanoseconds in log-linear buckets: every power of two
+ * is split into {@value #SUB_BUCKETS} buckets, so a percentile is within
+ * 12.5% of the latency it reports. Recording is lock free and allocates
+ * nothing.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // values below SUB_BUCKETS have a bucket each, then a group of buckets per power of two
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        max.accumulate(value);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    // the largest value counted in a bucket
+    static long upperBoundOf(int bucket) {
+        int group = bucket / SUB_BUCKETS;
+        long sub = bucket % SUB_BUCKETS;
+        if (group == 0) {
+            return sub;
+        }
+        int shift = group - 1;
+        long lowerBound = (1L << (shift + SUB_BUCKET_BITS)) | (sub << shift);
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return the upper bound of the bucket holding the quantile, capped by
+     * the largest latency recorded, or 0 if none was.
+     */
+    long percentile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max());
+            }
+        }
+        return max();
+    }
+}
@@ -0,0 +1,175 @@
+package rockets.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.Validate.notNull;
+import static org.apache.commons.lang3.Validate.validState;
+
+/**
+ * Records the calls, errors, rows and latencies of named operations, such as
+ * {@code RocketMiner.mostLaunchedRockets} or {@code Neo4jDAO.loadAll}.
+ * <p>
+ * Recording an operation costs two reads of the clock and a few uncontended
+ * atomic adds, so the metrics can stay on in production. They are read
+ * through {@link #snapshot()}, or through JMX once
+ * {@link #registerMBeans(MBeanServer, String) registered}:
+ * <pre>
+ * Metrics metrics = new Metrics();
+ * metrics.registerMBeans(ManagementFactory.getPlatformMBeanServer(), "rockets");
+ * neo4jDAO.setMetrics(metrics);
+ * miner.setMetrics(metrics);
+ * </pre>
+ */
+public class Metrics {
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    private MBeanServer mBeanServer;
+
+    private String domain;
+
+    /**
+     * Runs an operation and records it. The rows are the size of a returned
+     * collection or map, or one for any other result but null.
+     *
+     * @param operation the name of the operation.
+     * @param call the operation.
+     * @return the result of the call.
+     */
+    public <T> T measure(String operation, Supplier<T> call) {
+        OperationMetrics metrics = operation(operation);
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            metrics.failed(System.nanoTime() - start);
+            throw e;
+        }
+        metrics.succeeded(System.nanoTime() - start, rowsOf(result));
+        return result;
+    }
+
+    /**
+     * Runs an operation that returns nothing and records it as one row.
+     *
+     * @see #measure(String, Supplier)
+     */
+    public void measure(String operation, Runnable call) {
+        measure(operation, () -> {
+            call.run();
+            return Boolean.TRUE;
+        });
+    }
+
+    /**
+     * Records an operation that ran elsewhere, such as the load of a page of a stream.
+     *
+     * @param operation the name of the operation.
+     * @param nanos how long it took.
+     * @param rows the rows it returned.
+     */
+    public void record(String operation, long nanos, long rows) {
+        operation(operation).succeeded(nanos, rows);
+    }
+
+    private static long rowsOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        return 1;
+    }
+
+    private OperationMetrics operation(String operation) {
+        OperationMetrics metrics = operations.get(operation);
+        if (metrics == null) {
+            metrics = operations.computeIfAbsent(operation, this::create);
+        }
+        return metrics;
+    }
+
+    private synchronized OperationMetrics create(String operation) {
+        OperationMetrics metrics = new OperationMetrics(operation);
+        if (mBeanServer != null) {
+            register(operation, metrics);
+        }
+        return metrics;
+    }
+
+    /**
+     * @return the statistics of every operation recorded so far, by operation name.
+     */
+    public SortedMap<String, OperationStats> snapshot() {
+        SortedMap<String, OperationStats> snapshot = new TreeMap<>();
+        for (Map.Entry<String, OperationMetrics> e : operations.entrySet()) {
+            snapshot.put(e.getKey(), e.getValue().stats());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Registers an {@link OperationMXBean} for every operation, named
+     * {@code <domain>:type=Operation,name=<operation>}, including the
+     * operations first recorded later.
+     *
+     * @throws IllegalStateException if a bean cannot be registered.
+     */
+    public synchronized void registerMBeans(MBeanServer mBeanServer, String domain) {
+        notNull(mBeanServer);
+        notNull(domain);
+        validState(this.mBeanServer == null, "the MBeans are already registered");
+        this.mBeanServer = mBeanServer;
+        this.domain = domain;
+        for (Map.Entry<String, OperationMetrics> e : operations.entrySet()) {
+            register(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Unregisters the beans registered by {@link #registerMBeans(MBeanServer, String)}.
+     */
+    public synchronized void unregisterMBeans() {
+        if (mBeanServer == null) {
+            return;
+        }
+        for (String operation : operations.keySet()) {
+            try {
+                ObjectName name = objectName(operation);
+                if (mBeanServer.isRegistered(name)) {
+                    mBeanServer.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                throw new IllegalStateException("cannot unregister the MBean of " + operation, e);
+            }
+        }
+        mBeanServer = null;
+        domain = null;
+    }
+
+    private void register(String operation, OperationMetrics metrics) {
+        try {
+            mBeanServer.registerMBean(metrics, objectName(operation));
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register the MBean of " + operation, e);
+        }
+    }
+
+    /**
+     * @return the name of the bean of an operation.
+     */
+    public ObjectName objectName(String operation) throws JMException {
+        validState(domain != null, "the MBeans are not registered");
+        return new ObjectName(domain + ":type=Operation,name=" + ObjectName.quote(operation));
+    }
+}
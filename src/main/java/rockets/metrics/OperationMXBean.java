@@ -0,0 +1,21 @@
+package rockets.metrics;
+
+/**
+ * The JMX view of one operation recorded by {@link Metrics}. Latencies are in
+ * milliseconds.
+ */
+public interface OperationMXBean {
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+}
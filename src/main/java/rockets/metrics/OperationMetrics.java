@@ -0,0 +1,76 @@
+package rockets.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters and latency histogram of one operation.
+ */
+final class OperationMetrics implements OperationMXBean {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String operation;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    OperationMetrics(String operation) {
+        this.operation = operation;
+    }
+
+    void succeeded(long nanos, long rowCount) {
+        calls.increment();
+        rows.add(rowCount);
+        latencies.record(nanos);
+    }
+
+    void failed(long nanos) {
+        calls.increment();
+        errors.increment();
+        latencies.record(nanos);
+    }
+
+    OperationStats stats() {
+        return new OperationStats(operation, calls.sum(), errors.sum(), rows.sum(),
+                latencies.percentile(0.50), latencies.percentile(0.95), latencies.percentile(0.99), latencies.max());
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latencies.percentile(0.50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP95Millis() {
+        return latencies.percentile(0.95) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latencies.percentile(0.99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latencies.max() / NANOS_PER_MILLI;
+    }
+}
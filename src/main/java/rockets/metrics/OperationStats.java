@@ -0,0 +1,91 @@
+package rockets.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The counts and latencies of one operation, as of the moment they were taken.
+ */
+public final class OperationStats {
+    private final String operation;
+
+    private final long calls;
+
+    private final long errors;
+
+    private final long rows;
+
+    private final long p50Nanos;
+
+    private final long p95Nanos;
+
+    private final long p99Nanos;
+
+    private final long maxNanos;
+
+    OperationStats(String operation, long calls, long errors, long rows,
+                   long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+        this.operation = operation;
+        this.calls = calls;
+        this.errors = errors;
+        this.rows = rows;
+        this.p50Nanos = p50Nanos;
+        this.p95Nanos = p95Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return the calls that threw.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the entities or rows returned by the calls, a single result counting as one.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP95Nanos() {
+        return p95Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return operation + "{" +
+                "calls=" + calls +
+                ", errors=" + errors +
+                ", rows=" + rows +
+                ", p50=" + micros(p50Nanos) +
+                ", p95=" + micros(p95Nanos) +
+                ", p99=" + micros(p99Nanos) +
+                ", max=" + micros(maxNanos) +
+                '}';
+    }
+
+    private static String micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
+    }
+}
@@ -0,0 +1,140 @@
+package rockets.mining;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rockets.dataaccess.DAO;
+import rockets.mining.sketch.CountMinSketch;
+import rockets.mining.sketch.HeavyHitter;
+import rockets.mining.sketch.HyperLogLog;
+import rockets.mining.sketch.SpaceSaving;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Answers the heavy-hitter queries of {@link RocketMiner} approximately, from
+ * summaries of fixed size instead of a map entry per distinct rocket, country
+ * or provider. Each answer carries the bounds of its count.
+ * <p>
+ * The launches are streamed from the DAO, so only the summaries are kept.
+ * Every summary is mergeable, so summaries of separate parts of an archive can
+ * be combined. While there are fewer distinct items than counters the answers
+ * are exact and rank like the miner.
+ */
+public class ApproximateRocketMiner {
+    private static Logger logger = LoggerFactory.getLogger(ApproximateRocketMiner.class);
+
+    public static final int DEFAULT_COUNTERS = 1024;
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    public static final double DEFAULT_EPSILON = 0.0001;
+
+    public static final double DEFAULT_DELTA = 0.001;
+
+    private static final long SEED = 0x5EED;
+
+    private final DAO dao;
+
+    private final int counters;
+
+    private final int precision;
+
+    public ApproximateRocketMiner(DAO dao) {
+        this(dao, DEFAULT_COUNTERS, DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param counters the number of counters of each heavy-hitter summary.
+     * @param precision the number of bits that pick a register of a distinct count.
+     */
+    public ApproximateRocketMiner(DAO dao, int counters, int precision) {
+        notNull(dao);
+        isTrue(counters > 0, "counters must be positive");
+        isTrue(precision >= HyperLogLog.MIN_PRECISION && precision <= HyperLogLog.MAX_PRECISION,
+                "precision must be between %d and %d", HyperLogLog.MIN_PRECISION, HyperLogLog.MAX_PRECISION);
+        this.dao = dao;
+        this.counters = counters;
+        this.precision = precision;
+    }
+
+    /**
+     * Returns the top-k most launched rockets with the bounds of their launch
+     * counts. Unlike {@link RocketMiner#mostLaunchedRockets(int)}, rockets that
+     * never launched are not returned.
+     *
+     * @param k the number of rockets to be returned.
+     * @return at most k rockets, most launched first.
+     */
+    public List<HeavyHitter<Rocket>> mostLaunchedRockets(int k) {
+        logger.info("Estimates the top " + k + " most launched rockets");
+        return rocketLaunches().top(k);
+    }
+
+    /**
+     * @return the country with the most launches to the orbit, with the bounds
+     * of its count, or null if no launch went to the orbit.
+     * @see RocketMiner#dominantCountry(String)
+     */
+    public HeavyHitter<String> dominantCountry(String orbit) {
+        logger.info("Estimates the dominant country in " + orbit);
+        return summarize(orbit, l -> l.getLaunchServiceProvider().getCountry()).first();
+    }
+
+    /**
+     * @return the provider with the most launches to the orbit, with the bounds
+     * of its count, or null if no launch went to the orbit.
+     * @see RocketMiner#dominantLaunchServiceProvider(String)
+     */
+    public HeavyHitter<LaunchServiceProvider> dominantLaunchServiceProvider(String orbit) {
+        logger.info("Estimates the dominant launch service provider in " + orbit);
+        return summarize(orbit, Launch::getLaunchServiceProvider).first();
+    }
+
+    /**
+     * @return the launches of each rocket, summarized in the fixed number of counters.
+     */
+    public SpaceSaving<Rocket> rocketLaunches() {
+        return load(Collector.of(() -> new SpaceSaving<Rocket>(counters), (s, l) -> s.offer(l.getLaunchVehicle()),
+                SpaceSaving::merge));
+    }
+
+    /**
+     * @return the launch count of every rocket, for point queries of rockets
+     * outside the most launched ones.
+     */
+    public CountMinSketch<Rocket> rocketLaunchCounts() {
+        return load(Collector.of(() -> CountMinSketch.<Rocket>withError(DEFAULT_EPSILON, DEFAULT_DELTA, SEED),
+                (s, l) -> s.add(l.getLaunchVehicle()), CountMinSketch::merge));
+    }
+
+    /**
+     * @return the estimated number of distinct rockets that launched.
+     */
+    public HyperLogLog distinctLaunchedRockets() {
+        return load(Collector.of(() -> new HyperLogLog(precision, SEED), (s, l) -> s.offer(l.getLaunchVehicle()),
+                HyperLogLog::merge));
+    }
+
+    private <K> SpaceSaving<K> summarize(String orbit, Function<Launch, K> key) {
+        return load(Collector.of(() -> new SpaceSaving<K>(counters), (s, l) -> {
+            if (l.getOrbit().equals(orbit)) {
+                s.offer(key.apply(l));
+            }
+        }, SpaceSaving::merge));
+    }
+
+    private <R> R load(Collector<Launch, R, R> summary) {
+        try (Stream<Launch> launches = dao.stream(Launch.class)) {
+            return launches.collect(summary);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+import static org.apache.commons.lang3.Validate.validState;
+
+/**
+ * Runs the queries of a {@link RocketMiner} on an executor and returns their
+ * results as futures.
+ * <p>
+ * Concurrent calls of the same query with the same arguments share one
+ * computation: the first call submits it and the others wait for it. Each
+ * caller gets its own future, which it may cancel, or which fails with a
+ * {@link TimeoutException} if a {@link #setTimeout(Duration) timeout} is set
+ * and the result is late. Once every caller of a computation has cancelled or
+ * timed out, the computation is cancelled too: it is skipped if it has not
+ * started, and its result is dropped if it has. A running query is not
+ * interrupted.
+ * <p>
+ * Lists and maps are copied for each caller, so callers may change the ones
+ * they get.
+ */
+public class AsyncRocketMiner {
+    private final RocketMiner miner;
+
+    private final Executor executor;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ConcurrentMap<List<Object>, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile Duration timeout;
+
+    /**
+     * Creates a miner whose queries do not time out.
+     */
+    public AsyncRocketMiner(RocketMiner miner, Executor executor) {
+        this(miner, executor, null);
+    }
+
+    /**
+     * @param miner answers the queries.
+     * @param executor runs the queries.
+     * @param scheduler fails the futures of queries that time out, or null if no timeout is set.
+     */
+    public AsyncRocketMiner(RocketMiner miner, Executor executor, ScheduledExecutorService scheduler) {
+        notNull(miner);
+        notNull(executor);
+        this.miner = miner;
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @param timeout how long a caller waits for a result, or null to wait until it is computed.
+     */
+    public void setTimeout(Duration timeout) {
+        isTrue(timeout == null || !timeout.isNegative() && !timeout.isZero(), "timeout must be positive");
+        validState(timeout == null || scheduler != null, "timeouts need a scheduler");
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return the number of computations submitted and not yet done.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    public CompletableFuture<List<Rocket>> mostLaunchedRockets(int k) {
+        return submit(() -> miner.mostLaunchedRockets(k), ArrayList::new, "mostLaunchedRockets", k);
+    }
+
+    public CompletableFuture<List<LaunchServiceProvider>> mostReliableLaunchServiceProviders(int k) {
+        return submit(() -> miner.mostReliableLaunchServiceProviders(k), ArrayList::new,
+                "mostReliableLaunchServiceProviders", k);
+    }
+
+    public CompletableFuture<List<LaunchServiceProvider>> mostReliableLaunchServiceProviders(int k, ReliabilityRanking ranking, long minLaunches) {
+        return submit(() -> miner.mostReliableLaunchServiceProviders(k, ranking, minLaunches), ArrayList::new,
+                "mostReliableLaunchServiceProviders", k, ranking, minLaunches);
+    }
+
+    public CompletableFuture<List<Launch>> mostRecentLaunches(int k) {
+        return submit(() -> miner.mostRecentLaunches(k), ArrayList::new, "mostRecentLaunches", k);
+    }
+
+    public CompletableFuture<List<Launch>> launchesBetween(LocalDate from, LocalDate to) {
+        return submit(() -> miner.launchesBetween(from, to), ArrayList::new, "launchesBetween", from, to);
+    }
+
+    public CompletableFuture<List<Launch>> launchesInQuarter(int year, int quarter) {
+        return submit(() -> miner.launchesInQuarter(year, quarter), ArrayList::new, "launchesInQuarter", year, quarter);
+    }
+
+    public CompletableFuture<List<Launch>> launchesInMonth(int year, int month) {
+        return submit(() -> miner.launchesInMonth(year, month), ArrayList::new, "launchesInMonth", year, month);
+    }
+
+    public CompletableFuture<String> dominantCountry(String orbit) {
+        return submit(() -> miner.dominantCountry(orbit), UnaryOperator.identity(), "dominantCountry", orbit);
+    }
+
+    public CompletableFuture<List<Launch>> mostExpensiveLaunches(int k) {
+        return submit(() -> miner.mostExpensiveLaunches(k), ArrayList::new, "mostExpensiveLaunches", k);
+    }
+
+    public CompletableFuture<List<LaunchServiceProvider>> highestRevenueLaunchServiceProviders(int k, int year) {
+        return submit(() -> miner.highestRevenueLaunchServiceProviders(k, year), ArrayList::new,
+                "highestRevenueLaunchServiceProviders", k, year);
+    }
+
+    public CompletableFuture<List<LaunchServiceProvider>> highestRevenueLaunchServiceProviders(int k, int fromYear, int toYear) {
+        return submit(() -> miner.highestRevenueLaunchServiceProviders(k, fromYear, toYear), ArrayList::new,
+                "highestRevenueLaunchServiceProviders", k, fromYear, toYear);
+    }
+
+    public CompletableFuture<List<LaunchServiceProvider>> highestTrailingRevenueLaunchServiceProviders(int k, int years, int lastYear) {
+        return submit(() -> miner.highestTrailingRevenueLaunchServiceProviders(k, years, lastYear), ArrayList::new,
+                "highestTrailingRevenueLaunchServiceProviders", k, years, lastYear);
+    }
+
+    public CompletableFuture<LaunchServiceProvider> dominantLaunchServiceProvider(String orbit) {
+        return submit(() -> miner.dominantLaunchServiceProvider(orbit), UnaryOperator.identity(),
+                "dominantLaunchServiceProvider", orbit);
+    }
+
+    public CompletableFuture<Map<String, OrbitDominance>> dominanceTable() {
+        return submit(miner::dominanceTable, LinkedHashMap::new, "dominanceTable");
+    }
+
+    public CompletableFuture<List<Launch>> lightestPayloadsLauchInLEO(int k) {
+        return submit(() -> miner.lightestPayloadsLauchInLEO(k), ArrayList::new, "lightestPayloadsLauchInLEO", k);
+    }
+
+    public CompletableFuture<String> dominantCountryInPayLoads(String orbit) {
+        return submit(() -> miner.dominantCountryInPayLoads(orbit), UnaryOperator.identity(),
+                "dominantCountryInPayLoads", orbit);
+    }
+
+    public CompletableFuture<PayloadMatrix> payloadMatrix() {
+        return submit(miner::payloadMatrix, UnaryOperator.identity(), "payloadMatrix");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> CompletableFuture<V> submit(Supplier<? extends V> query, UnaryOperator<V> copy, Object... key) {
+        List<Object> flightKey = Arrays.asList(key);
+        while (true) {
+            Flight<V> flight = (Flight<V>) inFlight.get(flightKey);
+            if (flight == null) {
+                Flight<V> started = new Flight<>();
+                flight = (Flight<V>) inFlight.putIfAbsent(flightKey, started);
+                if (flight == null) {
+                    started.result.whenComplete((v, t) -> inFlight.remove(flightKey, started));
+                    CompletableFuture<V> caller = started.join(copy);
+                    run(started, query);
+                    return caller;
+                }
+            }
+            CompletableFuture<V> caller = flight.join(copy);
+            if (caller != null) {
+                return caller;
+            }
+            // every caller left the flight just now, start another
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private <V> void run(Flight<V> flight, Supplier<? extends V> query) {
+        try {
+            executor.execute(() -> {
+                if (flight.result.isDone()) {
+                    return;
+                }
+                try {
+                    flight.result.complete(query.get());
+                } catch (Throwable t) {
+                    flight.result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            flight.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * A computation and the number of callers waiting for it.
+     */
+    private class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        private int callers;
+
+        /**
+         * @return the future of a new caller, or null if the computation was cancelled.
+         */
+        private synchronized CompletableFuture<V> join(UnaryOperator<V> copy) {
+            if (result.isCancelled()) {
+                return null;
+            }
+            callers++;
+            CompletableFuture<V> caller = new CompletableFuture<>();
+            result.whenComplete((v, t) -> {
+                if (t == null) {
+                    caller.complete(v == null ? null : copy.apply(v));
+                } else {
+                    caller.completeExceptionally(t);
+                }
+            });
+            Duration timeout = AsyncRocketMiner.this.timeout;
+            if (timeout != null) {
+                ScheduledFuture<?> expiry = scheduler.schedule(
+                        () -> caller.completeExceptionally(new TimeoutException("no result after " + timeout)),
+                        timeout.toNanos(), TimeUnit.NANOSECONDS);
+                caller.whenComplete((v, t) -> expiry.cancel(false));
+            }
+            caller.whenComplete((v, t) -> leave());
+            return caller;
+        }
+
+        private synchronized void leave() {
+            if (--callers == 0 && !result.isDone()) {
+                result.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.DataVersions;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A {@link RocketMiner} that answers repeated queries from a {@link MinerCache}.
+ * <p>
+ * Each query is cached under its name and arguments, at the
+ * {@link DataVersions version} of the entity types it reads, so a write
+ * invalidates exactly the results computed from the written types, including
+ * the types of the entities a save cascades to. The
+ * versions must listen to the {@link rockets.dataaccess.ObservableDAO} every
+ * write goes through:
+ * <pre>
+ * ObservableDAO dao = new ObservableDAO(neo4jDAO);
+ * DataVersions versions = new DataVersions();
+ * dao.addListener(versions);
+ * RocketMiner miner = new CachedRocketMiner(dao, versions, new MinerCache(1000, MinerCache.Eviction.LRU));
+ * </pre>
+ * Queries that only delegate to another one, such as
+ * {@link #launchesInMonth(int, int)}, are cached as the query they delegate
+ * to. Cached lists and maps are copied on the way in and out, so callers may
+ * change the ones they get.
+ */
+public class CachedRocketMiner extends RocketMiner {
+    // launches returned by a query embed their rocket and launch service provider
+    private static final Class<?>[] LAUNCHES = {Launch.class, Rocket.class, LaunchServiceProvider.class};
+
+    private static final Class<?>[] ROCKETS = {Launch.class, Rocket.class};
+
+    // the queries on providers and countries, a country being the one of the provider
+    private static final Class<?>[] PROVIDERS = {Launch.class, LaunchServiceProvider.class};
+
+    private final DataVersions versions;
+
+    private final MinerCache cache;
+
+    public CachedRocketMiner(DAO dao, DataVersions versions, MinerCache cache) {
+        super(dao);
+        notNull(versions);
+        notNull(cache);
+        this.versions = versions;
+        this.cache = cache;
+    }
+
+    public MinerCache getCache() {
+        return cache;
+    }
+
+    private <V> V cached(Class<?>[] reads, Supplier<V> query, Object... key) {
+        return cache.get(Arrays.asList(key), versions.version(reads), query);
+    }
+
+    private <E> List<E> cachedList(Class<?>[] reads, Supplier<List<E>> query, Object... key) {
+        return new ArrayList<>(cached(reads, () -> new ArrayList<>(query.get()), key));
+    }
+
+    @Override
+    public List<Rocket> mostLaunchedRockets(int k) {
+        return cachedList(ROCKETS, () -> super.mostLaunchedRockets(k), "mostLaunchedRockets", k);
+    }
+
+    @Override
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k, ReliabilityRanking ranking, long minLaunches) {
+        return cachedList(PROVIDERS, () -> super.mostReliableLaunchServiceProviders(k, ranking, minLaunches),
+                "mostReliableLaunchServiceProviders", k, ranking, minLaunches);
+    }
+
+    @Override
+    public List<Launch> mostRecentLaunches(int k) {
+        return cachedList(LAUNCHES, () -> super.mostRecentLaunches(k), "mostRecentLaunches", k);
+    }
+
+    @Override
+    public List<Launch> launchesBetween(LocalDate from, LocalDate to) {
+        return cachedList(LAUNCHES, () -> super.launchesBetween(from, to), "launchesBetween", from, to);
+    }
+
+    @Override
+    public String dominantCountry(String orbit) {
+        return cached(PROVIDERS, () -> super.dominantCountry(orbit), "dominantCountry", orbit);
+    }
+
+    @Override
+    public List<Launch> mostExpensiveLaunches(int k) {
+        return cachedList(LAUNCHES, () -> super.mostExpensiveLaunches(k), "mostExpensiveLaunches", k);
+    }
+
+    @Override
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int year) {
+        return cachedList(PROVIDERS, () -> super.highestRevenueLaunchServiceProviders(k, year),
+                "highestRevenueLaunchServiceProviders", k, year);
+    }
+
+    @Override
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int fromYear, int toYear) {
+        return cachedList(PROVIDERS, () -> super.highestRevenueLaunchServiceProviders(k, fromYear, toYear),
+                "highestRevenueLaunchServiceProviders", k, fromYear, toYear);
+    }
+
+    @Override
+    public LaunchServiceProvider dominantLaunchServiceProvider(String orbit) {
+        return cached(PROVIDERS, () -> super.dominantLaunchServiceProvider(orbit), "dominantLaunchServiceProvider", orbit);
+    }
+
+    @Override
+    public Map<String, OrbitDominance> dominanceTable() {
+        return new LinkedHashMap<>(cached(PROVIDERS, () -> new LinkedHashMap<>(super.dominanceTable()), "dominanceTable"));
+    }
+
+    @Override
+    public List<Launch> lightestPayloadsLauchInLEO(int k) {
+        return cachedList(LAUNCHES, () -> super.lightestPayloadsLauchInLEO(k), "lightestPayloadsLauchInLEO", k);
+    }
+
+    @Override
+    public String dominantCountryInPayLoads(String orbit) {
+        return cached(PROVIDERS, () -> super.dominantCountryInPayLoads(orbit), "dominantCountryInPayLoads", orbit);
+    }
+
+    @Override
+    public PayloadMatrix payloadMatrix() {
+        return cached(PROVIDERS, () -> super.payloadMatrix(), "payloadMatrix");
+    }
+}
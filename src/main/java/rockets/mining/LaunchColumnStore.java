@@ -0,0 +1,390 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.LaunchRow;
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A read-only snapshot of the launches held by a DAO, stored as primitive
+ * columns rather than object graphs.
+ * <p>
+ * Each launch is a row. Rockets and launch service providers are dictionary
+ * encoded by their entity ids, and orbits, countries and launch sites by
+ * value, as dense int codes. Dates are epoch days,
+ * prices are the minor units of their {@link rockets.model.Money} and
+ * failures are a bit set. All prices must be in the same currency.
+ * The queries give the same answers as {@link RocketMiner} over the same data;
+ * no rocket or launch service provider is loaded to build the store, and only
+ * the k launches, rockets or providers a query returns are loaded back
+ * through the DAO.
+ */
+public class LaunchColumnStore {
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final long NO_PRICE = Long.MIN_VALUE;
+
+    // the code of a missing rocket or launch service provider, and so of its country, which no tally counts
+    private static final int NO_CODE = -1;
+
+    private final DAO dao;
+
+    private final int size;
+
+    private final long[] id;
+
+    private final int[] launchDay;
+
+    private final int[] rocket;
+
+    private final int[] provider;
+
+    private final int[] orbit;
+
+    private final int[] country;
+
+    private final int[] site;
+
+    private final long[] price;
+
+    private final BitSet failed;
+
+    private final int[] massToLEO;
+
+    private final int[] massToGTO;
+
+    private final int[] massToOther;
+
+    // by entity id
+    private final Dictionary<Long> rockets = new Dictionary<>();
+
+    private final Dictionary<Long> providers = new Dictionary<>();
+
+    private final Dictionary<String> orbits = new Dictionary<>();
+
+    private final Dictionary<String> countries = new Dictionary<>();
+
+    private final Dictionary<String> sites = new Dictionary<>();
+
+    // codes of the rockets and providers in the order the DAO returns them
+    private final int[] loadedRockets;
+
+    private final int[] loadedProviders;
+
+    // the currency of the prices, set by the first one
+    private String currency;
+
+    private LaunchColumnStore(DAO dao, List<LaunchRow> launches, List<Long> allRockets, List<Long> allProviders) {
+        this.dao = dao;
+        size = launches.size();
+        id = new long[size];
+        launchDay = new int[size];
+        rocket = new int[size];
+        provider = new int[size];
+        orbit = new int[size];
+        country = new int[size];
+        site = new int[size];
+        price = new long[size];
+        failed = new BitSet(size);
+        massToLEO = new int[size];
+        massToGTO = new int[size];
+        massToOther = new int[size];
+
+        int row = 0;
+        for (LaunchRow l : launches) {
+            id[row] = l.getId();
+            launchDay[row] = l.getLaunchEpochDay() == LaunchRow.NO_DATE ? NO_DATE : (int) l.getLaunchEpochDay();
+            rocket[row] = l.getRocketId() == LaunchRow.NO_ID ? NO_CODE : rockets.encode(l.getRocketId());
+            provider[row] = l.getProviderId() == LaunchRow.NO_ID ? NO_CODE : providers.encode(l.getProviderId());
+            orbit[row] = orbits.encode(l.getOrbit());
+            country[row] = provider[row] == NO_CODE ? NO_CODE : countries.encode(l.getProviderCountry());
+            site[row] = sites.encode(l.getLaunchSite());
+            price[row] = l.getPriceCurrency() == null ? NO_PRICE : minorUnits(l.getPriceMinorUnits(), l.getPriceCurrency());
+            failed.set(row, l.isFailed());
+            massToLEO[row] = l.getPayloadMassToLEO();
+            massToGTO[row] = l.getPayloadMassToGTO();
+            massToOther[row] = l.getPayloadMassToOther();
+            row++;
+        }
+        loadedRockets = rockets.encodeAll(allRockets);
+        loadedProviders = providers.encodeAll(allProviders);
+    }
+
+    /**
+     * Loads every launch of the DAO into columns, with the ids of its rockets
+     * and launch service providers. The launches are read as the flat rows of
+     * {@link DAO#streamLaunchRows()} and the others as {@link DAO#loadIds(Class)},
+     * so a DAO that projects them loads no entity.
+     *
+     * @param dao the DAO to read from, also used to load the entities a query returns.
+     * @return the column store.
+     */
+    public static LaunchColumnStore load(DAO dao) {
+        List<Long> allRockets = dao.loadIds(Rocket.class);
+        List<Long> allProviders = dao.loadIds(LaunchServiceProvider.class);
+        List<LaunchRow> launches;
+        try (Stream<LaunchRow> rows = dao.streamLaunchRows()) {
+            launches = rows.collect(Collectors.toList());
+        }
+        return new LaunchColumnStore(dao, launches, allRockets, allProviders);
+    }
+
+    private long minorUnits(long minorUnits, String priceCurrency) {
+        if (currency == null) {
+            currency = priceCurrency;
+        }
+        isTrue(currency.equals(priceCurrency), "cannot mix %s and %s", currency, priceCurrency);
+        return minorUnits;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @see RocketMiner#mostLaunchedRockets(int)
+     */
+    public List<Rocket> mostLaunchedRockets(int k) {
+        long[] launchCounts = new long[rockets.size()];
+        for (int row = 0; row < size; row++) {
+            if (rocket[row] != NO_CODE) {
+                launchCounts[rocket[row]]++;
+            }
+        }
+        // dictionary order is the order of first launch, then the order of loading
+        int[] best = TopK.best(rockets.size(), k, (a, b) -> Long.compare(launchCounts[b], launchCounts[a]));
+        return loadAll(Rocket.class, rockets, best);
+    }
+
+    /**
+     * @see RocketMiner#mostReliableLaunchServiceProviders(int, ReliabilityRanking, long)
+     */
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k, ReliabilityRanking ranking, long minLaunches) {
+        notNull(ranking);
+        long[] failures = new long[providers.size()];
+        long[] launches = new long[providers.size()];
+        for (int row = 0; row < size; row++) {
+            if (provider[row] == NO_CODE) {
+                continue;
+            }
+            launches[provider[row]]++;
+            if (failed.get(row)) {
+                failures[provider[row]]++;
+            }
+        }
+        double[] scores = new double[providers.size()];
+        BitSet ranked = new BitSet(providers.size());
+        for (int p = 0; p < providers.size(); p++) {
+            if (launches[p] > 0 && launches[p] >= minLaunches) {
+                scores[p] = ranking.score(new ReliabilityCounter(launches[p] - failures[p], failures[p]));
+                ranked.set(p);
+            }
+        }
+        int[] best = TopK.best(providers.size(), k, (a, b) -> compareScores(ranked.get(a), scores[a], ranked.get(b), scores[b]));
+        return loadAll(LaunchServiceProvider.class, providers, best);
+    }
+
+    /**
+     * @see RocketMiner#mostRecentLaunches(int)
+     */
+    public List<Launch> mostRecentLaunches(int k) {
+        return loadLaunches(TopK.best(size, k, (a, b) -> Integer.compare(launchDay[b], launchDay[a])));
+    }
+
+    /**
+     * @see RocketMiner#dominantCountry(String)
+     */
+    public String dominantCountry(String orbit) {
+        return countries.decode(dominant(orbit, country, countries.size()));
+    }
+
+    /**
+     * @see RocketMiner#mostExpensiveLaunches(int)
+     */
+    public List<Launch> mostExpensiveLaunches(int k) {
+        return loadLaunches(TopK.best(size, k, (a, b) -> Long.compare(price[b], price[a])));
+    }
+
+    /**
+     * @see RocketMiner#highestRevenueLaunchServiceProviders(int, int)
+     */
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int year) {
+        int from = (int) LocalDate.of(year, 1, 1).toEpochDay();
+        int to = (int) LocalDate.of(year + 1, 1, 1).toEpochDay();
+        long[] revenue = new long[providers.size()];
+        BitSet ranked = new BitSet(providers.size());
+        // providers rank in order of their first launch of the year, then in the order of loading
+        int[] candidates = new int[providers.size()];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (launchDay[row] < from || launchDay[row] >= to || price[row] == NO_PRICE || provider[row] == NO_CODE) {
+                continue;
+            }
+            int p = provider[row];
+            if (!ranked.get(p)) {
+                ranked.set(p);
+                candidates[count++] = p;
+            }
+            revenue[p] = Math.addExact(revenue[p], price[row]);
+        }
+        BitSet listed = (BitSet) ranked.clone();
+        for (int p : loadedProviders) {
+            if (!listed.get(p)) {
+                listed.set(p);
+                candidates[count++] = p;
+            }
+        }
+        // ranks positions in the candidate list, so ties go to the earlier candidate
+        int[] best = TopK.best(count, k, (a, b) -> compareScores(
+                ranked.get(candidates[a]), revenue[candidates[a]], ranked.get(candidates[b]), revenue[candidates[b]]));
+        for (int i = 0; i < best.length; i++) {
+            best[i] = candidates[best[i]];
+        }
+        return loadAll(LaunchServiceProvider.class, providers, best);
+    }
+
+    /**
+     * @see RocketMiner#dominantLaunchServiceProvider(String)
+     */
+    public LaunchServiceProvider dominantLaunchServiceProvider(String orbit) {
+        int dominant = dominant(orbit, provider, providers.size());
+        return dominant < 0 ? null : dao.load(LaunchServiceProvider.class, providers.decode(dominant));
+    }
+
+    /**
+     * @see RocketMiner#lightestPayloadsLauchInLEO(int)
+     */
+    public List<Launch> lightestPayloadsLauchInLEO(int k) {
+        return loadLaunches(TopK.smallest(massToLEO, k));
+    }
+
+    /**
+     * @see RocketMiner#dominantCountryInPayLoads(String)
+     */
+    public String dominantCountryInPayLoads(String orbit) {
+        int[] mass = massColumn(PayloadOrbit.of(orbit));
+        long[] payloadInCountry = new long[countries.size()];
+        if (mass != null) {
+            for (int row = 0; row < size; row++) {
+                if (country[row] != NO_CODE) {
+                    payloadInCountry[country[row]] += mass[row];
+                }
+            }
+        }
+        int[] dominant = TopK.best(countries.size(), 1, (a, b) -> Long.compare(payloadInCountry[b], payloadInCountry[a]));
+        return dominant.length == 0 ? null : countries.decode(dominant[0]);
+    }
+
+    private int[] massColumn(PayloadOrbit orbit) {
+        if (orbit == null) {
+            return null;
+        }
+        switch (orbit) {
+            case LEO:
+                return massToLEO;
+            case GTO:
+                return massToGTO;
+            default:
+                return massToOther;
+        }
+    }
+
+    // counts the launches into an orbit per id of a column, ties go to the id launched first into the orbit
+    private int dominant(String orbitName, int[] column, int ids) {
+        int o = orbits.idOf(orbitName);
+        long[] launchCounts = new long[ids];
+        int[] seen = new int[ids];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (orbit[row] == o && column[row] != NO_CODE) {
+                if (launchCounts[column[row]]++ == 0) {
+                    seen[count++] = column[row];
+                }
+            }
+        }
+        int[] dominant = TopK.best(count, 1, (a, b) -> Long.compare(launchCounts[seen[b]], launchCounts[seen[a]]));
+        return dominant.length == 0 ? -1 : seen[dominant[0]];
+    }
+
+    private static int compareScores(boolean rankedA, double a, boolean rankedB, double b) {
+        if (rankedA != rankedB) {
+            return rankedA ? -1 : 1;
+        }
+        return Double.compare(b, a);
+    }
+
+    private static int compareScores(boolean rankedA, long a, boolean rankedB, long b) {
+        if (rankedA != rankedB) {
+            return rankedA ? -1 : 1;
+        }
+        return Long.compare(b, a);
+    }
+
+    private <T extends Entity> List<T> loadAll(Class<T> clazz, Dictionary<Long> ids, int[] codes) {
+        List<T> result = new ArrayList<>(codes.length);
+        for (int code : codes) {
+            result.add(dao.load(clazz, ids.decode(code)));
+        }
+        return result;
+    }
+
+    private List<Launch> loadLaunches(int[] rows) {
+        List<Launch> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(dao.load(Launch.class, id[row]));
+        }
+        return result;
+    }
+
+    /**
+     * Maps values to dense int ids in order of first appearance.
+     */
+    private static class Dictionary<T> {
+        private final Map<T, Integer> ids = new HashMap<>();
+
+        private final List<T> values = new ArrayList<>();
+
+        int encode(T value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        int[] encodeAll(Collection<? extends T> all) {
+            int[] result = new int[all.size()];
+            int i = 0;
+            for (T value : all) {
+                result[i++] = encode(value);
+            }
+            return result;
+        }
+
+        int idOf(T value) {
+            Integer id = ids.get(value);
+            return id == null ? -1 : id;
+        }
+
+        // -1, for no value, decodes to null
+        T decode(int id) {
+            return id < 0 ? null : values.get(id);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAO;
+import rockets.model.Entity;
+import rockets.model.Launch;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The launches ordered by launch date, in concurrent skip lists keyed by epoch
+ * day. The k most recent launches are read in O(k) and the launches of a date
+ * window in O(log n + m) for m matching launches.
+ * <p>
+ * Writes are serialised by {@link LaunchIndex}; queries take no lock and can
+ * run while launches are being saved. A query sees a launch created or deleted
+ * at the same time either before or after the write, and may miss a launch
+ * that is being moved to another date. Launches of the same day keep the order in which
+ * the index first saw them. Launches without a launch date are not indexed.
+ */
+public class LaunchDateIndex extends LaunchIndex<LaunchDateIndex.Dated> {
+    // launches by epoch day, then by the order the index first saw them
+    private final ConcurrentNavigableMap<Long, ConcurrentNavigableMap<Long, Launch>> launchesByDay =
+            new ConcurrentSkipListMap<>();
+
+    // the order in which each launch was first seen, kept across updates
+    private final Map<Object, Long> sequences = new HashMap<>();
+
+    private long nextSequence;
+
+    /**
+     * Builds the index from the launches of the DAO.
+     */
+    public static LaunchDateIndex load(DAO dao) {
+        LaunchDateIndex index = new LaunchDateIndex();
+        index.build(dao);
+        return index;
+    }
+
+    /**
+     * @see RocketMiner#mostRecentLaunches(int)
+     */
+    public List<Launch> mostRecentLaunches(int k) {
+        isTrue(k >= 0, "k cannot be negative");
+        List<Launch> result = new ArrayList<>(Math.min(k, 64));
+        Iterator<ConcurrentNavigableMap<Long, Launch>> days = launchesByDay.descendingMap().values().iterator();
+        while (result.size() < k && days.hasNext()) {
+            Iterator<Launch> launches = days.next().values().iterator();
+            while (result.size() < k && launches.hasNext()) {
+                result.add(launches.next());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @see RocketMiner#launchesBetween(LocalDate, LocalDate)
+     */
+    public List<Launch> launchesBetween(LocalDate from, LocalDate to) {
+        notNull(from);
+        notNull(to);
+        isTrue(!from.isAfter(to), "from cannot be after to");
+        List<Launch> result = new ArrayList<>();
+        for (ConcurrentNavigableMap<Long, Launch> day : launchesByDay.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+            result.addAll(day.values());
+        }
+        return result;
+    }
+
+    @Override
+    protected Dated snapshot(Launch launch) {
+        Long sequence = sequences.get(keyOf(launch));
+        if (sequence == null) {
+            sequence = nextSequence++;
+            sequences.put(keyOf(launch), sequence);
+        }
+        return new Dated(launch, sequence);
+    }
+
+    @Override
+    protected void add(Dated dated) {
+        if (dated.epochDay != null) {
+            launchesByDay.computeIfAbsent(dated.epochDay, d -> new ConcurrentSkipListMap<>()).put(dated.sequence, dated.launch);
+        }
+    }
+
+    @Override
+    protected void remove(Dated dated) {
+        if (dated.epochDay != null) {
+            ConcurrentNavigableMap<Long, Launch> day = launchesByDay.get(dated.epochDay);
+            day.remove(dated.sequence);
+            if (day.isEmpty()) {
+                launchesByDay.remove(dated.epochDay);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void deleted(Entity entity) {
+        super.deleted(entity);
+        if (entity instanceof Launch) {
+            sequences.remove(keyOf((Launch) entity));
+        }
+    }
+
+    /**
+     * A launch with the day it was indexed under.
+     */
+    static class Dated {
+        private final Launch launch;
+
+        private final Long epochDay;
+
+        private final long sequence;
+
+        private Dated(Launch launch, long sequence) {
+            this.launch = launch;
+            this.epochDay = launch.getLaunchDate() == null ? null : launch.getLaunchDate().toEpochDay();
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.DAOListener;
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base of the indexes that keep miner aggregates up to date as entities are
+ * written through an {@link rockets.dataaccess.ObservableDAO}.
+ * <p>
+ * Every launch contributes a snapshot of the fields an index aggregates. When
+ * a launch is saved again its new snapshot is taken first, then the previous
+ * snapshot is taken out and the new one is added, so an update that moves a launch from one bucket to another is
+ * handled the same way as a delete followed by a create. An index that cannot
+ * aggregate a launch rejects it in {@link #check(Launch)}, before it is written.
+ *
+ * @param <S> the snapshot a launch contributes
+ */
+public abstract class LaunchIndex<S> implements DAOListener {
+    // snapshots by launch id, or by launch identity for launches without one
+    private final Map<Object, S> contributions = new HashMap<>();
+
+    /**
+     * Copies the fields of the launch this index aggregates.
+     */
+    protected abstract S snapshot(Launch launch);
+
+    /**
+     * Checks that the launch can be aggregated, before it is written.
+     *
+     * @throws IllegalArgumentException if it cannot.
+     */
+    protected void check(Launch launch) {
+    }
+
+    protected abstract void add(S snapshot);
+
+    protected abstract void remove(S snapshot);
+
+    /**
+     * Called when a rocket, launch service provider or other entity is saved.
+     */
+    protected void savedEntity(Entity entity) {
+    }
+
+    /**
+     * Called when a rocket, launch service provider or other entity is deleted.
+     */
+    protected void deletedEntity(Entity entity) {
+    }
+
+    /**
+     * Adds the launches of the DAO, then its rockets and launch service
+     * providers, in the order the DAO returns them.
+     */
+    protected synchronized void build(DAO dao) {
+        for (Launch launch : dao.loadAll(Launch.class)) {
+            check(launch);
+            saved(launch);
+        }
+        for (Rocket rocket : dao.loadAll(Rocket.class)) {
+            saved(rocket);
+        }
+        for (LaunchServiceProvider lsp : dao.loadAll(LaunchServiceProvider.class)) {
+            saved(lsp);
+        }
+    }
+
+    @Override
+    public synchronized void saving(Entity entity) {
+        if (entity instanceof Launch) {
+            check((Launch) entity);
+        }
+    }
+
+    @Override
+    public synchronized void saved(Entity entity) {
+        if (entity instanceof Launch) {
+            Launch launch = (Launch) entity;
+            S snapshot = snapshot(launch);
+            S previous = contributions.put(keyOf(launch), snapshot);
+            if (previous != null) {
+                remove(previous);
+            }
+            add(snapshot);
+        } else {
+            savedEntity(entity);
+        }
+    }
+
+    @Override
+    public synchronized void deleted(Entity entity) {
+        if (entity instanceof Launch) {
+            S previous = contributions.remove(keyOf((Launch) entity));
+            if (previous != null) {
+                remove(previous);
+            }
+        } else {
+            deletedEntity(entity);
+        }
+    }
+
+    /**
+     * @return the key identifying the launch across saves: its id, or the
+     * launch itself, compared by identity, when it has no id.
+     */
+    protected static Object keyOf(Launch launch) {
+        return launch.getId() != null ? launch.getId() : new IdentityKey(launch);
+    }
+
+    private static class IdentityKey {
+        private final Object value;
+
+        private IdentityKey(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(value);
+        }
+    }
+}
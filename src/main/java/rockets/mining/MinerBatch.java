@@ -0,0 +1,252 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+import static org.apache.commons.lang3.Validate.validState;
+
+/**
+ * Several miner queries answered together. The launches are loaded once and
+ * every registered query aggregates them in the same pass, instead of each
+ * query loading and scanning them on its own. Rockets and launch service
+ * providers are also loaded at most once.
+ * <pre>
+ * MinerBatch batch = miner.batch();
+ * MinerBatch.Result&lt;List&lt;Rocket&gt;&gt; rockets = batch.mostLaunchedRockets(10);
+ * MinerBatch.Result&lt;String&gt; country = batch.dominantCountry("LEO");
+ * batch.run();
+ * rockets.get();
+ * </pre>
+ * The pass runs on the fork-join pool of the miner when it has one. When the
+ * miner has views or a column store, which answer queries without a scan, each
+ * query is passed on to the miner instead. Queries are always aggregated in
+ * memory, whatever the {@link RocketMiner.ExecutionMode}.
+ */
+public class MinerBatch {
+    private final RocketMiner miner;
+
+    private final List<Query<?, ?, ?>> queries = new ArrayList<>();
+
+    private boolean ran;
+
+    // loaded on first use while the batch runs
+    private Collection<Rocket> rockets;
+
+    private Collection<LaunchServiceProvider> lsps;
+
+    MinerBatch(RocketMiner miner) {
+        notNull(miner);
+        this.miner = miner;
+    }
+
+    /**
+     * @see RocketMiner#mostLaunchedRockets(int)
+     */
+    public Result<List<Rocket>> mostLaunchedRockets(int k) {
+        isTrue(k >= 0, "k cannot be negative");
+        return register(RocketMiner.countLaunchesByRocket(),
+                counts -> RocketMiner.rankRockets(counts, rockets(), k),
+                () -> miner.mostLaunchedRockets(k));
+    }
+
+    /**
+     * @see RocketMiner#mostReliableLaunchServiceProviders(int)
+     */
+    public Result<List<LaunchServiceProvider>> mostReliableLaunchServiceProviders(int k) {
+        return mostReliableLaunchServiceProviders(k, ReliabilityRanking.SUCCESS_RATE, 1);
+    }
+
+    /**
+     * @see RocketMiner#mostReliableLaunchServiceProviders(int, ReliabilityRanking, long)
+     */
+    public Result<List<LaunchServiceProvider>> mostReliableLaunchServiceProviders(int k, ReliabilityRanking ranking, long minLaunches) {
+        isTrue(k >= 0, "k cannot be negative");
+        notNull(ranking);
+        return register(RocketMiner.countOutcomesByProvider(),
+                counters -> RocketMiner.rankByReliability(counters, lsps(), k, ranking, minLaunches),
+                () -> miner.mostReliableLaunchServiceProviders(k, ranking, minLaunches));
+    }
+
+    /**
+     * @see RocketMiner#dominantCountry(String)
+     */
+    public Result<String> dominantCountry(String orbit) {
+        notNull(orbit);
+        return register(RocketMiner.countLaunchesByCountry(orbit), RocketMiner::mostOf,
+                () -> miner.dominantCountry(orbit));
+    }
+
+    /**
+     * @see RocketMiner#mostExpensiveLaunches(int)
+     */
+    public Result<List<Launch>> mostExpensiveLaunches(int k) {
+        isTrue(k >= 0, "k cannot be negative");
+        return register(RocketMiner.mostExpensive(k), Function.identity(),
+                () -> miner.mostExpensiveLaunches(k));
+    }
+
+    /**
+     * @see RocketMiner#highestRevenueLaunchServiceProviders(int, int)
+     */
+    public Result<List<LaunchServiceProvider>> highestRevenueLaunchServiceProviders(int k, int year) {
+        isTrue(k >= 0, "k cannot be negative");
+        return register(RocketMiner.revenueByProvider(year, year),
+                revenue -> RocketMiner.rankByRevenue(revenue, lsps(), k),
+                () -> miner.highestRevenueLaunchServiceProviders(k, year));
+    }
+
+    /**
+     * Answers every registered query. A batch can only be run once.
+     */
+    public void run() {
+        validState(!ran, "the batch has already run");
+        ran = true;
+        if (miner.getViews() != null || miner.getColumnStore() != null) {
+            for (Query<?, ?, ?> query : queries) {
+                query.completeDirectly();
+            }
+            return;
+        }
+        Object[] containers = miner.collect(Launch.class, Collector.of(this::newContainers, this::accumulate, this::combine));
+        for (int i = 0; i < queries.size(); i++) {
+            queries.get(i).complete(containers[i]);
+        }
+        rockets = null;
+        lsps = null;
+    }
+
+    private <A, M, R> Result<R> register(Collector<Launch, A, M> collector, Function<M, R> ranking, Supplier<R> direct) {
+        validState(!ran, "the batch has already run");
+        Query<A, M, R> query = new Query<>(collector, ranking, direct);
+        queries.add(query);
+        return query.result;
+    }
+
+    private Collection<Rocket> rockets() {
+        if (rockets == null) {
+            rockets = miner.getDao().loadAll(Rocket.class);
+        }
+        return rockets;
+    }
+
+    private Collection<LaunchServiceProvider> lsps() {
+        if (lsps == null) {
+            lsps = miner.getDao().loadAll(LaunchServiceProvider.class);
+        }
+        return lsps;
+    }
+
+    private Object[] newContainers() {
+        Object[] containers = new Object[queries.size()];
+        for (int i = 0; i < containers.length; i++) {
+            containers[i] = queries.get(i).newContainer();
+        }
+        return containers;
+    }
+
+    private void accumulate(Object[] containers, Launch launch) {
+        for (int i = 0; i < containers.length; i++) {
+            queries.get(i).accumulate(containers[i], launch);
+        }
+    }
+
+    private Object[] combine(Object[] left, Object[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] = queries.get(i).combine(left[i], right[i]);
+        }
+        return left;
+    }
+
+    /**
+     * The answer to one query of a batch, available once the batch has run.
+     *
+     * @param <R> the type of the answer
+     */
+    public static class Result<R> {
+        private R value;
+
+        private boolean done;
+
+        private Result() {
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * @return the answer to the query.
+         * @throws IllegalStateException if the batch has not run yet.
+         */
+        public R get() {
+            validState(done, "the batch has not run yet");
+            return value;
+        }
+
+        private void set(R value) {
+            this.value = value;
+            this.done = true;
+        }
+    }
+
+    // A query as the partial aggregate it builds in the pass, and the ranking of that aggregate
+    private static class Query<A, M, R> {
+        private final Supplier<A> supplier;
+
+        private final BiConsumer<A, Launch> accumulator;
+
+        private final BinaryOperator<A> combiner;
+
+        private final Function<A, M> finisher;
+
+        private final Function<M, R> ranking;
+
+        private final Supplier<R> direct;
+
+        private final Result<R> result = new Result<>();
+
+        private Query(Collector<Launch, A, M> collector, Function<M, R> ranking, Supplier<R> direct) {
+            this.supplier = collector.supplier();
+            this.accumulator = collector.accumulator();
+            this.combiner = collector.combiner();
+            this.finisher = collector.finisher();
+            this.ranking = ranking;
+            this.direct = direct;
+        }
+
+        private Object newContainer() {
+            return supplier.get();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void accumulate(Object container, Launch launch) {
+            accumulator.accept((A) container, launch);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object combine(Object left, Object right) {
+            return combiner.apply((A) left, (A) right);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object container) {
+            result.set(ranking.apply(finisher.apply((A) container)));
+        }
+
+        private void completeDirectly() {
+            result.set(direct.get());
+        }
+    }
+}
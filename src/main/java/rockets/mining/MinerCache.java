@@ -0,0 +1,345 @@
+package rockets.mining;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A bounded cache of miner results, keyed by query and valid for one version
+ * of the data the query reads.
+ * <p>
+ * A result is returned only while the version it was computed at is the
+ * current one and, if a time to live is set, until it expires. When the cache
+ * is full the least recently used, or the least frequently used, result is
+ * evicted. Results are computed outside the lock of the cache, so the same
+ * query may be computed more than once when it is asked concurrently.
+ */
+public class MinerCache {
+    /**
+     * Which result is evicted when the cache is full.
+     */
+    public enum Eviction {
+        /**
+         * The result used least recently.
+         */
+        LRU,
+        /**
+         * The result used least often, then the one used least recently.
+         */
+        LFU
+    }
+
+    private final int maximumSize;
+
+    private final Eviction eviction;
+
+    // 0 for results that do not expire
+    private final long timeToLiveNanos;
+
+    private final LongSupplier nanoTime;
+
+    private final Map<Object, Entry> entries = new HashMap<>();
+
+    private final Policy policy;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long invalidations;
+
+    private long expirations;
+
+    /**
+     * Creates a cache whose results do not expire.
+     */
+    public MinerCache(int maximumSize, Eviction eviction) {
+        this(maximumSize, eviction, null);
+    }
+
+    /**
+     * @param maximumSize the number of results kept.
+     * @param eviction which result is evicted when the cache is full.
+     * @param timeToLive how long a result is kept after it was computed, or null to keep it until it is evicted.
+     */
+    public MinerCache(int maximumSize, Eviction eviction, Duration timeToLive) {
+        this(maximumSize, eviction, timeToLive, System::nanoTime);
+    }
+
+    MinerCache(int maximumSize, Eviction eviction, Duration timeToLive, LongSupplier nanoTime) {
+        isTrue(maximumSize > 0, "maximumSize must be positive");
+        notNull(eviction);
+        isTrue(timeToLive == null || !timeToLive.isNegative() && !timeToLive.isZero(), "timeToLive must be positive");
+        this.maximumSize = maximumSize;
+        this.eviction = eviction;
+        this.timeToLiveNanos = timeToLive == null ? 0 : timeToLive.toNanos();
+        this.nanoTime = nanoTime;
+        this.policy = eviction == Eviction.LRU ? new LeastRecentlyUsed() : new LeastFrequentlyUsed();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Eviction getEviction() {
+        return eviction;
+    }
+
+    /**
+     * Returns the result of a query cached at the given version of its data,
+     * computing and caching it if there is none.
+     *
+     * @param key the query and its arguments.
+     * @param version the current version of the data the query reads.
+     * @param query computes the result, which may be null.
+     * @return the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(Object key, long version, Supplier<V> query) {
+        notNull(key);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.version != version) {
+                    remove(entry);
+                    invalidations++;
+                } else if (timeToLiveNanos > 0 && nanoTime.getAsLong() - entry.computedAt >= timeToLiveNanos) {
+                    remove(entry);
+                    expirations++;
+                } else {
+                    hits++;
+                    policy.used(entry);
+                    return (V) entry.value;
+                }
+            }
+            misses++;
+        }
+        long computedAt = nanoTime.getAsLong();
+        V value = query.get();
+        put(new Entry(key, value, version, computedAt));
+        return value;
+    }
+
+    private synchronized void put(Entry entry) {
+        Entry previous = entries.get(entry.key);
+        if (previous != null) {
+            // keep a result computed concurrently at a later version
+            if (previous.version > entry.version) {
+                return;
+            }
+            remove(previous);
+        }
+        while (entries.size() >= maximumSize) {
+            remove(entries.get(policy.victim()));
+            evictions++;
+        }
+        entries.put(entry.key, entry);
+        policy.added(entry);
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.key);
+        policy.removed(entry);
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    public synchronized void invalidateAll() {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            remove(entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the statistics of the cache since it was created.
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, invalidations, expirations);
+    }
+
+    private static class Entry {
+        private final Object key;
+
+        private final Object value;
+
+        private final long version;
+
+        private final long computedAt;
+
+        private long uses = 1;
+
+        private Entry(Object key, Object value, long version, long computedAt) {
+            this.key = key;
+            this.value = value;
+            this.version = version;
+            this.computedAt = computedAt;
+        }
+    }
+
+    private interface Policy {
+        void added(Entry entry);
+
+        void used(Entry entry);
+
+        void removed(Entry entry);
+
+        Object victim();
+    }
+
+    private static class LeastRecentlyUsed implements Policy {
+        // keys from least to most recently used
+        private final LinkedHashSet<Object> order = new LinkedHashSet<>();
+
+        @Override
+        public void added(Entry entry) {
+            order.add(entry.key);
+        }
+
+        @Override
+        public void used(Entry entry) {
+            order.remove(entry.key);
+            order.add(entry.key);
+        }
+
+        @Override
+        public void removed(Entry entry) {
+            order.remove(entry.key);
+        }
+
+        @Override
+        public Object victim() {
+            return order.iterator().next();
+        }
+    }
+
+    private static class LeastFrequentlyUsed implements Policy {
+        // keys by number of uses, each from least to most recently used
+        private final Map<Long, LinkedHashSet<Object>> byUses = new HashMap<>();
+
+        private long fewestUses;
+
+        @Override
+        public void added(Entry entry) {
+            byUses.computeIfAbsent(entry.uses, u -> new LinkedHashSet<>()).add(entry.key);
+            fewestUses = entry.uses;
+        }
+
+        @Override
+        public void used(Entry entry) {
+            removed(entry);
+            entry.uses++;
+            byUses.computeIfAbsent(entry.uses, u -> new LinkedHashSet<>()).add(entry.key);
+            if (fewestUses == entry.uses - 1 && !byUses.containsKey(fewestUses)) {
+                fewestUses = entry.uses;
+            }
+        }
+
+        @Override
+        public void removed(Entry entry) {
+            LinkedHashSet<Object> keys = byUses.get(entry.uses);
+            keys.remove(entry.key);
+            if (keys.isEmpty()) {
+                byUses.remove(entry.uses);
+            }
+        }
+
+        @Override
+        public Object victim() {
+            LinkedHashSet<Object> keys = byUses.get(fewestUses);
+            if (keys == null) {
+                // the least used entry was removed other than by eviction
+                fewestUses = Collections.min(byUses.keySet());
+                keys = byUses.get(fewestUses);
+            }
+            return keys.iterator().next();
+        }
+    }
+
+    /**
+     * Counts of how the lookups of a {@link MinerCache} were answered.
+     */
+    public static final class Stats {
+        private final long hits;
+
+        private final long misses;
+
+        private final long evictions;
+
+        private final long invalidations;
+
+        private final long expirations;
+
+        Stats(long hits, long misses, long evictions, long invalidations, long expirations) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.expirations = expirations;
+        }
+
+        /**
+         * @return the lookups answered from the cache.
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the lookups that computed the result, including invalidated and expired ones.
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return the results dropped to make room for another.
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * @return the results dropped because the data they were computed from was written.
+         */
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        /**
+         * @return the results dropped because they outlived the time to live.
+         */
+        public long getExpirations() {
+            return expirations;
+        }
+
+        /**
+         * @return the share of lookups answered from the cache, or 0 if there was none.
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "hits=" + hits +
+                    ", misses=" + misses +
+                    ", evictions=" + evictions +
+                    ", invalidations=" + invalidations +
+                    ", expirations=" + expirations +
+                    '}';
+        }
+    }
+}
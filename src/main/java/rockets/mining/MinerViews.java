@@ -0,0 +1,242 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAO;
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+import rockets.model.Rocket;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Miner aggregates kept up to date from DAO writes, so that the queries they
+ * answer cost O(k) instead of a scan of every launch:
+ * <ul>
+ * <li>the number of launches of each rocket;</li>
+ * <li>the successful and failed launches of each launch service provider;</li>
+ * <li>the revenue of each launch service provider per year;</li>
+ * <li>the number of launches of each country per orbit.</li>
+ * </ul>
+ * Register the views on the {@link rockets.dataaccess.ObservableDAO} the
+ * application writes through, right after {@link #load(DAO) loading} them:
+ * <pre>
+ * ObservableDAO dao = new ObservableDAO(neo4jDAO);
+ * MinerViews views = MinerViews.load(dao);
+ * dao.addListener(views);
+ * miner.setViews(views);
+ * </pre>
+ * Revenue is summed in minor units, so launch prices must share one
+ * currency; saving a launch priced in another one is rejected before it
+ * is written. Rankings match {@link RocketMiner}, except that keys with the same value
+ * keep the order in which the views first saw them.
+ */
+public class MinerViews extends LaunchIndex<MinerViews.Contribution> {
+    private final RankedView<Rocket, Tally> rocketLaunches =
+            new RankedView<>(Tally::new, Tally::isEmpty, Tally::byValueDesc);
+
+    private final RankedView<LaunchServiceProvider, ReliabilityCounter> providerReliability =
+            new RankedView<>(ReliabilityCounter::new, c -> c.getLaunches() == 0,
+                    (a, b) -> Double.compare(b.successRate(), a.successRate()));
+
+    private final Map<Integer, RankedView<LaunchServiceProvider, Revenue>> revenueByYear = new HashMap<>();
+
+    private final Map<String, RankedView<String, Tally>> countriesByOrbit = new HashMap<>();
+
+    // the saved launch service providers, in the order they were first saved
+    private final Set<LaunchServiceProvider> providers = new LinkedHashSet<>();
+
+    // the currency of the summed prices, set by the first one
+    private String currency;
+
+    /**
+     * Builds the views from the entities of the DAO.
+     */
+    public static MinerViews load(DAO dao) {
+        MinerViews views = new MinerViews();
+        views.build(dao);
+        return views;
+    }
+
+    /**
+     * @see RocketMiner#mostLaunchedRockets(int)
+     */
+    public synchronized List<Rocket> mostLaunchedRockets(int k) {
+        return rocketLaunches.top(k);
+    }
+
+    /**
+     * @see RocketMiner#mostReliableLaunchServiceProviders(int)
+     */
+    public synchronized List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k) {
+        return providerReliability.top(k);
+    }
+
+    /**
+     * @see RocketMiner#highestRevenueLaunchServiceProviders(int, int)
+     */
+    public synchronized List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int year) {
+        isTrue(k >= 0, "k cannot be negative");
+        RankedView<LaunchServiceProvider, Revenue> revenue = revenueByYear.get(year);
+        List<LaunchServiceProvider> result = revenue == null ? new ArrayList<>() : revenue.top(k);
+        // providers without revenue in the year rank last, in the order they were saved
+        Iterator<LaunchServiceProvider> it = providers.iterator();
+        while (result.size() < k && it.hasNext()) {
+            LaunchServiceProvider lsp = it.next();
+            if (revenue == null || !revenue.contains(lsp)) {
+                result.add(lsp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @see RocketMiner#dominantCountry(String)
+     * @return the country, or null if there is no launch in the orbit.
+     */
+    public synchronized String dominantCountry(String orbit) {
+        RankedView<String, Tally> countries = countriesByOrbit.get(orbit);
+        if (countries == null) {
+            return null;
+        }
+        List<String> top = countries.top(1);
+        return top.isEmpty() ? null : top.get(0);
+    }
+
+    @Override
+    protected void check(Launch launch) {
+        Money price = launch.getPriceMoney();
+        if (price != null && launch.getLaunchServiceProvider() != null && launch.getLaunchDate() != null) {
+            isTrue(currency == null || currency.equals(price.getCurrency()), "cannot mix %s and %s", currency, price.getCurrency());
+        }
+    }
+
+    @Override
+    protected Contribution snapshot(Launch launch) {
+        Money price = launch.getPriceMoney();
+        if (currency == null && price != null && launch.getLaunchServiceProvider() != null && launch.getLaunchDate() != null) {
+            currency = price.getCurrency();
+        }
+        return new Contribution(launch);
+    }
+
+    @Override
+    protected void add(Contribution c) {
+        if (c.rocket != null) {
+            rocketLaunches.update(c.rocket, t -> t.value++);
+        }
+        if (c.provider != null) {
+            providerReliability.update(c.provider, r -> r.record(c.outcome));
+            if (c.year != null && c.price != null) {
+                revenueByYear.computeIfAbsent(c.year, y -> newRevenueView())
+                        .update(c.provider, r -> r.add(c.price));
+            }
+            if (c.orbit != null) {
+                countriesByOrbit.computeIfAbsent(c.orbit, o -> newTallyView())
+                        .update(c.country, t -> t.value++);
+            }
+        }
+    }
+
+    @Override
+    protected void remove(Contribution c) {
+        if (c.rocket != null) {
+            rocketLaunches.update(c.rocket, t -> t.value--);
+        }
+        if (c.provider != null) {
+            providerReliability.update(c.provider, r -> r.unrecord(c.outcome));
+            if (c.year != null && c.price != null) {
+                RankedView<LaunchServiceProvider, Revenue> revenue = revenueByYear.get(c.year);
+                revenue.update(c.provider, r -> r.subtract(c.price));
+                if (revenue.size() == 0) {
+                    revenueByYear.remove(c.year);
+                }
+            }
+            if (c.orbit != null) {
+                RankedView<String, Tally> countries = countriesByOrbit.get(c.orbit);
+                countries.update(c.country, t -> t.value--);
+                if (countries.size() == 0) {
+                    countriesByOrbit.remove(c.orbit);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void savedEntity(Entity entity) {
+        if (entity instanceof Rocket) {
+            rocketLaunches.pin((Rocket) entity);
+        } else if (entity instanceof LaunchServiceProvider) {
+            LaunchServiceProvider lsp = (LaunchServiceProvider) entity;
+            providers.add(lsp);
+            providerReliability.pin(lsp);
+        }
+    }
+
+    @Override
+    protected void deletedEntity(Entity entity) {
+        if (entity instanceof Rocket) {
+            rocketLaunches.unpin((Rocket) entity);
+        } else if (entity instanceof LaunchServiceProvider) {
+            LaunchServiceProvider lsp = (LaunchServiceProvider) entity;
+            providers.remove(lsp);
+            providerReliability.unpin(lsp);
+        }
+    }
+
+    private static RankedView<LaunchServiceProvider, Revenue> newRevenueView() {
+        return new RankedView<>(Revenue::new, r -> r.launches == 0, (a, b) -> Long.compare(b.total, a.total));
+    }
+
+    private static RankedView<String, Tally> newTallyView() {
+        return new RankedView<>(Tally::new, Tally::isEmpty, Tally::byValueDesc);
+    }
+
+    /**
+     * The fields of a launch the views aggregate, as they were when it was saved.
+     */
+    static class Contribution {
+        private final Rocket rocket;
+
+        private final LaunchServiceProvider provider;
+
+        private final Launch.LaunchOutcome outcome;
+
+        private final Integer year;
+
+        // in minor units
+        private final Long price;
+
+        private final String orbit;
+
+        private final String country;
+
+        private Contribution(Launch launch) {
+            rocket = launch.getLaunchVehicle();
+            provider = launch.getLaunchServiceProvider();
+            outcome = launch.getLaunchOutcome();
+            year = launch.getLaunchDate() == null ? null : launch.getLaunchDate().getYear();
+            price = launch.getPriceMoney() == null ? null : launch.getPriceMoney().getMinorUnits();
+            orbit = launch.getOrbit();
+            country = provider == null ? null : provider.getCountry();
+        }
+    }
+
+    private static class Revenue {
+        private long total;
+
+        private long launches;
+
+        private void add(long price) {
+            total = Math.addExact(total, price);
+            launches++;
+        }
+
+        private void subtract(long price) {
+            total = Math.subtractExact(total, price);
+            launches--;
+        }
+    }
+}
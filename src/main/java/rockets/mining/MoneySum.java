@@ -0,0 +1,47 @@
+package rockets.mining;
+
+import rockets.model.Money;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A running total of amounts of one currency, kept as a long so that adding an
+ * amount does not allocate.
+ */
+class MoneySum {
+    private long minorUnits;
+
+    private String currency;
+
+    /**
+     * @throws ArithmeticException if the total overflows.
+     * @throws IllegalArgumentException if the amount is in another currency.
+     */
+    void add(Money amount) {
+        notNull(amount);
+        add(amount.getMinorUnits(), amount.getCurrency());
+    }
+
+    MoneySum merge(MoneySum other) {
+        if (other.currency != null) {
+            add(other.minorUnits, other.currency);
+        }
+        return this;
+    }
+
+    /**
+     * @return the total, or null if nothing was added.
+     */
+    Money toMoney() {
+        return currency == null ? null : Money.ofMinor(minorUnits, currency);
+    }
+
+    private void add(long amount, String amountCurrency) {
+        if (currency == null) {
+            currency = amountCurrency;
+        }
+        isTrue(currency.equals(amountCurrency), "cannot mix %s and %s", currency, amountCurrency);
+        minorUnits = Math.addExact(minorUnits, amount);
+    }
+}
@@ -0,0 +1,71 @@
+package rockets.mining;
+
+import rockets.model.LaunchServiceProvider;
+
+import java.util.Objects;
+
+/**
+ * The country and the launch service provider with the most launches to an
+ * orbit.
+ */
+public class OrbitDominance {
+    private final String orbit;
+
+    private final String country;
+
+    private final LaunchServiceProvider launchServiceProvider;
+
+    private final long launches;
+
+    public OrbitDominance(String orbit, String country, LaunchServiceProvider launchServiceProvider, long launches) {
+        this.orbit = orbit;
+        this.country = country;
+        this.launchServiceProvider = launchServiceProvider;
+        this.launches = launches;
+    }
+
+    public String getOrbit() {
+        return orbit;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public LaunchServiceProvider getLaunchServiceProvider() {
+        return launchServiceProvider;
+    }
+
+    /**
+     * @return the number of launches to the orbit.
+     */
+    public long getLaunches() {
+        return launches;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrbitDominance that = (OrbitDominance) o;
+        return launches == that.launches &&
+                Objects.equals(orbit, that.orbit) &&
+                Objects.equals(country, that.country) &&
+                Objects.equals(launchServiceProvider, that.launchServiceProvider);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orbit, country, launchServiceProvider, launches);
+    }
+
+    @Override
+    public String toString() {
+        return "OrbitDominance{" +
+                "orbit='" + orbit + '\'' +
+                ", country='" + country + '\'' +
+                ", launchServiceProvider=" + launchServiceProvider +
+                ", launches=" + launches +
+                '}';
+    }
+}
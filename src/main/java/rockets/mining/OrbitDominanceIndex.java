@@ -0,0 +1,117 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+
+import java.util.*;
+
+/**
+ * The launches of every orbit counted by country and by launch service
+ * provider, each kept sorted so that the dominant one of any orbit is read
+ * off the head in constant time, however many launches there are.
+ * <p>
+ * Register the index on the {@link rockets.dataaccess.ObservableDAO} the
+ * application writes through so that it follows saved and deleted launches.
+ * Countries or providers with the same number of launches keep the order in
+ * which the index first saw them in the orbit.
+ */
+public class OrbitDominanceIndex extends LaunchIndex<OrbitDominanceIndex.Placement> {
+    // by orbit, in the order they were first seen
+    private final Map<String, OrbitCounts> orbits = new LinkedHashMap<>();
+
+    /**
+     * Builds the index from the launches of the DAO.
+     */
+    public static OrbitDominanceIndex load(DAO dao) {
+        OrbitDominanceIndex index = new OrbitDominanceIndex();
+        index.build(dao);
+        return index;
+    }
+
+    /**
+     * @see RocketMiner#dominantCountry(String)
+     */
+    public synchronized String dominantCountry(String orbit) {
+        OrbitCounts counts = orbits.get(orbit);
+        return counts == null ? null : first(counts.countries);
+    }
+
+    /**
+     * @see RocketMiner#dominantLaunchServiceProvider(String)
+     */
+    public synchronized LaunchServiceProvider dominantLaunchServiceProvider(String orbit) {
+        OrbitCounts counts = orbits.get(orbit);
+        return counts == null ? null : first(counts.providers);
+    }
+
+    /**
+     * @see RocketMiner#dominanceTable()
+     */
+    public synchronized Map<String, OrbitDominance> dominanceTable() {
+        Map<String, OrbitDominance> table = new LinkedHashMap<>();
+        for (Map.Entry<String, OrbitCounts> e : orbits.entrySet()) {
+            OrbitCounts counts = e.getValue();
+            table.put(e.getKey(), new OrbitDominance(e.getKey(), first(counts.countries), first(counts.providers), counts.launches));
+        }
+        return table;
+    }
+
+    @Override
+    protected Placement snapshot(Launch launch) {
+        LaunchServiceProvider provider = launch.getLaunchServiceProvider();
+        return new Placement(launch.getOrbit(), provider, provider == null ? null : provider.getCountry());
+    }
+
+    @Override
+    protected void add(Placement placement) {
+        if (placement.orbit != null) {
+            OrbitCounts counts = orbits.computeIfAbsent(placement.orbit, o -> new OrbitCounts());
+            counts.launches++;
+            counts.countries.update(placement.country, t -> t.value++);
+            counts.providers.update(placement.provider, t -> t.value++);
+        }
+    }
+
+    @Override
+    protected void remove(Placement placement) {
+        if (placement.orbit != null) {
+            OrbitCounts counts = orbits.get(placement.orbit);
+            counts.countries.update(placement.country, t -> t.value--);
+            counts.providers.update(placement.provider, t -> t.value--);
+            if (--counts.launches == 0) {
+                orbits.remove(placement.orbit);
+            }
+        }
+    }
+
+    private static <K> K first(RankedView<K, Tally> view) {
+        List<K> top = view.top(1);
+        return top.isEmpty() ? null : top.get(0);
+    }
+
+    private static class OrbitCounts {
+        private final RankedView<String, Tally> countries = new RankedView<>(Tally::new, Tally::isEmpty, Tally::byValueDesc);
+
+        private final RankedView<LaunchServiceProvider, Tally> providers = new RankedView<>(Tally::new, Tally::isEmpty, Tally::byValueDesc);
+
+        private long launches;
+    }
+
+    /**
+     * Where a launch went and who launched it.
+     */
+    static class Placement {
+        private final String orbit;
+
+        private final LaunchServiceProvider provider;
+
+        private final String country;
+
+        private Placement(String orbit, LaunchServiceProvider provider, String country) {
+            this.orbit = orbit;
+            this.provider = provider;
+            this.country = country;
+        }
+    }
+}
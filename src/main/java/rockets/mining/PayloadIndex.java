@@ -0,0 +1,120 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+
+import java.util.*;
+
+/**
+ * The {@link PayloadMatrix} of the launches, kept up to date as they are
+ * written, with the countries of every {@link PayloadOrbit} kept sorted by
+ * payload mass so that the dominant one is read off the head in constant
+ * time, however many launches there are.
+ * <p>
+ * Register the index on the {@link rockets.dataaccess.ObservableDAO} the
+ * application writes through so that it follows saved and deleted launches.
+ * A launch counts for the country of its launch service provider; launches
+ * without one are left out. Countries with the same payload mass keep the
+ * order in which the index first saw them.
+ */
+public class PayloadIndex extends LaunchIndex<PayloadIndex.Shipment> {
+    private static final int ORBITS = PayloadOrbit.values().length;
+
+    // the launch count of every country, in the order they were first seen
+    private final Map<String, Tally> launches = new LinkedHashMap<>();
+
+    // the countries with a launch are pinned, so that a country without payload mass still ranks
+    private final Map<PayloadOrbit, RankedView<String, Tally>> mass = new EnumMap<>(PayloadOrbit.class);
+
+    public PayloadIndex() {
+        for (PayloadOrbit orbit : PayloadOrbit.values()) {
+            mass.put(orbit, new RankedView<>(Tally::new, Tally::isEmpty, Tally::byValueDesc));
+        }
+    }
+
+    /**
+     * Builds the index from the launches of the DAO.
+     */
+    public static PayloadIndex load(DAO dao) {
+        PayloadIndex index = new PayloadIndex();
+        index.build(dao);
+        return index;
+    }
+
+    /**
+     * @see RocketMiner#dominantCountryInPayLoads(String)
+     */
+    public synchronized String dominantCountryInPayLoads(String orbit) {
+        PayloadOrbit payloadOrbit = PayloadOrbit.of(orbit);
+        if (payloadOrbit == null) {
+            // no payload goes to any other orbit, so every country ties and the first one wins
+            return launches.isEmpty() ? null : launches.keySet().iterator().next();
+        }
+        List<String> top = mass.get(payloadOrbit).top(1);
+        return top.isEmpty() ? null : top.get(0);
+    }
+
+    /**
+     * @see RocketMiner#payloadMatrix()
+     */
+    public synchronized PayloadMatrix payloadMatrix() {
+        List<String> countries = new ArrayList<>(launches.keySet());
+        long[] totals = new long[countries.size() * ORBITS];
+        for (int row = 0; row < countries.size(); row++) {
+            for (PayloadOrbit orbit : PayloadOrbit.values()) {
+                totals[row * ORBITS + orbit.ordinal()] = mass.get(orbit).get(countries.get(row)).value;
+            }
+        }
+        return PayloadMatrix.of(countries, totals);
+    }
+
+    @Override
+    protected Shipment snapshot(Launch launch) {
+        LaunchServiceProvider provider = launch.getLaunchServiceProvider();
+        int[] masses = new int[ORBITS];
+        for (PayloadOrbit orbit : PayloadOrbit.values()) {
+            masses[orbit.ordinal()] = orbit.massOf(launch);
+        }
+        return new Shipment(provider == null ? null : provider.getCountry(), masses);
+    }
+
+    @Override
+    protected void add(Shipment shipment) {
+        if (shipment.country != null) {
+            if (launches.computeIfAbsent(shipment.country, c -> new Tally()).value++ == 0) {
+                mass.values().forEach(view -> view.pin(shipment.country));
+            }
+            for (PayloadOrbit orbit : PayloadOrbit.values()) {
+                mass.get(orbit).update(shipment.country, t -> t.value += shipment.masses[orbit.ordinal()]);
+            }
+        }
+    }
+
+    @Override
+    protected void remove(Shipment shipment) {
+        if (shipment.country != null) {
+            for (PayloadOrbit orbit : PayloadOrbit.values()) {
+                mass.get(orbit).update(shipment.country, t -> t.value -= shipment.masses[orbit.ordinal()]);
+            }
+            if (--launches.get(shipment.country).value == 0) {
+                launches.remove(shipment.country);
+                mass.values().forEach(view -> view.unpin(shipment.country));
+            }
+        }
+    }
+
+    /**
+     * The country a launch counts for and its payload mass to every orbit.
+     */
+    static class Shipment {
+        private final String country;
+
+        private final int[] masses;
+
+        private Shipment(String country, int[] masses) {
+            this.country = country;
+            this.masses = masses;
+        }
+    }
+}
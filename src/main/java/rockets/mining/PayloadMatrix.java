@@ -0,0 +1,127 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+
+import java.util.*;
+import java.util.stream.Collector;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The total payload mass each country sent to each {@link PayloadOrbit},
+ * built in one pass over the launches. A launch counts for the country of its
+ * launch service provider.
+ * <p>
+ * Countries are kept in order of their first launch, and the masses in one
+ * primitive array, a row of {@code PayloadOrbit.values().length} columns per
+ * country.
+ */
+public class PayloadMatrix {
+    private static final int ORBITS = PayloadOrbit.values().length;
+
+    private final Map<String, Integer> rows;
+
+    private final List<String> countries;
+
+    private final long[] mass;
+
+    private PayloadMatrix(Map<String, Integer> rows, List<String> countries, long[] mass) {
+        this.rows = rows;
+        this.countries = Collections.unmodifiableList(countries);
+        this.mass = mass;
+    }
+
+    /**
+     * @return a collector of the payload matrix of a stream of launches.
+     */
+    public static Collector<Launch, ?, PayloadMatrix> collector() {
+        return Collector.of(Builder::new, Builder::add, Builder::merge, Builder::build);
+    }
+
+    // the matrix of the countries, with a row of masses per country in their order
+    static PayloadMatrix of(List<String> countries, long[] mass) {
+        Map<String, Integer> rows = new HashMap<>();
+        for (int row = 0; row < countries.size(); row++) {
+            rows.put(countries.get(row), row);
+        }
+        return new PayloadMatrix(rows, countries, mass);
+    }
+
+    /**
+     * @return the countries, in order of their first launch.
+     */
+    public List<String> getCountries() {
+        return countries;
+    }
+
+    /**
+     * @return the payload mass the country sent to the orbit, or 0 if it has no launch.
+     */
+    public long mass(String country, PayloadOrbit orbit) {
+        notNull(orbit);
+        Integer row = rows.get(country);
+        return row == null ? 0 : mass[row * ORBITS + orbit.ordinal()];
+    }
+
+    /**
+     * Returns the country that sent the most payload mass to the orbit. Ties
+     * go to the country launched first.
+     *
+     * @return the dominant country, or null if there is no launch.
+     */
+    public String dominantCountry(PayloadOrbit orbit) {
+        notNull(orbit);
+        int best = -1;
+        for (int row = 0; row < countries.size(); row++) {
+            if (best < 0 || mass[row * ORBITS + orbit.ordinal()] > mass[best * ORBITS + orbit.ordinal()]) {
+                best = row;
+            }
+        }
+        return best < 0 ? null : countries.get(best);
+    }
+
+    /**
+     * Accumulates launches into rows, growing the mass array as countries are seen.
+     */
+    private static class Builder {
+        private final Map<String, Integer> rows = new HashMap<>();
+
+        private final List<String> countries = new ArrayList<>();
+
+        private long[] mass = new long[16 * ORBITS];
+
+        private void add(Launch launch) {
+            int offset = rowOf(launch.getLaunchServiceProvider().getCountry()) * ORBITS;
+            for (PayloadOrbit orbit : PayloadOrbit.values()) {
+                mass[offset + orbit.ordinal()] += orbit.massOf(launch);
+            }
+        }
+
+        private Builder merge(Builder other) {
+            for (int row = 0; row < other.countries.size(); row++) {
+                int offset = rowOf(other.countries.get(row)) * ORBITS;
+                for (int column = 0; column < ORBITS; column++) {
+                    mass[offset + column] += other.mass[row * ORBITS + column];
+                }
+            }
+            return this;
+        }
+
+        private int rowOf(String country) {
+            Integer row = rows.get(country);
+            if (row == null) {
+                row = countries.size();
+                rows.put(country, row);
+                countries.add(country);
+                if ((row + 1) * ORBITS > mass.length) {
+                    mass = Arrays.copyOf(mass, mass.length * 2);
+                }
+            }
+            return row;
+        }
+
+        private PayloadMatrix build() {
+            return new PayloadMatrix(rows, countries, Arrays.copyOf(mass, countries.size() * ORBITS));
+        }
+    }
+}
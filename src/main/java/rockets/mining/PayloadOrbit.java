@@ -0,0 +1,47 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+
+/**
+ * The orbits the payload mass of a launch is totalled for.
+ */
+public enum PayloadOrbit {
+    LEO {
+        @Override
+        public int massOf(Launch launch) {
+            return launch.getPayloadMassToLEO();
+        }
+    },
+    GTO {
+        @Override
+        public int massOf(Launch launch) {
+            return launch.getPayloadMassToGTO();
+        }
+    },
+    OTHER {
+        @Override
+        public int massOf(Launch launch) {
+            return launch.getPayloadMassToOther();
+        }
+    };
+
+    /**
+     * @return the total mass of the payloads of the launch to this orbit.
+     */
+    public abstract int massOf(Launch launch);
+
+    /**
+     * Resolves an orbit name, ignoring case.
+     *
+     * @param orbit "LEO", "GTO" or "other", in any case.
+     * @return the payload orbit, or null for any other name.
+     */
+    public static PayloadOrbit of(String orbit) {
+        for (PayloadOrbit payloadOrbit : values()) {
+            if (payloadOrbit.name().equalsIgnoreCase(orbit)) {
+                return payloadOrbit;
+            }
+        }
+        return null;
+    }
+}
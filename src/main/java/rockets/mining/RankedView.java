@@ -0,0 +1,145 @@
+package rockets.mining;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A mutable aggregate per key, kept sorted so that the top k keys can be read
+ * in O(k) however many keys there are. Keys whose aggregate is empty are
+ * dropped unless they are pinned, in which case they rank after every key with
+ * a non-empty aggregate. Keys that rank the same keep the order in which the
+ * view first saw them.
+ * <p>
+ * Not thread-safe; {@link LaunchIndex} serialises access.
+ *
+ * @param <K> the key, e.g. a rocket
+ * @param <A> the aggregate of a key, e.g. its launch count
+ */
+class RankedView<K, A> {
+    private final Supplier<A> factory;
+
+    private final Predicate<A> empty;
+
+    private final Map<K, Node<K, A>> nodes = new HashMap<>();
+
+    private final TreeSet<Node<K, A>> ranking;
+
+    private long nextSequence;
+
+    /**
+     * @param factory creates the empty aggregate of a new key.
+     * @param empty tells whether an aggregate is empty.
+     * @param order the order of the aggregates, best first.
+     */
+    RankedView(Supplier<A> factory, Predicate<A> empty, Comparator<? super A> order) {
+        notNull(factory);
+        notNull(empty);
+        notNull(order);
+        this.factory = factory;
+        this.empty = empty;
+        Comparator<Node<K, A>> byEmpty = Comparator.comparing(n -> empty.test(n.aggregate));
+        this.ranking = new TreeSet<>(byEmpty
+                .thenComparing((a, b) -> order.compare(a.aggregate, b.aggregate))
+                .thenComparingLong(n -> n.sequence));
+    }
+
+    /**
+     * Changes the aggregate of the key, creating it first if needed.
+     */
+    void update(K key, Consumer<? super A> change) {
+        Node<K, A> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key, factory.get(), nextSequence++);
+            nodes.put(key, node);
+        } else {
+            ranking.remove(node);
+        }
+        change.accept(node.aggregate);
+        place(node);
+    }
+
+    /**
+     * Keeps the key in the view even while its aggregate is empty.
+     */
+    void pin(K key) {
+        Node<K, A> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key, factory.get(), nextSequence++);
+            nodes.put(key, node);
+        } else {
+            ranking.remove(node);
+        }
+        node.pinned = true;
+        ranking.add(node);
+    }
+
+    /**
+     * Lets the key be dropped once its aggregate is empty.
+     */
+    void unpin(K key) {
+        Node<K, A> node = nodes.get(key);
+        if (node != null) {
+            node.pinned = false;
+            ranking.remove(node);
+            place(node);
+        }
+    }
+
+    boolean contains(K key) {
+        return nodes.containsKey(key);
+    }
+
+    /**
+     * @return the aggregate of the key, or null if the view does not have it.
+     */
+    A get(K key) {
+        Node<K, A> node = nodes.get(key);
+        return node == null ? null : node.aggregate;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the first k keys, best first.
+     */
+    List<K> top(int k) {
+        isTrue(k >= 0, "k cannot be negative");
+        List<K> result = new ArrayList<>(Math.min(k, nodes.size()));
+        Iterator<Node<K, A>> it = ranking.iterator();
+        while (result.size() < k && it.hasNext()) {
+            result.add(it.next().key);
+        }
+        return result;
+    }
+
+    private void place(Node<K, A> node) {
+        if (node.pinned || !empty.test(node.aggregate)) {
+            ranking.add(node);
+        } else {
+            nodes.remove(node.key);
+        }
+    }
+
+    private static class Node<K, A> {
+        private final K key;
+
+        private final A aggregate;
+
+        private final long sequence;
+
+        private boolean pinned;
+
+        private Node(K key, A aggregate, long sequence) {
+            this.key = key;
+            this.aggregate = aggregate;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package rockets.mining;
+
+import rockets.model.Launch;
+
+import static org.apache.commons.lang3.Validate.validState;
+import static rockets.model.Launch.LaunchOutcome.FAILED;
+
+/**
+ * Counts the successful and failed launches of one launch service provider.
+ * A launch whose outcome is not {@link Launch.LaunchOutcome#FAILED} counts as
+ * a success. Ratios are only computed when asked for, so recording a launch
+ * does not allocate.
+ */
+public class ReliabilityCounter {
+    private long successes;
+
+    private long failures;
+
+    public ReliabilityCounter() {
+    }
+
+    public ReliabilityCounter(long successes, long failures) {
+        this.successes = successes;
+        this.failures = failures;
+    }
+
+    public void record(Launch.LaunchOutcome outcome) {
+        if (outcome == FAILED) {
+            failures++;
+        } else {
+            successes++;
+        }
+    }
+
+    /**
+     * Takes back a launch recorded earlier, e.g. when the launch is deleted.
+     */
+    public void unrecord(Launch.LaunchOutcome outcome) {
+        if (outcome == FAILED) {
+            validState(failures > 0, "no failed launch to unrecord");
+            failures--;
+        } else {
+            validState(successes > 0, "no successful launch to unrecord");
+            successes--;
+        }
+    }
+
+    public void merge(ReliabilityCounter other) {
+        successes += other.successes;
+        failures += other.failures;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getLaunches() {
+        return successes + failures;
+    }
+
+    /**
+     * @return the fraction of successful launches, or 0 if there is no launch.
+     */
+    public double successRate() {
+        long launches = getLaunches();
+        return launches == 0 ? 0 : (double) successes / launches;
+    }
+
+    /**
+     * Returns the lower bound of the Wilson score interval of the success rate.
+     * It ranks a provider with few launches below one with the same rate over
+     * many launches.
+     *
+     * @param z the standard normal quantile of the confidence level, e.g. 1.96 for 95%
+     * @return the lower bound, or 0 if there is no launch.
+     */
+    public double wilsonLowerBound(double z) {
+        long launches = getLaunches();
+        if (launches == 0) {
+            return 0;
+        }
+        double rate = (double) successes / launches;
+        double z2 = z * z;
+        double centre = rate + z2 / (2 * launches);
+        double margin = z * Math.sqrt((rate * (1 - rate) + z2 / (4 * launches)) / launches);
+        return (centre - margin) / (1 + z2 / launches);
+    }
+}
@@ -0,0 +1,32 @@
+package rockets.mining;
+
+/**
+ * How launch service providers are scored when ranked by reliability.
+ */
+public enum ReliabilityRanking {
+    /**
+     * The fraction of successful launches.
+     */
+    SUCCESS_RATE {
+        @Override
+        public double score(ReliabilityCounter counter) {
+            return counter.successRate();
+        }
+    },
+    /**
+     * The lower bound of the 95% Wilson score interval of the success rate.
+     */
+    WILSON_LOWER_BOUND {
+        @Override
+        public double score(ReliabilityCounter counter) {
+            return counter.wilsonLowerBound(WILSON_Z);
+        }
+    };
+
+    /**
+     * The standard normal quantile used by {@link #WILSON_LOWER_BOUND}.
+     */
+    public static final double WILSON_Z = 1.96;
+
+    public abstract double score(ReliabilityCounter counter);
+}
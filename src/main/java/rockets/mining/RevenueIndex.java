@@ -0,0 +1,253 @@
+package rockets.mining;
+
+import rockets.dataaccess.DAO;
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The revenue of every launch service provider, partitioned by year and kept
+ * as per-provider prefix sums over the years. The revenue of a provider over
+ * any range of years is the difference of two prefix sums, so ranking the
+ * providers over a year, a range of years or the trailing years costs
+ * O(providers log k) whatever the number of launches.
+ * <p>
+ * Register the index on the {@link rockets.dataaccess.ObservableDAO} the
+ * application writes through so that it follows saved and deleted launches.
+ * Launches without a launch date, a price or a launch service provider have no
+ * revenue to index. Prices are summed in minor units and must all be in the
+ * same currency; saving a launch priced in another one is rejected before
+ * it is written. Providers with the same revenue keep the order in which
+ * the index first saw them; providers without a launch in the years rank
+ * last.
+ */
+public class RevenueIndex extends LaunchIndex<RevenueIndex.Sale> {
+    // by provider, in the order they were first seen
+    private final Map<LaunchServiceProvider, YearSums> providers = new LinkedHashMap<>();
+
+    // the years covered by the prefix sums are [firstYear, firstYear + years)
+    private int firstYear;
+
+    private int years;
+
+    // the currency of the indexed prices, set by the first one
+    private String currency;
+
+    /**
+     * Builds the index from the entities of the DAO.
+     */
+    public static RevenueIndex load(DAO dao) {
+        RevenueIndex index = new RevenueIndex();
+        index.build(dao);
+        return index;
+    }
+
+    /**
+     * @see RocketMiner#highestRevenueLaunchServiceProviders(int, int)
+     */
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int year) {
+        return highestRevenueLaunchServiceProviders(k, year, year);
+    }
+
+    /**
+     * @see RocketMiner#highestRevenueLaunchServiceProviders(int, int, int)
+     */
+    public synchronized List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int fromYear, int toYear) {
+        isTrue(fromYear <= toYear, "fromYear cannot be after toYear");
+        TopK<Map.Entry<LaunchServiceProvider, YearSums>> topK = new TopK<>(k, (a, b) -> {
+            YearSums x = a.getValue();
+            YearSums y = b.getValue();
+            boolean xSold = x.launches(fromYear, toYear) > 0;
+            boolean ySold = y.launches(fromYear, toYear) > 0;
+            if (xSold != ySold) {
+                return xSold ? -1 : 1;
+            }
+            return xSold ? Long.compare(y.revenue(fromYear, toYear), x.revenue(fromYear, toYear)) : 0;
+        });
+        for (Map.Entry<LaunchServiceProvider, YearSums> e : providers.entrySet()) {
+            topK.offer(e);
+        }
+        List<LaunchServiceProvider> result = new ArrayList<>(topK.size());
+        for (Map.Entry<LaunchServiceProvider, YearSums> e : topK.toList()) {
+            result.add(e.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * @see RocketMiner#highestTrailingRevenueLaunchServiceProviders(int, int, int)
+     */
+    public List<LaunchServiceProvider> highestTrailingRevenueLaunchServiceProviders(int k, int years, int lastYear) {
+        isTrue(years > 0, "years must be positive");
+        return highestRevenueLaunchServiceProviders(k, lastYear - years + 1, lastYear);
+    }
+
+    /**
+     * @return the revenue of the provider from the launches of the years
+     * between fromYear and toYear, both included, in the currency of the
+     * prices or {@link Money#DEFAULT_CURRENCY} before any price is indexed.
+     */
+    public synchronized Money revenue(LaunchServiceProvider lsp, int fromYear, int toYear) {
+        notNull(lsp);
+        isTrue(fromYear <= toYear, "fromYear cannot be after toYear");
+        YearSums sums = providers.get(lsp);
+        return Money.ofMinor(sums == null ? 0 : sums.revenue(fromYear, toYear),
+                currency == null ? Money.DEFAULT_CURRENCY : currency);
+    }
+
+    @Override
+    protected void check(Launch launch) {
+        Money price = launch.getPriceMoney();
+        if (launch.getLaunchServiceProvider() != null && launch.getLaunchDate() != null && price != null) {
+            isTrue(currency == null || currency.equals(price.getCurrency()), "cannot mix %s and %s", currency, price.getCurrency());
+        }
+    }
+
+    @Override
+    protected Sale snapshot(Launch launch) {
+        Money price = launch.getPriceMoney();
+        if (launch.getLaunchServiceProvider() == null || launch.getLaunchDate() == null || price == null) {
+            return Sale.NONE;
+        }
+        if (currency == null) {
+            currency = price.getCurrency();
+        }
+        return new Sale(launch.getLaunchServiceProvider(), launch.getLaunchDate().getYear(), price.getMinorUnits());
+    }
+
+    @Override
+    protected void add(Sale sale) {
+        if (sale != Sale.NONE) {
+            cover(sale.year);
+            providers.computeIfAbsent(sale.provider, p -> new YearSums()).add(sale.year, sale.price, 1);
+        }
+    }
+
+    @Override
+    protected void remove(Sale sale) {
+        if (sale != Sale.NONE) {
+            YearSums sums = providers.get(sale.provider);
+            sums.add(sale.year, -sale.price, -1);
+            dropIfUnused(sale.provider, sums);
+        }
+    }
+
+    @Override
+    protected void savedEntity(Entity entity) {
+        if (entity instanceof LaunchServiceProvider) {
+            providers.computeIfAbsent((LaunchServiceProvider) entity, p -> new YearSums()).registered = true;
+        }
+    }
+
+    @Override
+    protected void deletedEntity(Entity entity) {
+        if (entity instanceof LaunchServiceProvider) {
+            YearSums sums = providers.get(entity);
+            if (sums != null) {
+                sums.registered = false;
+                dropIfUnused((LaunchServiceProvider) entity, sums);
+            }
+        }
+    }
+
+    private void dropIfUnused(LaunchServiceProvider lsp, YearSums sums) {
+        if (!sums.registered && sums.launches(firstYear, firstYear + years - 1) == 0) {
+            providers.remove(lsp);
+        }
+    }
+
+    /**
+     * Widens the years covered by the prefix sums so that they include the year.
+     */
+    private void cover(int year) {
+        if (years == 0) {
+            firstYear = year;
+            years = 1;
+        } else if (year < firstYear || year >= firstYear + years) {
+            int from = Math.min(firstYear, year);
+            int to = Math.max(firstYear + years - 1, year);
+            // leave room on both sides so that a run of new years does not resize every time
+            int slack = (to - from + 1) / 2;
+            int newFirstYear = year < firstYear ? from - slack : from;
+            int newYears = to - from + 1 + slack;
+            for (YearSums sums : providers.values()) {
+                sums.resize(firstYear, newFirstYear, newYears);
+            }
+            firstYear = newFirstYear;
+            years = newYears;
+        }
+    }
+
+    /**
+     * The revenue and launches of a launch service provider by year, where
+     * revenue[i] and launches[i] sum the years before firstYear + i.
+     */
+    private class YearSums {
+        private long[] revenue = new long[years + 1];
+
+        private long[] launches = new long[years + 1];
+
+        // whether the provider itself was saved, as opposed to only seen on launches
+        private boolean registered;
+
+        private void add(int year, long price, long count) {
+            for (int i = year - firstYear + 1; i <= years; i++) {
+                revenue[i] = Math.addExact(revenue[i], price);
+                launches[i] += count;
+            }
+        }
+
+        private long revenue(int fromYear, int toYear) {
+            return revenue[index(toYear + 1)] - revenue[index(fromYear)];
+        }
+
+        private long launches(int fromYear, int toYear) {
+            return launches[index(toYear + 1)] - launches[index(fromYear)];
+        }
+
+        // the prefix holding the years before the year, clamped to the covered years
+        private int index(int year) {
+            return Math.max(0, Math.min(years, year - firstYear));
+        }
+
+        private void resize(int oldFirstYear, int newFirstYear, int newYears) {
+            revenue = resize(revenue, oldFirstYear, newFirstYear, newYears);
+            launches = resize(launches, oldFirstYear, newFirstYear, newYears);
+        }
+
+        private long[] resize(long[] prefix, int oldFirstYear, int newFirstYear, int newYears) {
+            long[] resized = new long[newYears + 1];
+            int shift = oldFirstYear - newFirstYear;
+            for (int i = 1; i <= newYears; i++) {
+                resized[i] = prefix[Math.max(0, Math.min(prefix.length - 1, i - shift))];
+            }
+            return resized;
+        }
+    }
+
+    /**
+     * The revenue a launch brings to its provider in the year it launched.
+     */
+    static class Sale {
+        private static final Sale NONE = new Sale(null, 0, 0);
+
+        private final LaunchServiceProvider provider;
+
+        private final int year;
+
+        // in minor units
+        private final long price;
+
+        private Sale(LaunchServiceProvider provider, int year, long price) {
+            this.provider = provider;
+            this.year = year;
+            this.price = price;
+        }
+    }
+}
@@ -3,36 +3,276 @@ package rockets.mining;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rockets.dataaccess.DAO;
+import rockets.dataaccess.neo4j.Neo4jDAO;
+import rockets.metrics.Metrics;
+import rockets.model.Entity;
 import rockets.model.Launch;
 import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
 import rockets.model.Payloads;
 import rockets.model.Rocket;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import static java.math.BigDecimal.ROUND_HALF_DOWN;
-import static rockets.model.Launch.LaunchOutcome.FAILED;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
 
 public class RocketMiner {
     private static Logger logger = LoggerFactory.getLogger(RocketMiner.class);
 
+    /**
+     * Where aggregations are evaluated.
+     */
+    public enum ExecutionMode {
+        /**
+         * Load the entities through the DAO and aggregate them in memory.
+         */
+        IN_MEMORY,
+        /**
+         * Run the aggregation as a Cypher query inside Neo4j so that only the
+         * ranked rows are returned. Falls back to {@link #IN_MEMORY} when the
+         * DAO is not backed by Neo4j.
+         */
+        PUSH_DOWN,
+        /**
+         * Aggregate the flat launch rows projected by the DAO instead of
+         * whole launches, through a {@link LaunchColumnStore} loaded for each
+         * query. Only the launches, rockets and launch service providers a
+         * query returns are loaded as entities.
+         */
+        PROJECTION
+    }
+
+    // %s is replaced by the score expression of the requested ranking
+    private static final String MOST_RELIABLE_PROVIDERS_QUERY =
+            "MATCH (p:LaunchServiceProvider) " +
+            "OPTIONAL MATCH (l:Launch)-[:LAUNCH_SERVICE_PROVIDER]->(p) " +
+            "WITH p, count(l) AS launches, " +
+            "     sum(CASE WHEN l IS NULL OR l.launchOutcome = 'FAILED' THEN 0 ELSE 1 END) AS successes " +
+            "WITH p, launches, CASE WHEN launches = 0 THEN 0.0 ELSE toFloat(successes) / launches END AS rate " +
+            "RETURN p, CASE WHEN launches = 0 THEN -2.0 WHEN launches < $minLaunches THEN -1.0 ELSE %s END AS reliability " +
+            "ORDER BY reliability DESC, id(p) " +
+            "LIMIT $k";
+
+    private static final String SUCCESS_RATE_SCORE = "rate";
+
+    private static final String WILSON_LOWER_BOUND_SCORE =
+            "(rate + $z * $z / (2 * launches) - $z * sqrt((rate * (1 - rate) + $z * $z / (4 * launches)) / launches)) " +
+            "/ (1 + $z * $z / launches)";
+
     private DAO dao;
 
+    private ExecutionMode executionMode = ExecutionMode.IN_MEMORY;
+
+    private LaunchColumnStore columnStore;
+
+    private MinerViews views;
+
+    private ForkJoinPool forkJoinPool;
+
+    private RevenueIndex revenueIndex;
+
+    private LaunchDateIndex dateIndex;
+
+    private OrbitDominanceIndex dominanceIndex;
+
+    private PayloadIndex payloadIndex;
+
+    private Metrics metrics;
+
     public RocketMiner(DAO dao) {
         this.dao = dao;
     }
 
-    static class ReliableServer{
-        // Record the number of successes
-        public BigDecimal success;
-        // Record the number of failures
-        public BigDecimal failed;
-        // Recording success rate
-        public BigDecimal percentage;
+    DAO getDao() {
+        return dao;
+    }
+
+    /**
+     * Starts a batch of queries that are answered together, from one load of
+     * the launches and one pass over them.
+     *
+     * @return an empty batch, to be filled and then run.
+     */
+    public MinerBatch batch() {
+        return new MinerBatch(this);
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        notNull(executionMode);
+        this.executionMode = executionMode;
+    }
+
+    public LaunchColumnStore getColumnStore() {
+        return columnStore;
+    }
+
+    /**
+     * Answers the queries from a column store instead of loading entities
+     * through the DAO. The store is a snapshot: writes made after it was
+     * loaded are not seen until a new store is set.
+     *
+     * @param columnStore the store to be queried, or null to query the DAO again.
+     */
+    public void setColumnStore(LaunchColumnStore columnStore) {
+        this.columnStore = columnStore;
+    }
+
+    // the column store to answer from, if any
+    private LaunchColumnStore columns() {
+        if(columnStore!=null){
+            return columnStore;
+        }
+        return executionMode==ExecutionMode.PROJECTION ? LaunchColumnStore.load(dao) : null;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Records the calls, rows and latency of each query. Queries that only
+     * delegate to another one, such as {@link #launchesInMonth(int, int)},
+     * are recorded as the query they delegate to.
+     *
+     * @param metrics the metrics to record to, or null to stop recording.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private <T> T measure(String operation, Supplier<T> query) {
+        Metrics metrics = this.metrics;
+        return metrics == null ? query.get() : metrics.measure(operation, query);
+    }
+
+    public MinerViews getViews() {
+        return views;
+    }
+
+    /**
+     * Answers the queries the views maintain from them, ahead of the column
+     * store and the DAO. Unlike a column store the views follow the writes
+     * made through the DAO they listen to.
+     *
+     * @param views the views to be queried, or null to stop using them.
+     */
+    public void setViews(MinerViews views) {
+        this.views = views;
+    }
+
+    public RevenueIndex getRevenueIndex() {
+        return revenueIndex;
+    }
+
+    /**
+     * Answers the revenue rankings from the index, ahead of the column store
+     * and the DAO.
+     *
+     * @param revenueIndex the index to be queried, or null to stop using it.
+     */
+    public void setRevenueIndex(RevenueIndex revenueIndex) {
+        this.revenueIndex = revenueIndex;
+    }
+
+    public LaunchDateIndex getDateIndex() {
+        return dateIndex;
+    }
+
+    /**
+     * Answers the queries on launch dates from the index, ahead of the column
+     * store and the DAO.
+     *
+     * @param dateIndex the index to be queried, or null to stop using it.
+     */
+    public void setDateIndex(LaunchDateIndex dateIndex) {
+        this.dateIndex = dateIndex;
+    }
+
+    public OrbitDominanceIndex getDominanceIndex() {
+        return dominanceIndex;
+    }
+
+    /**
+     * Answers the dominance queries from the index, ahead of the column store
+     * and the DAO.
+     *
+     * @param dominanceIndex the index to be queried, or null to stop using it.
+     */
+    public void setDominanceIndex(OrbitDominanceIndex dominanceIndex) {
+        this.dominanceIndex = dominanceIndex;
+    }
+
+    public PayloadIndex getPayloadIndex() {
+        return payloadIndex;
+    }
+
+    /**
+     * Answers the payload queries from the index, ahead of the column store
+     * and the DAO.
+     *
+     * @param payloadIndex the index to be queried, or null to stop using it.
+     */
+    public void setPayloadIndex(PayloadIndex payloadIndex) {
+        this.payloadIndex = payloadIndex;
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    /**
+     * Aggregates the loaded entities in parallel on the given pool. The
+     * launches are split between the workers of the pool, each of which builds
+     * its own partial aggregate; the partial aggregates are then merged in
+     * launch order, so the results, ties included, are the same as in
+     * sequential mode.
+     *
+     * @param forkJoinPool the pool to run on, or null to aggregate sequentially.
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * Runs the collector over the entities of a class as the DAO streams them,
+     * on the fork-join pool when one is set.
+     */
+    <T extends Entity, R> R collect(Class<T> clazz, Collector<? super T, ?, R> collector) {
+        try(Stream<T> entities = dao.stream(clazz)){
+            if(forkJoinPool==null){
+                return entities.collect(collector);
+            }
+            // a parallel stream started from a task of the pool runs on the workers of that pool
+            return forkJoinPool.submit(() -> entities.parallel().collect(collector)).join();
+        }
+    }
+
+    /**
+     * Passes to the downstream collector only the elements that match the filter.
+     */
+    static <T, A, R> Collector<T, A, R> filtering(Predicate<? super T> filter, Collector<? super T, A, R> downstream) {
+        BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+        return Collector.of(downstream.supplier(), (a, t) -> {
+            if(filter.test(t)){
+                accumulator.accept(a, t);
+            }
+        }, downstream.combiner(), downstream.finisher(),
+                downstream.characteristics().toArray(new Collector.Characteristics[0]));
     }
 
     /**
@@ -44,26 +284,34 @@ public class RocketMiner {
      */
     public List<Rocket> mostLaunchedRockets(int k) {
         logger.info("Returns the top "+k+" most active rockets, as measured by number of completed launches.");
-        // get the lauch list from the database
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        // get the rocket list from the database
-        Collection<Rocket> rockets = dao.loadAll(Rocket.class);
-        //Calculate the number of launches per rocket from the launch list and rank them in reverse order
-        List<Rocket> result = launches.stream().map(s->s.getLaunchVehicle())
-                .collect(Collectors.groupingBy(s->s,Collectors.counting()))
-                .entrySet().stream().sorted(new Comparator<Map.Entry<Rocket, Long>>() {
-                    @Override
-                    public int compare(Map.Entry<Rocket, Long> o1, Map.Entry<Rocket, Long> o2) {
-                        return (int)(o2.getValue()-o1.getValue());
-                    }
-                }).map(s->s.getKey()).collect(Collectors.toList());
-        //Insert rockets that are not in the answer list at the end of the list.
-        for(Rocket r:rockets){
-            if(!result.contains(r)){
-                result.add(r);
+        return measure("RocketMiner.mostLaunchedRockets", () -> {
+            if(views!=null){
+                return views.mostLaunchedRockets(k);
             }
+            LaunchColumnStore columns=columns();
+            if(columns!=null){
+                return columns.mostLaunchedRockets(k);
+            }
+            // get the rocket list from the database
+            Collection<Rocket> rockets = dao.loadAll(Rocket.class);
+            return rankRockets(collect(Launch.class, countLaunchesByRocket()), rockets, k);
+        });
+    }
+
+    /**
+     * Counts the launches of each rocket, in order of first appearance.
+     */
+    static Collector<Launch, ?, Map<Rocket, Long>> countLaunchesByRocket() {
+        return Collectors.groupingBy(s->s.getLaunchVehicle(), LinkedHashMap::new, Collectors.counting());
+    }
+
+    static List<Rocket> rankRockets(Map<Rocket, Long> launchCounts, Collection<Rocket> rockets, int k) {
+        //Rockets that never launched rank after all launched rockets, in the order they were loaded
+        for(Rocket r:rockets){
+            launchCounts.putIfAbsent(r, 0L);
         }
-        return result.stream().limit(k).collect(Collectors.toList());
+        return TopK.select(launchCounts.entrySet(), k, Map.Entry.<Rocket, Long>comparingByValue().reversed())
+                .stream().map(s->s.getKey()).collect(Collectors.toList());
     }
 
     /**
@@ -71,64 +319,85 @@ public class RocketMiner {
      * <p>
      * Returns the top-k most reliable launch service providers as measured
      * by percentage of successful launches.
+     * <p>
+     * In {@link ExecutionMode#PUSH_DOWN} mode the ranking runs inside Neo4j;
+     * providers with the same percentage may then come back in a different
+     * order than in memory.
      *
      * @param k the number of launch service providers to be returned.
      * @return the list of k most reliable ones.
      */
     public List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k) {
-        logger.info("Returns the top "+k+" most reliable launch service providers as measured by percentage of successful launches.");
-        //get the lauch list from the database
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        // get the launch service provider list from the database
-        Collection<LaunchServiceProvider> lsps = dao.loadAll(LaunchServiceProvider.class);
-        //Define a Hashmap and use the helper class ReliableServer to record the number of successful and failed launches
-        // and the success rate of each service provider
-        HashMap<LaunchServiceProvider,ReliableServer> reliableServers = new HashMap<LaunchServiceProvider,ReliableServer>();
-        for(Launch l:launches){
-            // This provider has already appeared in previous records
-            if(reliableServers.containsKey(l.getLaunchServiceProvider())) {
-                //ReliableServer Get ReliableServer from the provider
-                ReliableServer oldValue = reliableServers.get(l.getLaunchServiceProvider());
-                //Update the provider's ReliableServer based on whether the current traversal launch failed or succeeded
-                if(l.getLaunchOutcome()==FAILED){
-                    oldValue.failed = oldValue.failed.add(new BigDecimal(1));
-                }else{
-                    oldValue.success = oldValue.success.add(new BigDecimal(1));
-                }
-                //Computing Service Provider's Current Launch Success Rate
-                oldValue.percentage = oldValue.success.divide(oldValue.failed.add(oldValue.success),10,ROUND_HALF_DOWN);
-                reliableServers.replace(l.getLaunchServiceProvider(),oldValue);
-            }else{
-                //Initialize ReliableServer of the current service provider based on the success or failure of this launch
-                ReliableServer server = new ReliableServer();
-                if(l.getLaunchOutcome()==FAILED){
-                    server.failed = new BigDecimal(1);
-                    server.success = new BigDecimal(0);
-                    server.percentage = new BigDecimal(1);
-                }else{
-                    server.failed = new BigDecimal(0);
-                    server.success = new BigDecimal(1);
-                    server.percentage = new BigDecimal(0);
-                }
-                reliableServers.put(l.getLaunchServiceProvider(),server);
+        return mostReliableLaunchServiceProviders(k, ReliabilityRanking.SUCCESS_RATE, 1);
+    }
+
+    /**
+     * Returns the top-k most reliable launch service providers under the given
+     * ranking. Providers with fewer than minLaunches launches are ranked after
+     * all others, in the order they were loaded.
+     *
+     * @param k the number of launch service providers to be returned.
+     * @param ranking how providers are scored.
+     * @param minLaunches the number of launches a provider needs to be ranked.
+     * @return the list of k most reliable ones.
+     */
+    public List<LaunchServiceProvider> mostReliableLaunchServiceProviders(int k, ReliabilityRanking ranking, long minLaunches) {
+        logger.info("Returns the top "+k+" most reliable launch service providers by "+ranking+" with at least "+minLaunches+" launches.");
+        return measure("RocketMiner.mostReliableLaunchServiceProviders", () -> {
+            notNull(ranking);
+            if(views!=null && ranking==ReliabilityRanking.SUCCESS_RATE && minLaunches<=1){
+                return views.mostReliableLaunchServiceProviders(k);
             }
-        }
-        //Ranking of launching service providers according to the success rate of launching
-        List<Map.Entry<LaunchServiceProvider,ReliableServer>> list = new ArrayList<Map.Entry<LaunchServiceProvider,ReliableServer>>(reliableServers.entrySet());
-        Collections.sort(list, new Comparator<Map.Entry<LaunchServiceProvider, ReliableServer>>() {
-            @Override
-            public int compare(Map.Entry<LaunchServiceProvider, ReliableServer> o1, Map.Entry<LaunchServiceProvider, ReliableServer> o2) {
-                return o2.getValue().percentage.subtract(o1.getValue().percentage).compareTo(BigDecimal.ZERO);
+            LaunchColumnStore columns=columns();
+            if(columns!=null){
+                return columns.mostReliableLaunchServiceProviders(k, ranking, minLaunches);
             }
+            if(executionMode==ExecutionMode.PUSH_DOWN && dao instanceof Neo4jDAO){
+                return pushDownMostReliableLaunchServiceProviders(k, ranking, minLaunches);
+            }
+            // get the launch service provider list from the database
+            Collection<LaunchServiceProvider> lsps = dao.loadAll(LaunchServiceProvider.class);
+            return rankByReliability(collect(Launch.class, countOutcomesByProvider()), lsps, k, ranking, minLaunches);
         });
-        List<LaunchServiceProvider> result = list.stream().map(a->a.getKey()).collect(Collectors.toList());
-        //Insert a service provider that is not in the result list at the end of the queue
+    }
+
+    /**
+     * Counts the successful and failed launches of each service provider, the
+     * ratio is only computed once at the end.
+     */
+    static Collector<Launch, ?, Map<LaunchServiceProvider, ReliabilityCounter>> countOutcomesByProvider() {
+        return Collectors.groupingBy(l->l.getLaunchServiceProvider(), LinkedHashMap::new,
+                Collector.of(ReliabilityCounter::new, (c,l)->c.record(l.getLaunchOutcome()), (a,b)->{a.merge(b);return a;}));
+    }
+
+    static List<LaunchServiceProvider> rankByReliability(Map<LaunchServiceProvider, ReliabilityCounter> counters,
+            Collection<LaunchServiceProvider> lsps, int k, ReliabilityRanking ranking, long minLaunches) {
+        //Score the service providers with enough launches, the others are ranked last
+        Map<LaunchServiceProvider,Double> scores = new LinkedHashMap<LaunchServiceProvider,Double>();
+        for(Map.Entry<LaunchServiceProvider,ReliabilityCounter> e:counters.entrySet()){
+            ReliabilityCounter counter = e.getValue();
+            scores.put(e.getKey(), counter.getLaunches()>=minLaunches ? ranking.score(counter) : null);
+        }
         for(LaunchServiceProvider p:lsps){
-            if(!result.contains(p)) {
-                result.add(p);
-            }
+            scores.putIfAbsent(p, null);
         }
-        return result.stream().limit(k).collect(Collectors.toList());
+        return TopK.select(scores.entrySet(), k,
+                Map.Entry.<LaunchServiceProvider,Double>comparingByValue(Comparator.nullsLast(Comparator.reverseOrder())))
+                .stream().map(a->a.getKey()).collect(Collectors.toList());
+    }
+
+    private List<LaunchServiceProvider> pushDownMostReliableLaunchServiceProviders(int k, ReliabilityRanking ranking, long minLaunches) {
+        isTrue(k >= 0, "k cannot be negative");
+        Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("k", k);
+        parameters.put("minLaunches", minLaunches);
+        parameters.put("z", ReliabilityRanking.WILSON_Z);
+        String score = ranking==ReliabilityRanking.WILSON_LOWER_BOUND ? WILSON_LOWER_BOUND_SCORE : SUCCESS_RATE_SCORE;
+        List<LaunchServiceProvider> result = new ArrayList<LaunchServiceProvider>(k);
+        for(Map<String, Object> row:((Neo4jDAO) dao).query(String.format(MOST_RELIABLE_PROVIDERS_QUERY, score), parameters)){
+            result.add((LaunchServiceProvider) row.get("p"));
+        }
+        return result;
     }
 
     /**
@@ -140,9 +409,67 @@ public class RocketMiner {
      */
     public List<Launch> mostRecentLaunches(int k) {
         logger.info("find most recent " + k + " launches");
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        Comparator<Launch> launchDateComparator = (a, b) -> -a.getLaunchDate().compareTo(b.getLaunchDate());
-        return launches.stream().sorted(launchDateComparator).limit(k).collect(Collectors.toList());
+        return measure("RocketMiner.mostRecentLaunches", () -> {
+            if(dateIndex!=null){
+                return dateIndex.mostRecentLaunches(k);
+            }
+            LaunchColumnStore columns=columns();
+            if(columns!=null){
+                return columns.mostRecentLaunches(k);
+            }
+            Comparator<Launch> launchDateComparator = (a, b) -> -a.getLaunchDate().compareTo(b.getLaunchDate());
+            return collect(Launch.class, TopK.collector(k, launchDateComparator));
+        });
+    }
+
+    /**
+     * Returns the launches between two dates, both included, ordered by
+     * launch date.
+     *
+     * @param from the first launch date
+     * @param to the last launch date
+     * @return the launches of the window, oldest first.
+     */
+    public List<Launch> launchesBetween(LocalDate from, LocalDate to) {
+        logger.info("find launches from " + from + " to " + to);
+        return measure("RocketMiner.launchesBetween", () -> {
+            notNull(from);
+            notNull(to);
+            isTrue(!from.isAfter(to), "from cannot be after to");
+            if(dateIndex!=null){
+                return dateIndex.launchesBetween(from, to);
+            }
+            List<Launch> result = collect(Launch.class, filtering(
+                    l->!l.getLaunchDate().isBefore(from) && !l.getLaunchDate().isAfter(to), Collectors.toList()));
+            result.sort(Comparator.comparing(Launch::getLaunchDate));
+            return result;
+        });
+    }
+
+    /**
+     * Returns the launches of a quarter, ordered by launch date.
+     *
+     * @param year the year
+     * @param quarter the quarter of the year, from 1 to 4
+     * @return the launches of the quarter, oldest first.
+     */
+    public List<Launch> launchesInQuarter(int year, int quarter) {
+        isTrue(quarter>=1 && quarter<=4, "quarter must be between 1 and 4");
+        LocalDate from = LocalDate.of(year, 3*quarter-2, 1);
+        return launchesBetween(from, from.plusMonths(3).minusDays(1));
+    }
+
+    /**
+     * Returns the launches of a month, ordered by launch date.
+     *
+     * @param year the year
+     * @param month the month of the year, from 1 to 12
+     * @return the launches of the month, oldest first.
+     */
+    public List<Launch> launchesInMonth(int year, int month) {
+        isTrue(month>=1 && month<=12, "month must be between 1 and 12");
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return launchesBetween(yearMonth.atDay(1), yearMonth.atEndOfMonth());
     }
 
     /**
@@ -151,20 +478,37 @@ public class RocketMiner {
      * Returns the dominant country who has the most launched rockets in an orbit.
      *
      * @param orbit the orbit
-     * @return the country who sends the most launched rockets in an orbit.
+     * @return the country who sends the most launched rockets in an orbit,
+     * or null if no launch went to the orbit.
      */
     public String dominantCountry(String orbit) {
         logger.info("Returns the dominant country who has the most launched rockets in "+orbit);
-        Collection<Launch> launches =  dao.loadAll(Launch.class);
-        return launches.stream().filter(a->a.getOrbit().equals(orbit)).map(s->s.getLaunchServiceProvider().getCountry())
-                .collect(Collectors.groupingBy(s->s,Collectors.counting()))
-                .entrySet().stream().sorted(new Comparator<Map.Entry<String, Long>>() {
-                    @Override
-                    public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
-                        return (int)(o2.getValue()-o1.getValue());
-                    }
-                }).collect(Collectors.toList()).get(0).getKey();
+        return measure("RocketMiner.dominantCountry", () -> {
+            if(views!=null){
+                return views.dominantCountry(orbit);
+            }
+            if(dominanceIndex!=null){
+                return dominanceIndex.dominantCountry(orbit);
+            }
+            LaunchColumnStore columns=columns();
+            if(columns!=null){
+                return columns.dominantCountry(orbit);
+            }
+            return mostOf(collect(Launch.class, countLaunchesByCountry(orbit)));
+        });
+    }
 
+    static Collector<Launch, ?, Map<String, Long>> countLaunchesByCountry(String orbit) {
+        return filtering(a->a.getOrbit().equals(orbit),
+                Collectors.groupingBy(s->s.getLaunchServiceProvider().getCountry(), LinkedHashMap::new, Collectors.counting()));
+    }
+
+    /**
+     * @return the key with the highest value, the first one seen on ties, or null if there is none.
+     */
+    static <K, V extends Comparable<? super V>> K mostOf(Map<K, V> values) {
+        List<Map.Entry<K, V>> most = TopK.select(values.entrySet(), 1, Map.Entry.<K, V>comparingByValue().reversed());
+        return most.isEmpty() ? null : most.get(0).getKey();
     }
 
     /**
@@ -177,13 +521,22 @@ public class RocketMiner {
      */
     public List<Launch> mostExpensiveLaunches(int k) {
         logger.info("Returns the top "+k+" most expensive launches.");
-        Collection<Launch> launches =  dao.loadAll(Launch.class);
-        return launches.stream().sorted(new Comparator<Launch>() {
+        return measure("RocketMiner.mostExpensiveLaunches", () -> {
+            LaunchColumnStore columns=columns();
+            if(columns!=null){
+                return columns.mostExpensiveLaunches(k);
+            }
+            return collect(Launch.class, mostExpensive(k));
+        });
+    }
+
+    static Collector<Launch, ?, List<Launch>> mostExpensive(int k) {
+        return TopK.collector(k, new Comparator<Launch>() {
             @Override
             public int compare(Launch o1, Launch o2) {
-                return o2.getPrice().subtract(o1.getPrice()).compareTo(BigDecimal.ZERO);
+                return o2.getPriceMoney().compareTo(o1.getPriceMoney());
             }
-        }).limit(k).collect(Collectors.toList());
+        });
     }
 
     /**
@@ -198,33 +551,76 @@ public class RocketMiner {
      */
     public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int year) {
         logger.info("Returns a list of launch service provider that has the top "+k+" highest sales revenue.");
-        Collection<Launch> launches = dao.loadAll(Launch.class);
-        Collection<LaunchServiceProvider> lsps = dao.loadAll(LaunchServiceProvider.class);
-        HashMap<LaunchServiceProvider,BigDecimal> result = new HashMap<LaunchServiceProvider,BigDecimal>();
-        //go through launch record which launch date equals year
-        for(Launch l:launches.stream().filter(s->s.getLaunchDate().getYear()==year).collect(Collectors.toList())){
-            //Calculate the sales of each service provider
-            if(result.containsKey(l.getLaunchServiceProvider())){
-                BigDecimal oldValue = result.get(l.getLaunchServiceProvider());
-                result.replace(l.getLaunchServiceProvider(),oldValue.add(l.getPrice()));
-            }else{
-                result.put(l.getLaunchServiceProvider(),l.getPrice());
+        return measure("RocketMiner.highestRevenueLaunchServiceProviders", () -> {
+            if(views!=null){
+                return views.highestRevenueLaunchServiceProviders(k, year);
             }
-        }
-        //Sort service providers according to sales
-        List<LaunchServiceProvider> list =  result.entrySet().stream().sorted(new Comparator<Map.Entry<LaunchServiceProvider, BigDecimal>>() {
-            @Override
-            public int compare(Map.Entry<LaunchServiceProvider, BigDecimal> o1, Map.Entry<LaunchServiceProvider, BigDecimal> o2) {
-                return o2.getValue().subtract(o1.getValue()).compareTo(BigDecimal.ZERO);
+            if(revenueIndex!=null){
+                return revenueIndex.highestRevenueLaunchServiceProviders(k, year);
             }
-        }).map(s->s.getKey()).collect(Collectors.toList());
-        //Insert the non-launched launch service provider at the end of the result list
-        for(LaunchServiceProvider p:lsps){
-            if(!list.contains(p)) {
-                list.add(p);
+            LaunchColumnStore columns=columns();
+            if(columns!=null){
+                return columns.highestRevenueLaunchServiceProviders(k, year);
+            }
+            Collection<LaunchServiceProvider> lsps = dao.loadAll(LaunchServiceProvider.class);
+            return rankByRevenue(collect(Launch.class, revenueByProvider(year, year)), lsps, k);
+        });
+    }
+
+    /**
+     * Returns a list of launch service provider that has the top-k highest
+     * sales revenue over a range of years.
+     *
+     * @param k the number of launch service provider.
+     * @param fromYear the first year of the range
+     * @param toYear the last year of the range, included
+     * @return the list of k launch service providers who has the highest sales revenue.
+     */
+    public List<LaunchServiceProvider> highestRevenueLaunchServiceProviders(int k, int fromYear, int toYear) {
+        logger.info("Returns a list of launch service provider that has the top "+k+" highest sales revenue from "+fromYear+" to "+toYear+".");
+        return measure("RocketMiner.highestRevenueLaunchServiceProviders", () -> {
+            isTrue(fromYear<=toYear, "fromYear cannot be after toYear");
+            if(revenueIndex!=null){
+                return revenueIndex.highestRevenueLaunchServiceProviders(k, fromYear, toYear);
             }
+            Collection<LaunchServiceProvider> lsps = dao.loadAll(LaunchServiceProvider.class);
+            return rankByRevenue(collect(Launch.class, revenueByProvider(fromYear, toYear)), lsps, k);
+        });
+    }
+
+    /**
+     * Returns a list of launch service provider that has the top-k highest
+     * sales revenue over the given number of years up to a year.
+     *
+     * @param k the number of launch service provider.
+     * @param years the number of years
+     * @param lastYear the last year, included
+     * @return the list of k launch service providers who has the highest sales revenue.
+     */
+    public List<LaunchServiceProvider> highestTrailingRevenueLaunchServiceProviders(int k, int years, int lastYear) {
+        isTrue(years>0, "years must be positive");
+        return highestRevenueLaunchServiceProviders(k, lastYear-years+1, lastYear);
+    }
+
+    /**
+     * Calculates the sales of each service provider from the launches of the years.
+     */
+    static Collector<Launch, ?, Map<LaunchServiceProvider, Money>> revenueByProvider(int fromYear, int toYear) {
+        return filtering(l->l.getLaunchDate().getYear()>=fromYear && l.getLaunchDate().getYear()<=toYear,
+                Collectors.groupingBy(l->l.getLaunchServiceProvider(), LinkedHashMap::new,
+                        Collector.of(MoneySum::new, (sum,l)->sum.add(l.getPriceMoney()), MoneySum::merge, MoneySum::toMoney)));
+    }
+
+    static List<LaunchServiceProvider> rankByRevenue(Map<LaunchServiceProvider, Money> result,
+            Collection<LaunchServiceProvider> lsps, int k) {
+        //The non-launched launch service providers are ranked after all others
+        for(LaunchServiceProvider p:lsps){
+            result.putIfAbsent(p, null);
         }
-        return list.stream().limit(k).collect(Collectors.toList());
+        //Rank service providers according to sales
+        return TopK.select(result.entrySet(), k,
+                Map.Entry.<LaunchServiceProvider,Money>comparingByValue(Comparator.nullsLast(Comparator.reverseOrder())))
+                .stream().map(s->s.getKey()).collect(Collectors.toList());
     }
 
 
@@ -236,19 +632,70 @@ public class RocketMiner {
      * Returns the dominant launch server provider who has the most launched rockets in an orbit.
      *
      * @param orbit the orbit
-     * @return the dominant launch server provider who has the most launched rockets in an orbit.
+     * @return the dominant launch server provider who has the most launched rockets in an orbit,
+     * or null if no launch went to the orbit.
      */
     public LaunchServiceProvider dominantLaunchServiceProvider(String orbit){
         logger.info("Returns the launch server provider who has the most launched rockets in "+orbit);
-        Collection<Launch> launches =  dao.loadAll(Launch.class);
-        return launches.stream().filter(a->a.getOrbit().equals(orbit)).map(s->s.getLaunchServiceProvider())
-                .collect(Collectors.groupingBy(s->s,Collectors.counting()))
-                .entrySet().stream().sorted(new Comparator<Map.Entry<LaunchServiceProvider, Long>>() {
-                    @Override
-                    public int compare(Map.Entry<LaunchServiceProvider, Long> o1, Map.Entry<LaunchServiceProvider, Long> o2) {
-                        return (int)(o2.getValue()-o1.getValue());
-                    }
-                }).collect(Collectors.toList()).get(0).getKey();
+        return measure("RocketMiner.dominantLaunchServiceProvider", () -> {
+            if(dominanceIndex!=null){
+                return dominanceIndex.dominantLaunchServiceProvider(orbit);
+            }
+            LaunchColumnStore columns=columns();
+            if(columns!=null){
+                return columns.dominantLaunchServiceProvider(orbit);
+            }
+            Map<LaunchServiceProvider, Long> launchCounts = collect(Launch.class, filtering(a->a.getOrbit().equals(orbit),
+                    Collectors.groupingBy(s->s.getLaunchServiceProvider(), LinkedHashMap::new, Collectors.counting())));
+            return mostOf(launchCounts);
+        });
+    }
+
+    /**
+     * Returns the dominant country and launch service provider of every orbit,
+     * from one pass over the launches.
+     *
+     * @return the dominance of each orbit, by orbit in order of first launch.
+     */
+    public Map<String, OrbitDominance> dominanceTable(){
+        logger.info("Returns the dominant country and launch service provider of every orbit");
+        return measure("RocketMiner.dominanceTable", () -> {
+            if(dominanceIndex!=null){
+                return dominanceIndex.dominanceTable();
+            }
+            Map<String, OrbitCounts> orbits = collect(Launch.class, Collectors.groupingBy(l->l.getOrbit(), LinkedHashMap::new,
+                    Collector.of(OrbitCounts::new, OrbitCounts::add, OrbitCounts::merge)));
+            Map<String, OrbitDominance> table = new LinkedHashMap<String, OrbitDominance>();
+            for(Map.Entry<String, OrbitCounts> e:orbits.entrySet()){
+                OrbitCounts counts = e.getValue();
+                table.put(e.getKey(), new OrbitDominance(e.getKey(), mostOf(counts.countries), mostOf(counts.providers), counts.launches));
+            }
+            return table;
+        });
+    }
+
+    /**
+     * The launches to one orbit counted by country and by service provider, in order of first appearance.
+     */
+    private static class OrbitCounts {
+        private final Map<String, Long> countries = new LinkedHashMap<String, Long>();
+
+        private final Map<LaunchServiceProvider, Long> providers = new LinkedHashMap<LaunchServiceProvider, Long>();
+
+        private long launches;
+
+        private void add(Launch l){
+            countries.merge(l.getLaunchServiceProvider().getCountry(), 1L, Long::sum);
+            providers.merge(l.getLaunchServiceProvider(), 1L, Long::sum);
+            launches++;
+        }
+
+        private OrbitCounts merge(OrbitCounts other){
+            other.countries.forEach((k, v) -> countries.merge(k, v, Long::sum));
+            other.providers.forEach((k, v) -> providers.merge(k, v, Long::sum));
+            launches += other.launches;
+            return this;
+        }
     }
 
     /**
@@ -258,74 +705,56 @@ public class RocketMiner {
      */
     public List<Launch> lightestPayloadsLauchInLEO(int k){
         logger.info("Returns the lauch which payloads is the top "+k+" lightest");
-        Collection<Launch> launches =  dao.loadAll(Launch.class);
-        HashMap<Launch,Integer> launchPayloadsInLEO = new HashMap<Launch,Integer>();
-        for(Launch l:launches){
-            if(launchPayloadsInLEO.containsKey(l)){
-                int oldValue = launchPayloadsInLEO.get(l);
-                for(Payloads p:l.getPayload()){
-                    oldValue+=p.getMassToLEO();
-                }
-                launchPayloadsInLEO.replace(l,oldValue);
-            }else{
-                int newValue = 0;
-                for(Payloads p:l.getPayload()){
-                    newValue+=p.getMassToLEO();
-                }
-                launchPayloadsInLEO.put(l,newValue);
-            }
-        }
-        List<Map.Entry<Launch,Integer>> list = new ArrayList<Map.Entry<Launch,Integer>>(launchPayloadsInLEO.entrySet());
-        return list.stream().sorted(new Comparator<Map.Entry<Launch, Integer>>() {
-            @Override
-            public int compare(Map.Entry<Launch, Integer> o1, Map.Entry<Launch, Integer> o2) {
-                return o1.getValue()-o2.getValue();
+        return measure("RocketMiner.lightestPayloadsLauchInLEO", () -> {
+            LaunchColumnStore columns=columns();
+            if(columns!=null){
+                return columns.lightestPayloadsLauchInLEO(k);
             }
-        }).map(s->s.getKey()).limit(k).collect(Collectors.toList());
+            //Launches with the same mass are ranked in launch order
+            return collect(Launch.class, TopK.collector(k, Comparator.comparingInt(Launch::getPayloadMassToLEO)));
+        });
     }
 
     /**
      * return the country who sends the most payloads in an orbit.
-     * @param orbit the orbit
-     * @return the country who sends the most payloads in an orbit.
+     * @param orbit the orbit, LEO, GTO or other in any case
+     * @return the country who sends the most payloads in an orbit,
+     * or null if there is no launch.
      */
     public String dominantCountryInPayLoads(String orbit){
         logger.info("Returns the dominant country who has the most payloads in "+orbit);
-        Collection<Launch> launches =  dao.loadAll(Launch.class);
-        //Define a HashMap for storing country names and load
-        HashMap<String,Integer> payloadInCountry = new HashMap<String,Integer>();
-        for(Launch l:launches) {
-            if(payloadInCountry.containsKey(l.getLaunchServiceProvider().getCountry())){
-                int oldValue = payloadInCountry.get(l.getLaunchServiceProvider().getCountry());
-                for(Payloads pay : l.getPayload()){
-                    if("leo".equals(orbit.toLowerCase())) {
-                        oldValue += pay.getMassToLEO();
-                    }else if("gto".equals(orbit.toLowerCase())){
-                        oldValue += pay.getMassToGTO();
-                    }else if("other".equals(orbit.toLowerCase())) {
-                        oldValue += pay.getMassToOther();
-                    }
-                }
-                payloadInCountry.replace(l.getLaunchServiceProvider().getCountry(),oldValue);
-            }else{
-                int newValue = 0;
-                for(Payloads pay : l.getPayload()){
-                    if("leo".equals(orbit.toLowerCase())) {
-                        newValue += pay.getMassToLEO();
-                    }else if("gto".equals(orbit.toLowerCase())){
-                        newValue += pay.getMassToGTO();
-                    }else if("other".equals(orbit.toLowerCase())) {
-                        newValue += pay.getMassToOther();
-                    }
-                }
-                payloadInCountry.put(l.getLaunchServiceProvider().getCountry(),newValue);
+        return measure("RocketMiner.dominantCountryInPayLoads", () -> {
+            if(payloadIndex!=null){
+                return payloadIndex.dominantCountryInPayLoads(orbit);
             }
-        }
-        return payloadInCountry.entrySet().stream().sorted(new Comparator<Map.Entry<String, Integer>>() {
-            @Override
-            public int compare(Map.Entry<String, Integer> o1, Map.Entry<String, Integer> o2) {
-                return o2.getValue()-o1.getValue();
+            LaunchColumnStore columns=columns();
+            if(columns!=null){
+                return columns.dominantCountryInPayLoads(orbit);
+            }
+            PayloadOrbit payloadOrbit = PayloadOrbit.of(orbit);
+            PayloadMatrix matrix = collectPayloadMatrix();
+            if(payloadOrbit==null){
+                //No payload goes to any other orbit, so every country ties and the first one wins
+                return matrix.getCountries().isEmpty() ? null : matrix.getCountries().get(0);
             }
-        }).map(s->s.getKey()).collect(Collectors.toList()).get(0);
+            return matrix.dominantCountry(payloadOrbit);
+        });
+    }
+
+    /**
+     * Returns the payload mass of every country to every orbit, from one pass over the launches.
+     * @return the country-by-orbit payload matrix.
+     */
+    public PayloadMatrix payloadMatrix(){
+        logger.info("Returns the payload mass of every country in every orbit");
+        return measure("RocketMiner.payloadMatrix", this::collectPayloadMatrix);
+    }
+
+    // unmeasured, so that a query built on the matrix is recorded once, as itself
+    private PayloadMatrix collectPayloadMatrix() {
+        if(payloadIndex!=null){
+            return payloadIndex.payloadMatrix();
+        }
+        return collect(Launch.class, PayloadMatrix.collector());
     }
 }
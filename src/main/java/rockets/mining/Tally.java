@@ -0,0 +1,19 @@
+package rockets.mining;
+
+/**
+ * A mutable count, for aggregates kept in a {@link RankedView}.
+ */
+class Tally {
+    long value;
+
+    boolean isEmpty() {
+        return value == 0;
+    }
+
+    /**
+     * Orders tallies from the highest count.
+     */
+    static int byValueDesc(Tally a, Tally b) {
+        return Long.compare(b.value, a.value);
+    }
+}
@@ -0,0 +1,219 @@
+package rockets.mining;
+
+import java.util.*;
+import java.util.stream.Collector;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Keeps the k best elements offered to it, as ranked by a comparator.
+ * <p>
+ * The comparator orders elements the same way a sort would: an element that
+ * compares lower ranks higher. Elements that compare equal keep the order in
+ * which they were offered, so the result is the same as a stable sort followed
+ * by {@code limit(k)}, but costs O(n log k) time and O(k) space.
+ *
+ * @param <T> the type of the ranked elements
+ */
+public class TopK<T> {
+    // the heap grows past this as elements are offered, so a huge k costs nothing up front
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int k;
+
+    private final Comparator<? super T> comparator;
+
+    // the worst of the kept elements sits at the head
+    private final PriorityQueue<Ranked<T>> heap;
+
+    private long sequence;
+
+    public TopK(int k, Comparator<? super T> comparator) {
+        isTrue(k >= 0, "k cannot be negative");
+        notNull(comparator);
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new PriorityQueue<>(Math.min(Math.max(1, k), INITIAL_CAPACITY), (a, b) -> compare(b, a));
+    }
+
+    /**
+     * Returns the k best elements of the given elements, best first.
+     *
+     * @param elements the candidates
+     * @param k the number of elements to be returned
+     * @param comparator the ranking order
+     * @return at most k elements, best first
+     */
+    public static <T> List<T> select(Iterable<? extends T> elements, int k, Comparator<? super T> comparator) {
+        TopK<T> topK = new TopK<>(k, comparator);
+        for (T element : elements) {
+            topK.offer(element);
+        }
+        return topK.toList();
+    }
+
+    /**
+     * Returns a collector of the k best elements, best first. Partial results
+     * of a parallel stream are merged in encounter order, so ties are broken
+     * the same way as in a sequential stream.
+     *
+     * @param k the number of elements to be returned
+     * @param comparator the ranking order
+     */
+    public static <T> Collector<T, TopK<T>, List<T>> collector(int k, Comparator<? super T> comparator) {
+        isTrue(k >= 0, "k cannot be negative");
+        return Collector.of(() -> new TopK<>(k, comparator), TopK::offer, TopK::merge, TopK::toList);
+    }
+
+    /**
+     * Returns the indices of the k smallest values, smallest first. Equal values
+     * keep the order of their indices.
+     *
+     * @param values the column to be ranked
+     * @param k the number of indices to be returned
+     * @return at most k indices into values
+     */
+    public static int[] smallest(int[] values, int k) {
+        return best(values.length, k, (a, b) -> Integer.compare(values[a], values[b]));
+    }
+
+    /**
+     * Returns the k best of the indices 0 to size - 1, best first, without
+     * boxing them. Indices that compare equal keep their order.
+     *
+     * @param size the number of ranked indices
+     * @param k the number of indices to be returned
+     * @param comparator the ranking order of two indices
+     * @return at most k indices, best first
+     */
+    public static int[] best(int size, int k, IndexComparator comparator) {
+        isTrue(k >= 0, "k cannot be negative");
+        notNull(comparator);
+        int kept = Math.min(k, size);
+        // the worst kept index sits at position 0
+        int[] heap = new int[kept];
+        int count = 0;
+        for (int i = 0; i < size && kept > 0; i++) {
+            if (count < kept) {
+                heap[count] = i;
+                siftUp(heap, count++, comparator);
+            } else if (comparator.compare(i, heap[0]) < 0) {
+                heap[0] = i;
+                siftDown(heap, count, comparator);
+            }
+        }
+        int[] result = new int[count];
+        for (int i = count - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i, comparator);
+        }
+        return result;
+    }
+
+    /**
+     * Offers the elements kept by another top-k, as if they were offered after
+     * the elements already offered to this one.
+     *
+     * @return this top-k
+     */
+    public TopK<T> merge(TopK<? extends T> other) {
+        for (T element : other.toList()) {
+            offer(element);
+        }
+        return this;
+    }
+
+    public void offer(T element) {
+        long offered = sequence++;
+        if (heap.size() < k) {
+            heap.add(new Ranked<>(element, offered));
+        } else if (k > 0 && comparator.compare(element, heap.peek().element) < 0) {
+            // an equal element offered later never displaces the head
+            heap.poll();
+            heap.add(new Ranked<>(element, offered));
+        }
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return the kept elements, best first.
+     */
+    public List<T> toList() {
+        List<Ranked<T>> ranked = new ArrayList<>(heap);
+        ranked.sort(this::compare);
+        List<T> result = new ArrayList<>(ranked.size());
+        for (Ranked<T> r : ranked) {
+            result.add(r.element);
+        }
+        return result;
+    }
+
+    private int compare(Ranked<T> a, Ranked<T> b) {
+        int result = comparator.compare(a.element, b.element);
+        return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+    }
+
+    // orders indices worst first, ties by index, largest first
+    private static boolean after(int a, int b, IndexComparator comparator) {
+        int result = comparator.compare(a, b);
+        return result != 0 ? result > 0 : a > b;
+    }
+
+    private static void siftUp(int[] heap, int position, IndexComparator comparator) {
+        int index = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!after(index, heap[parent], comparator)) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = index;
+    }
+
+    private static void siftDown(int[] heap, int size, IndexComparator comparator) {
+        if (size == 0) {
+            return;
+        }
+        int index = heap[0];
+        int position = 0;
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && after(heap[child + 1], heap[child], comparator)) {
+                child++;
+            }
+            if (!after(heap[child], index, comparator)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = index;
+    }
+
+    /**
+     * Compares two indices, the way a {@link Comparator} compares elements.
+     */
+    @FunctionalInterface
+    public interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    private static class Ranked<T> {
+        private final T element;
+
+        private final long sequence;
+
+        private Ranked(T element, long sequence) {
+            this.element = element;
+            this.sequence = sequence;
+        }
+    }
+}
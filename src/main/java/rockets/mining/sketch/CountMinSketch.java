@@ -0,0 +1,121 @@
+package rockets.mining.sketch;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * A Count-Min sketch: estimates how often each item was offered, in a fixed
+ * table of {@code depth} rows of {@code width} counters however many distinct
+ * items there are.
+ * <p>
+ * An estimate is never below the true count and, with probability
+ * {@link #getConfidence()}, exceeds it by at most {@link #getErrorBound()}.
+ * Sketches with the same dimensions and seed can be merged.
+ *
+ * @param <T> the type of the counted items
+ */
+public class CountMinSketch<T> {
+    private final int width;
+
+    private final int depth;
+
+    private final long seed;
+
+    private final long[] counts;
+
+    private long total;
+
+    public CountMinSketch(int width, int depth, long seed) {
+        isTrue(width > 0, "width must be positive");
+        isTrue(depth > 0, "depth must be positive");
+        this.width = width;
+        this.depth = depth;
+        this.seed = seed;
+        this.counts = new long[width * depth];
+    }
+
+    /**
+     * Sizes a sketch whose estimates exceed the true count by at most epsilon
+     * times the total count, with probability 1 - delta.
+     */
+    public static <T> CountMinSketch<T> withError(double epsilon, double delta, long seed) {
+        isTrue(epsilon > 0 && epsilon < 1, "epsilon must be between 0 and 1");
+        isTrue(delta > 0 && delta < 1, "delta must be between 0 and 1");
+        return new CountMinSketch<>((int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1 / delta)), seed);
+    }
+
+    public void add(T item) {
+        add(item, 1);
+    }
+
+    public void add(T item, long count) {
+        isTrue(count >= 0, "count cannot be negative");
+        long h = Hashing.hash(item, seed);
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + column(h, row)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * @return the estimated count of the item, never below its true count.
+     */
+    public long estimate(T item) {
+        long h = Hashing.hash(item, seed);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row * width + column(h, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Adds the counts of another sketch, as if its items had been offered to this one.
+     *
+     * @return this sketch
+     */
+    public CountMinSketch<T> merge(CountMinSketch<? extends T> other) {
+        isTrue(width == other.width && depth == other.depth && seed == other.seed,
+                "cannot merge sketches of different sizes or seeds");
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * @return the total count of all offered items.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return how much an estimate may exceed the true count, e / width times the total count.
+     */
+    public long getErrorBound() {
+        return (long) Math.ceil(Math.E / width * total);
+    }
+
+    /**
+     * @return the probability that an estimate is within the error bound, 1 - e^-depth.
+     */
+    public double getConfidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    // double hashing: the rows use the independent-enough functions h1 + row * h2
+    private int column(long h, int row) {
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
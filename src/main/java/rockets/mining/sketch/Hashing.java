@@ -0,0 +1,24 @@
+package rockets.mining.sketch;
+
+/**
+ * Spreads the hash code of an item over 64 bits, so that sketches built with
+ * the same seed place the same item in the same cells.
+ */
+final class Hashing {
+    private Hashing() {
+    }
+
+    /**
+     * @return a 64-bit hash of the item, or of null, under the seed.
+     */
+    static long hash(Object item, long seed) {
+        long h = (item == null ? 0 : item.hashCode()) + seed * 0x9E3779B97F4A7C15L;
+        // the finalizer of MurmurHash3, a bijection that mixes every input bit into every output bit
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,72 @@
+package rockets.mining.sketch;
+
+import java.util.Objects;
+
+/**
+ * An item reported by a {@link SpaceSaving} summary, with the bounds of its
+ * true count.
+ *
+ * @param <T> the type of the item
+ */
+public class HeavyHitter<T> {
+    private final T item;
+
+    private final long count;
+
+    private final long error;
+
+    public HeavyHitter(T item, long count, long error) {
+        this.item = item;
+        this.count = count;
+        this.error = error;
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * @return the estimated count, never below the true count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return how much the estimated count may exceed the true count.
+     */
+    public long getError() {
+        return error;
+    }
+
+    /**
+     * @return the least the true count can be.
+     */
+    public long getLowerBound() {
+        return count - error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HeavyHitter<?> that = (HeavyHitter<?>) o;
+        return count == that.count &&
+                error == that.error &&
+                Objects.equals(item, that.item);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(item, count, error);
+    }
+
+    @Override
+    public String toString() {
+        return "HeavyHitter{" +
+                "item=" + item +
+                ", count=" + count +
+                ", error=" + error +
+                '}';
+    }
+}
@@ -0,0 +1,101 @@
+package rockets.mining.sketch;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * A HyperLogLog estimate of the number of distinct items, kept in
+ * 2<sup>precision</sup> one-byte registers however many items there are.
+ * <p>
+ * The relative standard error of the estimate is {@link #getStandardError()},
+ * 1.04 / sqrt(2<sup>precision</sup>). Sketches with the same precision and
+ * seed can be merged.
+ */
+public class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+
+    private final long seed;
+
+    private final byte[] registers;
+
+    public HyperLogLog(int precision, long seed) {
+        isTrue(precision >= MIN_PRECISION && precision <= MAX_PRECISION,
+                "precision must be between %d and %d", MIN_PRECISION, MAX_PRECISION);
+        this.precision = precision;
+        this.seed = seed;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void offer(Object item) {
+        long h = Hashing.hash(item, seed);
+        int register = (int) (h >>> (64 - precision));
+        // the rank is the position of the first set bit after the register bits, the sentinel caps it
+        long rest = (h << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct items offered.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // linear counting is more accurate while many registers are empty
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Takes in the items of another sketch, as if they had been offered to this one.
+     *
+     * @return this sketch
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        isTrue(precision == other.precision && seed == other.seed,
+                "cannot merge sketches of different sizes or seeds");
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+        return this;
+    }
+
+    /**
+     * @return the relative standard error of the estimate.
+     */
+    public double getStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package rockets.mining.sketch;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * A Space-Saving summary of the most frequent items, kept in a fixed number of
+ * counters however many distinct items there are.
+ * <p>
+ * When the counters are full, a new item takes over the counter with the
+ * smallest count, and that count becomes the error of the new item. Every
+ * item whose true count is above {@link #getErrorBound()} is kept, and the
+ * count of a kept item exceeds its true count by at most its error. While
+ * there are fewer distinct items than counters, the counts are exact.
+ * <p>
+ * Summaries can be merged; the bounds of the merged summary are the sums of
+ * the bounds of its parts.
+ *
+ * @param <T> the type of the counted items
+ */
+public class SpaceSaving<T> {
+    private static final Comparator<Counter<?>> HIGHEST_FIRST =
+            Comparator.<Counter<?>>comparingLong(c -> -c.count).thenComparingLong(c -> c.sequence);
+
+    private final int capacity;
+
+    private final Map<T, Counter<T>> counters = new HashMap<>();
+
+    // a binary min-heap of the counters, where each counter knows its position:
+    // smallest count first and, among equal counts, the newest, so that the
+    // counter to be replaced sits at the root
+    private final Counter<T>[] heap;
+
+    private long total;
+
+    private long sequence;
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        isTrue(capacity > 0, "capacity must be positive");
+        this.capacity = capacity;
+        this.heap = (Counter<T>[]) new Counter<?>[capacity];
+    }
+
+    public void offer(T item) {
+        offer(item, 1);
+    }
+
+    public void offer(T item, long count) {
+        isTrue(count >= 0, "count cannot be negative");
+        total += count;
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            counter.count += count;
+            siftDown(counter.position);
+        } else if (counters.size() < capacity) {
+            add(new Counter<>(item, count, 0, sequence++));
+        } else {
+            // the smallest counter is taken over in place
+            Counter<T> smallest = heap[0];
+            counters.remove(smallest.item);
+            smallest.item = item;
+            smallest.error = smallest.count;
+            smallest.count += count;
+            smallest.sequence = sequence++;
+            counters.put(item, smallest);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the k items with the highest counts, highest first. Equal counts
+     * keep the order in which the items were first counted.
+     *
+     * @param k the number of items to be returned
+     * @return at most k items with their bounds
+     */
+    public List<HeavyHitter<T>> top(int k) {
+        isTrue(k >= 0, "k cannot be negative");
+        List<Counter<T>> ranked = new ArrayList<>(counters.values());
+        ranked.sort(HIGHEST_FIRST);
+        List<HeavyHitter<T>> result = new ArrayList<>(Math.min(k, ranked.size()));
+        for (Counter<T> counter : ranked.subList(0, Math.min(k, ranked.size()))) {
+            result.add(new HeavyHitter<>(counter.item, counter.count, counter.error));
+        }
+        return result;
+    }
+
+    /**
+     * @return the item with the highest count, or null if nothing was offered.
+     */
+    public HeavyHitter<T> first() {
+        List<HeavyHitter<T>> top = top(1);
+        return top.isEmpty() ? null : top.get(0);
+    }
+
+    /**
+     * Adds the counts of another summary, as if its items had been offered to
+     * this one after the items already offered.
+     *
+     * @return this summary
+     */
+    public SpaceSaving<T> merge(SpaceSaving<? extends T> other) {
+        // an item missing from a full summary may have been counted up to its smallest count
+        long missingHere = minCount();
+        long missingThere = other.minCount();
+        List<Counter<T>> merged = new ArrayList<>();
+        for (Counter<T> counter : counters.values()) {
+            Counter<? extends T> theirs = other.counters.get(counter.item);
+            long count = theirs == null ? missingThere : theirs.count;
+            long error = theirs == null ? missingThere : theirs.error;
+            merged.add(new Counter<>(counter.item, counter.count + count, counter.error + error, counter.sequence));
+        }
+        List<Counter<? extends T>> theirs = new ArrayList<>(other.counters.values());
+        theirs.sort(Comparator.comparingLong(c -> c.sequence));
+        for (Counter<? extends T> counter : theirs) {
+            if (!counters.containsKey(counter.item)) {
+                merged.add(new Counter<>(counter.item, counter.count + missingHere, counter.error + missingHere, sequence++));
+            }
+        }
+        merged.sort(HIGHEST_FIRST);
+        counters.clear();
+        Arrays.fill(heap, null);
+        for (Counter<T> counter : merged.subList(0, Math.min(capacity, merged.size()))) {
+            add(counter);
+        }
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * @return the total count of all offered items.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the most the count of any item may exceed its true count, and
+     * the count above which an item is sure to be kept: the total count divided
+     * by the number of counters.
+     */
+    public long getErrorBound() {
+        return total / capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    private long minCount() {
+        return counters.size() < capacity ? 0 : heap[0].count;
+    }
+
+    private void add(Counter<T> counter) {
+        int position = counters.size();
+        counters.put(counter.item, counter);
+        heap[position] = counter;
+        counter.position = position;
+        siftUp(position);
+    }
+
+    // whether a is replaced before b
+    private static boolean before(Counter<?> a, Counter<?> b) {
+        return a.count != b.count ? a.count < b.count : a.sequence > b.sequence;
+    }
+
+    private void siftUp(int position) {
+        Counter<T> counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!before(counter, heap[parent])) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(counter, position);
+    }
+
+    private void siftDown(int position) {
+        Counter<T> counter = heap[position];
+        int size = counters.size();
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], counter)) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(counter, position);
+    }
+
+    private void place(Counter<T> counter, int position) {
+        heap[position] = counter;
+        counter.position = position;
+    }
+
+    private static class Counter<T> {
+        private T item;
+
+        private long count;
+
+        private long error;
+
+        private long sequence;
+
+        private int position;
+
+        private Counter(T item, long count, long error, long sequence) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package rockets.model;
 
+import org.neo4j.ogm.annotation.typeconversion.Convert;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
@@ -19,13 +21,21 @@ public class Launch extends Entity {
 
     private Set<Payloads> payloads;
 
+    // totals of the payloads, kept by setPayload
+    private int payloadMassToLEO;
+
+    private int payloadMassToGTO;
+
+    private int payloadMassToOther;
+
     private String launchSite;
 
     private String orbit;
 
     private String function;
 
-    private BigDecimal price;
+    @Convert(MoneyConverter.class)
+    private Money price;
 
     private LaunchOutcome launchOutcome;
 
@@ -53,62 +63,72 @@ public class Launch extends Entity {
         this.launchServiceProvider = launchServiceProvider;
     }
 
+    /**
+     * @return a read-only view of the payloads, or null if none were set.
+     */
     public Set<Payloads> getPayload() {
-        return payloads;
+        return payloads == null ? null : Collections.unmodifiableSet(payloads);
     }
 
+    /**
+     * Sets the payloads and records their total mass to each orbit. The set is
+     * copied, so later changes to it are not seen; set the payloads again after
+     * changing the mass of one of them.
+     *
+     * @throws IllegalArgumentException if the payloads are heavier than the
+     * launch vehicle can carry to the orbit of the launch.
+     */
     public void setPayload(Set<Payloads> payload) {
+        int toLEO = 0;
+        int toGTO = 0;
+        int toOther = 0;
+        for (Payloads payloads1 : payload) {
+            toLEO += payloads1.getMassToLEO();
+            toGTO += payloads1.getMassToGTO();
+            toOther += payloads1.getMassToOther();
+        }
 
+        int payloadTotalMass;
+        int rocketTotalMass;
         if (orbit.equalsIgnoreCase("gto")){
-            int payloadTotalMass = 0;
-            for (Payloads payloads1 : payload) {
-                payloadTotalMass += payloads1.getMassToGTO();
-            }
-            int rocketTotalMass=this.getLaunchVehicle().getMassToGTO();
-//            for (Rocket rocket : this.getLaunchServiceProvider().getRockets()) {
-//                rocketTotalMass+=rocket.getMassToGTO();
-//            }
-
-            if (payloadTotalMass<=rocketTotalMass){
-                this.payloads=payload;
-            }else{
-                throw new IllegalArgumentException("too much loads, system not allow");
-            }
+            payloadTotalMass = toGTO;
+            rocketTotalMass = this.getLaunchVehicle().getMassToGTO();
         }else if (orbit.equalsIgnoreCase("leo")) {
-            int payloadTotalMass = 0;
-            for (Payloads payloads1 : payload) {
-                payloadTotalMass += payloads1.getMassToLEO();
-            }
-            int rocketTotalMass = this.getLaunchVehicle().getMassToLEO();
-//            for (Rocket rocket : this.getLaunchServiceProvider().getRockets()) {
-//                rocketTotalMass += rocket.getMassToLEO();
-//            }
-
-            if (payloadTotalMass <= rocketTotalMass) {
-                this.payloads = payload;
-            } else {
-                throw new IllegalArgumentException("too much loads, system not allow");
-            }
+            payloadTotalMass = toLEO;
+            rocketTotalMass = this.getLaunchVehicle().getMassToLEO();
         }else {
-            int payloadTotalMass = 0;
-            for (Payloads payloads1 : payload) {
-                payloadTotalMass += payloads1.getMassToOther();
-            }
-            int rocketTotalMass = this.getLaunchVehicle().getMassToOther();
-//            for (Rocket rocket : this.getLaunchServiceProvider().getRockets()) {
-//                rocketTotalMass += rocket.getMassToOther();
-//            }
-
-            if (payloadTotalMass <= rocketTotalMass) {
-                this.payloads = payload;
-            } else {
-                throw new IllegalArgumentException("too much loads, system not allow");
-            }
+            payloadTotalMass = toOther;
+            rocketTotalMass = this.getLaunchVehicle().getMassToOther();
+        }
+        if (payloadTotalMass > rocketTotalMass) {
+            throw new IllegalArgumentException("too much loads, system not allow");
         }
 
+        this.payloads = new LinkedHashSet<>(payload);
+        this.payloadMassToLEO = toLEO;
+        this.payloadMassToGTO = toGTO;
+        this.payloadMassToOther = toOther;
+    }
+
+    /**
+     * @return the total mass of the payloads to LEO, or 0 if there is no payload.
+     */
+    public int getPayloadMassToLEO() {
+        return payloadMassToLEO;
+    }
 
+    /**
+     * @return the total mass of the payloads to GTO, or 0 if there is no payload.
+     */
+    public int getPayloadMassToGTO() {
+        return payloadMassToGTO;
+    }
 
-        this.payloads = payload;
+    /**
+     * @return the total mass of the payloads to other orbits, or 0 if there is no payload.
+     */
+    public int getPayloadMassToOther() {
+        return payloadMassToOther;
     }
 
     public String getLaunchSite() {
@@ -135,11 +155,27 @@ public class Launch extends Entity {
         this.function = function;
     }
 
+    /**
+     * @return the price in units of its currency, or null if there is no price.
+     */
     public BigDecimal getPrice() {
-        return price;
+        return price == null ? null : price.toBigDecimal();
     }
 
+    /**
+     * Sets the price, in {@link Money#DEFAULT_CURRENCY}.
+     *
+     * @throws ArithmeticException if the price has more decimal places than the currency.
+     */
     public void setPrice(BigDecimal price) {
+        this.price = price == null ? null : Money.of(price, Money.DEFAULT_CURRENCY);
+    }
+
+    public Money getPriceMoney() {
+        return price;
+    }
+
+    public void setPriceMoney(Money price) {
         this.price = price;
     }
 
@@ -16,6 +16,11 @@ public class LaunchServiceProvider extends Entity {
 
     private Set<Rocket> rockets;
 
+    // for Neo4j OGM, which loads entities that are not in its session through a no-argument constructor
+    private LaunchServiceProvider() {
+        rockets = Sets.newLinkedHashSet();
+    }
+
     public LaunchServiceProvider(String name, int yearFounded, String country) {
         this.name = name;
         this.yearFounded = yearFounded;
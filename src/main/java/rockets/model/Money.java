@@ -0,0 +1,124 @@
+package rockets.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * An amount of money as a whole number of minor units of a currency, e.g.
+ * cents of US dollars. Comparing and adding amounts works on longs and does
+ * not allocate beyond the result; arithmetic that overflows a long throws an
+ * {@link ArithmeticException} instead of wrapping around.
+ */
+public final class Money implements Comparable<Money> {
+    public static final String DEFAULT_CURRENCY = "USD";
+
+    private final long minorUnits;
+
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    /**
+     * @param minorUnits the amount in minor units of the currency
+     * @param currency the ISO 4217 code of the currency
+     */
+    public static Money ofMinor(long minorUnits, String currency) {
+        notNull(currency);
+        Currency.getInstance(currency);
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * @param amount the amount in units of the currency
+     * @param currency the ISO 4217 code of the currency
+     * @throws ArithmeticException if the amount has more decimal places than the
+     * currency, or does not fit in a long once scaled.
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        notNull(amount);
+        notNull(currency);
+        return new Money(amount.setScale(scale(currency), RoundingMode.UNNECESSARY).unscaledValue().longValueExact(), currency);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * @return the number of decimal places of the minor units of the currency.
+     */
+    public int getScale() {
+        return scale(currency);
+    }
+
+    /**
+     * @throws ArithmeticException if the sum overflows.
+     * @throws IllegalArgumentException if the currencies differ.
+     */
+    public Money add(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    /**
+     * @throws ArithmeticException if the difference overflows.
+     * @throws IllegalArgumentException if the currencies differ.
+     */
+    public Money subtract(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, getScale());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the currencies differ.
+     */
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    private void checkCurrency(Money other) {
+        notNull(other);
+        isTrue(currency.equals(other.currency), "cannot mix %s and %s", currency, other.currency);
+    }
+
+    private static int scale(String currency) {
+        return Math.max(0, Currency.getInstance(currency).getDefaultFractionDigits());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits &&
+                Objects.equals(currency, money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, currency);
+    }
+
+    @Override
+    public String toString() {
+        return currency + " " + toBigDecimal().toPlainString();
+    }
+}
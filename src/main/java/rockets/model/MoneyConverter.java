@@ -0,0 +1,36 @@
+package rockets.model;
+
+import org.neo4j.ogm.typeconversion.CompositeAttributeConverter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores a {@link Money} field as two node properties: the amount in minor
+ * units, as a long that Cypher can sum and compare, and the currency code.
+ */
+public class MoneyConverter implements CompositeAttributeConverter<Money> {
+    public static final String MINOR_UNITS = "priceMinorUnits";
+
+    public static final String CURRENCY = "priceCurrency";
+
+    @Override
+    public Map<String, ?> toGraphProperties(Money value) {
+        Map<String, Object> properties = new HashMap<>();
+        if (value != null) {
+            properties.put(MINOR_UNITS, value.getMinorUnits());
+            properties.put(CURRENCY, value.getCurrency());
+        }
+        return properties;
+    }
+
+    @Override
+    public Money toEntityAttribute(Map<String, ?> properties) {
+        Object minorUnits = properties.get(MINOR_UNITS);
+        Object currency = properties.get(CURRENCY);
+        if (minorUnits == null || currency == null) {
+            return null;
+        }
+        return Money.ofMinor(((Number) minorUnits).longValue(), (String) currency);
+    }
+}
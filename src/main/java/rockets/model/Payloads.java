@@ -17,6 +17,10 @@ public class Payloads extends Entity {
 
     private int massToOther;
 
+    // for Neo4j OGM, which loads entities that are not in its session through a no-argument constructor
+    private Payloads() {
+    }
+
     public Payloads(String name, String country, String manufacturer) {
         notNull(name);
         notNull(country);
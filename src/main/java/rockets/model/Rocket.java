@@ -21,6 +21,10 @@ public class Rocket extends Entity {
 
     private String characteristics;
 
+    // for Neo4j OGM, which loads entities that are not in its session through a no-argument constructor
+    private Rocket() {
+    }
+
     /**
      * All parameters shouldn't be null.
      *
@@ -64,6 +64,10 @@ public class User extends Entity {
         this.passwordSetTime=df.format(new Date());
     }
 
+    public String getPasswordSetTime() {
+        return passwordSetTime;
+    }
+
     // match the given password against user's password and return the result
     public boolean isPasswordMatch(String password) {
         return this.password.equals(password.trim());
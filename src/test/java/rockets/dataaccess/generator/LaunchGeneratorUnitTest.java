@@ -0,0 +1,223 @@
+package rockets.dataaccess.generator;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+import rockets.model.Payloads;
+import rockets.model.Rocket;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LaunchGeneratorUnitTest {
+
+    private static List<String> describe(LaunchGenerator generator, long count) {
+        return generator.launches(count).map(launch -> launch.getLaunchDate() + " " + launch.getLaunchVehicle().getName()
+                + " " + launch.getOrbit() + " " + launch.getLaunchOutcome() + " " + launch.getPriceMoney()
+                + " " + launch.getPayload()).collect(Collectors.toList());
+    }
+
+    @DisplayName("should generate the same launches from the same seed")
+    @Test
+    public void shouldBeDeterministic() {
+        assertEquals(describe(new LaunchGenerator(7), 500), describe(new LaunchGenerator(7), 500));
+        assertNotEquals(describe(new LaunchGenerator(7), 500), describe(new LaunchGenerator(8), 500));
+    }
+
+    @DisplayName("should generate the same launches in parallel as in sequence")
+    @Test
+    public void shouldGenerateLaunchesIndependentlyOfOrder() {
+        LaunchGenerator generator = new LaunchGenerator(7);
+        List<Launch> parallel = generator.launches(2_000).parallel().collect(Collectors.toList());
+        List<Launch> sequential = generator.launches(2_000).collect(Collectors.toList());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getPriceMoney(), parallel.get(i).getPriceMoney());
+            assertSame(sequential.get(i).getLaunchVehicle(), parallel.get(i).getLaunchVehicle());
+            assertSame(sequential.get(i).getLaunchServiceProvider(), parallel.get(i).getLaunchServiceProvider());
+        }
+    }
+
+    @DisplayName("should let the first providers fly most launches when skewed")
+    @Test
+    public void shouldSkewProviders() {
+        LaunchGenerator generator = new LaunchGenerator(1);
+        generator.setProviders(10);
+        generator.setRockets(10);
+        generator.setProviderSkew(1.5);
+        Map<String, Long> counts = generator.launches(10_000)
+                .collect(Collectors.groupingBy(launch -> launch.getLaunchServiceProvider().getName(), Collectors.counting()));
+        assertTrue(counts.get("lsp_0") > counts.get("lsp_1"));
+        assertTrue(counts.get("lsp_1") > counts.get("lsp_9"));
+        // 1 / H(10, 1.5), the expected share of the first provider, is about 0.50
+        assertEquals(0.50, counts.get("lsp_0") / 10_000.0, 0.03);
+    }
+
+    @DisplayName("should pick providers uniformly without skew")
+    @Test
+    public void shouldPickUniformlyWithoutSkew() {
+        LaunchGenerator generator = new LaunchGenerator(1);
+        generator.setProviders(4);
+        generator.setRockets(4);
+        generator.setProviderSkew(0);
+        Map<String, Long> counts = generator.launches(20_000)
+                .collect(Collectors.groupingBy(launch -> launch.getLaunchServiceProvider().getName(), Collectors.counting()));
+        for (long count : counts.values()) {
+            assertEquals(5_000, count, 300);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0, 0.1, 0.5})
+    public void shouldFailAroundTheFailureRate(double failureRate) {
+        LaunchGenerator generator = new LaunchGenerator(3);
+        generator.setProviderSkew(0);
+        generator.setFailureRate(failureRate);
+        long failed = generator.launches(20_000).filter(launch -> launch.getLaunchOutcome() == Launch.LaunchOutcome.FAILED).count();
+        assertEquals(failureRate, failed / 20_000.0, 0.1 * failureRate + 0.005);
+    }
+
+    @DisplayName("should use the orbits of the mix in proportion to their weights")
+    @Test
+    public void shouldFollowTheOrbitMix() {
+        LaunchGenerator generator = new LaunchGenerator(5);
+        Map<String, Double> mix = new LinkedHashMap<>();
+        mix.put("LEO", 3.0);
+        mix.put("HEO", 1.0);
+        generator.setOrbitMix(mix);
+        Map<String, Long> counts = generator.launches(20_000)
+                .collect(Collectors.groupingBy(Launch::getOrbit, Collectors.counting()));
+        assertEquals(mix.keySet(), counts.keySet());
+        assertEquals(15_000, counts.get("LEO"), 400);
+    }
+
+    @DisplayName("should keep launches within the dates and payloads within the rocket")
+    @Test
+    public void shouldRespectTheSettings() {
+        LaunchGenerator generator = new LaunchGenerator(9);
+        generator.setDates(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 12, 31));
+        generator.setMaxPayloads(5);
+        generator.setPricedShare(0.5);
+        generator.setPrices(Money.ofMinor(100_00, "EUR"), 0.2);
+        long priced = 0;
+        for (Launch launch : generator.launches(2_000).collect(Collectors.toList())) {
+            assertEquals(2000, launch.getLaunchDate().getYear());
+            assertTrue(launch.getPayload().size() >= 1 && launch.getPayload().size() <= 5);
+            assertTrue(launch.getPayloadMassToLEO() <= launch.getLaunchVehicle().getMassToLEO());
+            assertTrue(launch.getPayloadMassToGTO() <= launch.getLaunchVehicle().getMassToGTO());
+            assertTrue(launch.getPayloadMassToOther() <= launch.getLaunchVehicle().getMassToOther());
+            if (launch.getPriceMoney() != null) {
+                priced++;
+                assertEquals("EUR", launch.getPriceMoney().getCurrency());
+            }
+        }
+        assertEquals(1_000, priced, 100);
+    }
+
+    @DisplayName("should build rocket families whose variants have the first rocket as kind")
+    @Test
+    public void shouldBuildRocketFamilies() {
+        LaunchGenerator generator = new LaunchGenerator(1);
+        generator.setProviders(2);
+        generator.setRockets(11);
+        List<Rocket> rockets = generator.rockets();
+        assertEquals(11, rockets.size());
+        assertEquals(2, generator.providers().size());
+        Set<Rocket> seen = new HashSet<>();
+        for (Rocket rocket : rockets) {
+            if (rocket.getRocketKind() != null) {
+                assertTrue(seen.contains(rocket.getRocketKind()));
+                assertNull(rocket.getRocketKind().getRocketKind());
+                assertEquals(rocket.getManufacturer(), rocket.getRocketKind().getManufacturer());
+            }
+            seen.add(rocket);
+        }
+        assertEquals(4, rockets.stream().filter(rocket -> rocket.getRocketKind() == null).count());
+        assertSame(rockets, generator.rockets());
+    }
+
+    @DisplayName("should save the providers, rockets and launches to the DAO")
+    @Test
+    public void shouldPopulateDAO() {
+        LaunchGenerator generator = new LaunchGenerator(1);
+        generator.setProviders(5);
+        generator.setRockets(20);
+        DAO dao = new InMemoryDAO();
+        generator.populate(dao, 300);
+        assertEquals(5, dao.loadAll(LaunchServiceProvider.class).size());
+        assertEquals(20, dao.loadAll(Rocket.class).size());
+        Collection<Launch> launches = dao.loadAll(Launch.class);
+        assertEquals(300, launches.size());
+        Map<Long, Rocket> rockets = dao.loadAll(Rocket.class).stream().collect(Collectors.toMap(Rocket::getId, Function.identity()));
+        for (Launch launch : launches) {
+            assertSame(rockets.get(launch.getLaunchVehicle().getId()), launch.getLaunchVehicle());
+        }
+    }
+
+    @DisplayName("should write a CSV row per launch")
+    @Test
+    public void shouldWriteCsv() throws IOException {
+        LaunchGenerator generator = new LaunchGenerator(1);
+        StringBuilder out = new StringBuilder();
+        generator.writeCsv(out, 50);
+        List<CSVRecord> records = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(new StringReader(out.toString())).getRecords();
+        assertEquals(50, records.size());
+        Launch launch = generator.launch(17);
+        CSVRecord record = records.get(17);
+        assertEquals("17", record.get("index"));
+        assertEquals(launch.getLaunchDate().toString(), record.get("launch_date"));
+        assertEquals(launch.getLaunchVehicle().getName(), record.get("launch_vehicle"));
+        assertEquals(launch.getPrice().toPlainString(), record.get("price"));
+        assertEquals(String.valueOf(launch.getPayload().size()), record.get("payloads"));
+        assertEquals(String.valueOf(launch.getPayload().stream().mapToInt(Payloads::getMassToLEO).sum()),
+                record.get("payload_mass_to_leo"));
+    }
+
+    @DisplayName("should throw exception when the settings change after the fleet is built")
+    @Test
+    public void shouldThrowExceptionWhenSettingsChangeAfterUse() {
+        LaunchGenerator generator = new LaunchGenerator(1);
+        generator.launch(0);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> generator.setRockets(10));
+        assertEquals("the settings cannot change once the fleet is built", exception.getMessage());
+    }
+
+    @DisplayName("should throw exception when there are fewer rockets than providers")
+    @Test
+    public void shouldThrowExceptionWhenRocketsAreFewerThanProviders() {
+        LaunchGenerator generator = new LaunchGenerator(1);
+        generator.setRockets(10);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, generator::rockets);
+        assertEquals("there must be at least one rocket per provider", exception.getMessage());
+    }
+
+    @DisplayName("should throw exception when settings are out of range")
+    @Test
+    public void shouldThrowExceptionWhenSettingsAreOutOfRange() {
+        LaunchGenerator generator = new LaunchGenerator(1);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> generator.setProviderSkew(-1));
+        assertEquals("skew cannot be negative", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> generator.setFailureRate(1.5));
+        assertEquals("failure rate must be between 0 and 1", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> generator.setDates(LocalDate.of(2000, 1, 2), LocalDate.of(2000, 1, 1)));
+        assertEquals("the dates cannot end before they start", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> generator.setOrbitMix(Collections.singletonMap("LEO", 0.0)));
+        assertEquals("orbit weights must be positive", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> generator.launches(-1));
+        assertEquals("count cannot be negative", exception.getMessage());
+    }
+}
@@ -0,0 +1,49 @@
+package rockets.dataaccess.memory;
+
+import rockets.dataaccess.DAO;
+import rockets.model.Entity;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A DAO that keeps entities in memory, for tests and benchmarks that do not
+ * need a database. Entities are stored by id and returned in insertion order.
+ */
+public class InMemoryDAO implements DAO {
+    private final Map<Class<?>, Map<Long, Entity>> entities = new HashMap<>();
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Override
+    public synchronized <T extends Entity> T load(Class<T> clazz, Long id) {
+        return clazz.cast(table(clazz).get(id));
+    }
+
+    @Override
+    public synchronized <T extends Entity> T createOrUpdate(T entity) {
+        if (null == entity.getId()) {
+            entity.setId(nextId.incrementAndGet());
+        }
+        table(entity.getClass()).put(entity.getId(), entity);
+        return entity;
+    }
+
+    @Override
+    public synchronized <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
+        List<T> result = new ArrayList<>();
+        for (Entity entity : table(clazz).values()) {
+            result.add(clazz.cast(entity));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized <T extends Entity> void delete(T entity) {
+        table(entity.getClass()).remove(entity.getId());
+    }
+
+    private Map<Long, Entity> table(Class<?> clazz) {
+        return entities.computeIfAbsent(clazz, c -> new LinkedHashMap<>());
+    }
+}
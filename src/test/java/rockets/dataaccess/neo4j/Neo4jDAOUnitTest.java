@@ -6,17 +6,39 @@ import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.harness.ServerControls;
 import org.neo4j.harness.TestServerBuilders;
 import org.neo4j.ogm.drivers.embedded.driver.EmbeddedDriver;
+import org.neo4j.ogm.exception.CypherException;
+import org.neo4j.ogm.session.Neo4jSession;
 import org.neo4j.ogm.session.Session;
 import org.neo4j.ogm.session.SessionFactory;
+import org.neo4j.ogm.transaction.Transaction;
+import rockets.dataaccess.BatchException;
+import rockets.dataaccess.BatchResult;
 import rockets.dataaccess.DAO;
+import rockets.dataaccess.DAOListener;
+import rockets.dataaccess.LaunchRow;
+import rockets.dataaccess.ObservableDAO;
+import rockets.metrics.Metrics;
+import rockets.metrics.OperationStats;
+import rockets.mining.ReliabilityRanking;
+import rockets.mining.RocketMiner;
+import rockets.model.Entity;
 import rockets.model.Launch;
 import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+import rockets.model.Payloads;
 import rockets.model.Rocket;
 import rockets.model.User;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Collection;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,7 +59,8 @@ public class Neo4jDAOUnitTest {
         EmbeddedDriver driver = new EmbeddedDriver(dbService);
         sessionFactory = new SessionFactory(driver, User.class.getPackage().getName());
         session = sessionFactory.openSession();
-        dao = new Neo4jDAO(session);
+        dao = new Neo4jDAO(session, sessionFactory);
+        ((Neo4jDAO) dao).createSchema();
     }
 
     @BeforeEach
@@ -155,6 +178,57 @@ public class Neo4jDAOUnitTest {
         assertEquals("experimental", loadedLaunch.getFunction());
     }
 
+    @Test
+    public void shouldStoreLaunchPriceAsMinorUnits() {
+        Launch launch = newLaunch(null, null, LocalDate.of(2017, 1, 1), Launch.LaunchOutcome.SUCCESSFUL);
+        launch.setPrice(new BigDecimal("62000000.50"));
+        dao.createOrUpdate(launch);
+        session.clear();
+
+        Launch loadedLaunch = dao.load(Launch.class, launch.getId());
+        assertEquals(Money.ofMinor(6_200_000_050L, "USD"), loadedLaunch.getPriceMoney());
+        assertEquals(0, new BigDecimal("62000000.50").compareTo(loadedLaunch.getPrice()));
+        Map<String, Object> properties = ((Neo4jDAO) dao).query(
+                "MATCH (l:Launch) WHERE id(l) = $id RETURN l.priceMinorUnits AS minorUnits, l.priceCurrency AS currency",
+                Collections.singletonMap("id", launch.getId())).iterator().next();
+        assertEquals(6_200_000_050L, ((Number) properties.get("minorUnits")).longValue());
+        assertEquals("USD", properties.get("currency"));
+    }
+
+    @Test
+    public void shouldMigrateLaunchPricesStoredAsDecimals() {
+        session.query("CREATE (:Launch {launchDate: '2017-01-01', price: '62000000.50'}), (:Launch {launchDate: '2018-01-01'})",
+                Collections.emptyMap());
+        ((Neo4jDAO) dao).createSchema();
+        session.clear();
+
+        List<Money> prices = dao.loadAll(Launch.class).stream().sorted(Comparator.comparing(Launch::getLaunchDate))
+                .map(Launch::getPriceMoney).collect(Collectors.toList());
+        assertEquals(Arrays.asList(Money.ofMinor(6_200_000_050L, "USD"), null), prices);
+        assertFalse(((Neo4jDAO) dao).query("MATCH (l:Launch) WHERE exists(l.price) RETURN l",
+                Collections.emptyMap()).iterator().hasNext());
+    }
+
+    @Test
+    public void shouldBackfillPayloadMassTotals() {
+        session.query("CREATE (l:Launch {launchDate: '2017-01-01'}), (:Launch {launchDate: '2018-01-01'}), " +
+                "(l)-[:PAYLOADS]->(:Payloads {name: 'a', massToLEO: 100, massToGTO: 40}), " +
+                "(l)-[:PAYLOADS]->(:Payloads {name: 'b', massToLEO: 250, massToOther: 7})", Collections.emptyMap());
+        ((Neo4jDAO) dao).createSchema();
+        session.clear();
+
+        List<Launch> launches = dao.loadAll(Launch.class).stream().sorted(Comparator.comparing(Launch::getLaunchDate))
+                .collect(Collectors.toList());
+        assertEquals(350, launches.get(0).getPayloadMassToLEO());
+        assertEquals(40, launches.get(0).getPayloadMassToGTO());
+        assertEquals(7, launches.get(0).getPayloadMassToOther());
+        assertEquals(0, launches.get(1).getPayloadMassToLEO());
+        Map<String, Object> stored = ((Neo4jDAO) dao).query(
+                "MATCH (l:Launch) WHERE l.launchDate = '2018-01-01' RETURN l.payloadMassToLEO AS leo",
+                Collections.emptyMap()).iterator().next();
+        assertEquals(0L, ((Number) stored.get("leo")).longValue());
+    }
+
     @Test
     public void shouldDeleteRocketWithoutDeleteLSP() {
         dao.createOrUpdate(rocket);
@@ -167,6 +241,519 @@ public class Neo4jDAOUnitTest {
         assertFalse(dao.loadAll(LaunchServiceProvider.class).isEmpty());
     }
 
+    @Test
+    public void shouldPushDownReliabilityRankingToNeo4j() {
+        LaunchServiceProvider ula = new LaunchServiceProvider("ULA", 1990, "USA");
+        LaunchServiceProvider roscosmos = new LaunchServiceProvider("Roscosmos", 1992, "Russia");
+        dao.createOrUpdate(roscosmos);
+        Rocket ariane = new Rocket("Ariane5", "Europe", esa);
+        Rocket atlas = new Rocket("AtlasV", "USA", ula);
+        Launch.LaunchOutcome[] spacexOutcomes = {Launch.LaunchOutcome.SUCCESSFUL, Launch.LaunchOutcome.FAILED, Launch.LaunchOutcome.SUCCESSFUL};
+        for (int i = 0; i < spacexOutcomes.length; i++) {
+            dao.createOrUpdate(newLaunch(rocket, spacex, LocalDate.of(2017, i + 1, 1), spacexOutcomes[i]));
+        }
+        dao.createOrUpdate(newLaunch(ariane, esa, LocalDate.of(2017, 1, 1), Launch.LaunchOutcome.SUCCESSFUL));
+        dao.createOrUpdate(newLaunch(ariane, esa, LocalDate.of(2017, 2, 1), Launch.LaunchOutcome.SUCCESSFUL));
+        dao.createOrUpdate(newLaunch(atlas, ula, LocalDate.of(2017, 1, 1), Launch.LaunchOutcome.FAILED));
+
+        RocketMiner miner = new RocketMiner(dao);
+        List<LaunchServiceProvider> inMemory = miner.mostReliableLaunchServiceProviders(4);
+        miner.setExecutionMode(RocketMiner.ExecutionMode.PUSH_DOWN);
+        List<LaunchServiceProvider> pushedDown = miner.mostReliableLaunchServiceProviders(4);
+
+        assertEquals(Arrays.asList(esa, spacex, ula, roscosmos), pushedDown);
+        assertEquals(inMemory, pushedDown);
+        assertEquals(Arrays.asList(esa, spacex), miner.mostReliableLaunchServiceProviders(2));
+        for (ReliabilityRanking ranking : ReliabilityRanking.values()) {
+            for (long minLaunches : new long[]{1, 3}) {
+                miner.setExecutionMode(RocketMiner.ExecutionMode.IN_MEMORY);
+                inMemory = miner.mostReliableLaunchServiceProviders(4, ranking, minLaunches);
+                miner.setExecutionMode(RocketMiner.ExecutionMode.PUSH_DOWN);
+                assertEquals(inMemory, miner.mostReliableLaunchServiceProviders(4, ranking, minLaunches));
+            }
+        }
+    }
+
+    @Test
+    public void shouldStreamEntitiesPageByPage() {
+        Neo4jDAO neo4jDAO = (Neo4jDAO) dao;
+        for (int i = 0; i < 25; i++) {
+            dao.createOrUpdate(new LaunchServiceProvider("LSP" + i, 1950 + i, "USA"));
+        }
+        neo4jDAO.setPageSize(7);
+        try {
+            List<LaunchServiceProvider> streamed;
+            try (Stream<LaunchServiceProvider> stream = dao.stream(LaunchServiceProvider.class)) {
+                streamed = stream.collect(Collectors.toList());
+            }
+            assertEquals(new HashSet<>(dao.loadAll(LaunchServiceProvider.class)), new HashSet<>(streamed));
+            assertEquals(25, streamed.size());
+            for (int i = 1; i < streamed.size(); i++) {
+                assertTrue(streamed.get(i - 1).getId() < streamed.get(i).getId());
+            }
+            try (Stream<LaunchServiceProvider> stream = dao.stream(LaunchServiceProvider.class)) {
+                assertEquals(streamed.subList(0, 3), stream.limit(3).collect(Collectors.toList()));
+            }
+        } finally {
+            neo4jDAO.setPageSize(Neo4jDAO.DEFAULT_PAGE_SIZE);
+        }
+    }
+
+    @Test
+    public void shouldStreamWithoutChangingTheSessionOfTheDAO() {
+        for (int i = 0; i < 10; i++) {
+            dao.createOrUpdate(new Rocket("rocket_" + i, "USA", new LaunchServiceProvider("LSP" + i, 1950 + i, "USA")));
+        }
+        session.clear();
+        Rocket loaded = dao.load(Rocket.class, dao.loadAll(Rocket.class).iterator().next().getId());
+        session.clear();
+        loaded = dao.load(Rocket.class, loaded.getId());
+        // with and without a factory of stream sessions
+        for (Neo4jDAO streaming : Arrays.asList((Neo4jDAO) dao, new Neo4jDAO(session))) {
+            streaming.setPageSize(3);
+            for (Class<? extends Entity> clazz : Arrays.asList(Rocket.class, LaunchServiceProvider.class)) {
+                try (Stream<? extends Entity> stream = streaming.stream(clazz)) {
+                    assertEquals(10, stream.count());
+                }
+            }
+
+            // the rocket and its manufacturer, loaded through the DAO, are all the session holds
+            List<Long> held = new ArrayList<>();
+            for (Map<String, Object> row : streaming.query("MATCH (n) RETURN id(n) AS id", Collections.emptyMap())) {
+                Long id = ((Number) row.get("id")).longValue();
+                if (((Neo4jSession) session).context().getNodeEntity(id) != null) {
+                    held.add(id);
+                }
+            }
+            assertEquals(Sets.newHashSet(loaded.getId(), loaded.getManufacturer().getId()), new HashSet<>(held));
+            assertSame(loaded, ((Neo4jSession) session).context().getNodeEntity(loaded.getId()));
+        }
+        ((Neo4jDAO) dao).setPageSize(Neo4jDAO.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    public void shouldUpdateAStreamedEntityThroughTheDAO() {
+        Rocket ariane = new Rocket("Ariane5", "Europe", esa);
+        for (int i = 0; i < 5; i++) {
+            dao.createOrUpdate(newLaunch(rocket, spacex, LocalDate.of(2017, i + 1, 1), Launch.LaunchOutcome.SUCCESSFUL));
+        }
+        for (Neo4jDAO streaming : Arrays.asList((Neo4jDAO) dao, new Neo4jDAO(session))) {
+            streaming.setPageSize(2);
+            Launch streamed;
+            try (Stream<Launch> stream = streaming.stream(Launch.class)) {
+                streamed = stream.skip(2).findFirst().get();
+            }
+            streamed.setOrbit("GTO");
+            streamed.setLaunchVehicle(ariane);
+            streamed.setLaunchServiceProvider(esa);
+            streaming.createOrUpdate(streamed);
+
+            session.clear();
+            Launch loaded = dao.load(Launch.class, streamed.getId());
+            assertEquals("GTO", loaded.getOrbit());
+            // loaded one level deep, the vehicle has no manufacturer to compare
+            assertEquals(ariane.getName(), loaded.getLaunchVehicle().getName());
+            assertEquals(esa, loaded.getLaunchServiceProvider());
+            assertEquals(5, dao.loadAll(Launch.class).size());
+            assertEquals(2, dao.loadAll(Rocket.class).size());
+            for (Map<String, Object> row : streaming.query(
+                    "MATCH (l:Launch) RETURN size((l)-[:LAUNCH_VEHICLE]->()) AS vehicles, " +
+                    "size((l)-[:LAUNCH_SERVICE_PROVIDER]->()) AS providers", Collections.emptyMap())) {
+                assertEquals(1L, ((Number) row.get("vehicles")).longValue());
+                assertEquals(1L, ((Number) row.get("providers")).longValue());
+            }
+            streamed.setLaunchVehicle(rocket);
+            streamed.setLaunchServiceProvider(spacex);
+            streaming.createOrUpdate(streamed);
+        }
+    }
+
+    @Test
+    public void shouldMineLaunchesStreamedInPages() {
+        Rocket ariane = new Rocket("Ariane5", "Europe", esa);
+        for (int i = 0; i < 5; i++) {
+            dao.createOrUpdate(newLaunch(rocket, spacex, LocalDate.of(2017, i + 1, 1), Launch.LaunchOutcome.SUCCESSFUL));
+        }
+        for (int i = 0; i < 3; i++) {
+            dao.createOrUpdate(newLaunch(ariane, esa, LocalDate.of(2018, i + 1, 1), Launch.LaunchOutcome.SUCCESSFUL));
+        }
+        ((Neo4jDAO) dao).setPageSize(2);
+        try {
+            RocketMiner miner = new RocketMiner(dao);
+            assertEquals(Arrays.asList(rocket, ariane), miner.mostLaunchedRockets(2));
+            assertEquals("USA", miner.dominantCountry("LEO"));
+            assertEquals(3, miner.launchesBetween(LocalDate.of(2018, 1, 1), LocalDate.of(2018, 12, 31)).size());
+        } finally {
+            ((Neo4jDAO) dao).setPageSize(Neo4jDAO.DEFAULT_PAGE_SIZE);
+        }
+    }
+
+    @Test
+    public void shouldProjectLaunchRowsLikeTheLoadedLaunches() {
+        rocket.setMassToLEO(10_000);
+        Rocket ariane = new Rocket("Ariane5", "Europe", esa);
+        for (int i = 0; i < 5; i++) {
+            Launch launch = newLaunch(rocket, spacex, LocalDate.of(2017, i + 1, 1),
+                    i % 2 == 0 ? Launch.LaunchOutcome.SUCCESSFUL : Launch.LaunchOutcome.FAILED);
+            launch.setPrice(BigDecimal.valueOf(1000 * (i + 1)));
+            Payloads payload = new Payloads("payload_" + i, "USA", "SPACEX");
+            payload.setMassToLEO(100 * (5 - i));
+            launch.setPayload(Collections.singleton(payload));
+            dao.createOrUpdate(launch);
+        }
+        for (int i = 0; i < 3; i++) {
+            Launch launch = newLaunch(ariane, esa, LocalDate.of(2018, i + 1, 1), Launch.LaunchOutcome.SUCCESSFUL);
+            launch.setOrbit("GTO");
+            launch.setPrice(BigDecimal.valueOf(2500));
+            dao.createOrUpdate(launch);
+        }
+        ((Neo4jDAO) dao).setPageSize(3);
+        try {
+            List<LaunchRow> projected;
+            try (Stream<LaunchRow> rows = dao.streamLaunchRows()) {
+                projected = rows.collect(Collectors.toList());
+            }
+            List<LaunchRow> loaded = dao.loadAll(Launch.class).stream().map(LaunchRow::of)
+                    .sorted(Comparator.comparingLong(LaunchRow::getId)).collect(Collectors.toList());
+            assertEquals(loaded, projected);
+
+            RocketMiner miner = new RocketMiner(dao);
+            RocketMiner projection = new RocketMiner(dao);
+            projection.setExecutionMode(RocketMiner.ExecutionMode.PROJECTION);
+            assertEquals(miner.mostLaunchedRockets(3), projection.mostLaunchedRockets(3));
+            assertEquals(miner.mostReliableLaunchServiceProviders(3), projection.mostReliableLaunchServiceProviders(3));
+            assertEquals(miner.mostExpensiveLaunches(2), projection.mostExpensiveLaunches(2));
+            assertEquals(miner.highestRevenueLaunchServiceProviders(2, 2017), projection.highestRevenueLaunchServiceProviders(2, 2017));
+            assertEquals(miner.dominantLaunchServiceProvider("GTO"), projection.dominantLaunchServiceProvider("GTO"));
+            assertEquals(miner.dominantCountryInPayLoads("LEO"), projection.dominantCountryInPayLoads("LEO"));
+        } finally {
+            ((Neo4jDAO) dao).setPageSize(Neo4jDAO.DEFAULT_PAGE_SIZE);
+        }
+    }
+
+    @Test
+    public void shouldRecordCallsWhenMetricsAreSet() {
+        Neo4jDAO neo4jDAO = (Neo4jDAO) dao;
+        Metrics metrics = new Metrics();
+        neo4jDAO.setMetrics(metrics);
+        try {
+            dao.createOrUpdate(spacex);
+            dao.createOrUpdate(esa);
+            dao.loadAll(LaunchServiceProvider.class);
+            try (Stream<LaunchServiceProvider> stream = dao.stream(LaunchServiceProvider.class)) {
+                assertEquals(2, stream.count());
+            }
+            dao.delete(esa);
+
+            SortedMap<String, OperationStats> snapshot = metrics.snapshot();
+            assertEquals(2, snapshot.get("Neo4jDAO.createOrUpdate").getCalls());
+            assertEquals(2, snapshot.get("Neo4jDAO.findExistingEntity").getCalls());
+            assertEquals(0, snapshot.get("Neo4jDAO.findExistingEntity").getRows());
+            assertEquals(2, snapshot.get("Neo4jDAO.loadAll").getRows());
+            assertEquals(2, snapshot.get("Neo4jDAO.streamPage").getRows());
+            assertEquals(1, snapshot.get("Neo4jDAO.delete").getCalls());
+        } finally {
+            neo4jDAO.setMetrics(null);
+        }
+    }
+
+    @Test
+    public void shouldCreateOrUpdateAllInBatches() {
+        Neo4jDAO neo4jDAO = (Neo4jDAO) dao;
+        dao.createOrUpdate(rocket);
+        neo4jDAO.setBatchSize(2);
+        try {
+            Rocket existing = new Rocket("F9", "USA", spacex);
+            Rocket ariane = new Rocket("Ariane5", "France", esa);
+            Launch launch = newLaunch(ariane, esa, LocalDate.of(2017, 1, 1), Launch.LaunchOutcome.SUCCESSFUL);
+            List<BatchResult> results = dao.createOrUpdateAll(Arrays.asList(esa, existing, ariane, launch, spacex));
+
+            assertEquals(Arrays.asList(new BatchResult(0, 1, 1), new BatchResult(2, 2, 0), new BatchResult(4, 0, 1)), results);
+            assertEquals(rocket.getId(), existing.getId());
+            assertNotNull(ariane.getId());
+            assertNotNull(launch.getId());
+            assertEquals(2, dao.loadAll(Rocket.class).size());
+            assertEquals(2, dao.loadAll(LaunchServiceProvider.class).size());
+            assertEquals(ariane, dao.load(Launch.class, launch.getId()).getLaunchVehicle());
+        } finally {
+            neo4jDAO.setBatchSize(Neo4jDAO.DEFAULT_BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void shouldUpdateAnEarlierEntityOfTheSameBatch() {
+        Rocket first = new Rocket("F9", "USA", spacex);
+        Rocket second = new Rocket("F9", "USA", spacex);
+        second.setWikilink("https://en.wikipedia.org/wiki/Falcon_9");
+
+        assertEquals(Collections.singletonList(new BatchResult(0, 1, 1)), dao.createOrUpdateAll(Arrays.asList(first, second)));
+        assertEquals(first.getId(), second.getId());
+        Collection<Rocket> rockets = dao.loadAll(Rocket.class);
+        assertEquals(1, rockets.size());
+        assertEquals(second.getWikilink(), rockets.iterator().next().getWikilink());
+    }
+
+    @Test
+    public void shouldRollBackTheFailedBatch() {
+        Neo4jDAO neo4jDAO = (Neo4jDAO) dao;
+        ObservableDAO observable = new ObservableDAO(dao);
+        List<Entity> notified = new ArrayList<>();
+        observable.addListener(new DAOListener() {
+            @Override
+            public void saved(Entity entity) {
+                notified.add(entity);
+            }
+
+            @Override
+            public void deleted(Entity entity) {
+            }
+        });
+        session.query("CREATE CONSTRAINT ON (r:Rocket) ASSERT r.characteristics IS UNIQUE", Collections.emptyMap());
+        neo4jDAO.setBatchSize(2);
+        try {
+            Rocket f9 = new Rocket("F9", "USA", spacex);
+            Rocket bfr = new Rocket("BFR", "USA", spacex);
+            Rocket ariane = new Rocket("Ariane5", "France", esa);
+            Rocket vega = new Rocket("Vega", "France", esa);
+            ariane.setCharacteristics("expendable");
+            vega.setCharacteristics("expendable");
+            List<Rocket> rockets = Arrays.asList(f9, bfr, ariane, vega);
+
+            BatchException exception = assertThrows(BatchException.class, () -> observable.createOrUpdateAll(rockets));
+            assertEquals(Collections.singletonList(new BatchResult(0, 2, 0)), exception.getCommitted());
+            assertEquals(2, exception.getFailedAt());
+            assertEquals(Arrays.asList(f9, bfr), notified);
+            assertNull(ariane.getId());
+            assertNull(vega.getId());
+            assertNull(esa.getId());
+            assertEquals(Sets.newHashSet("F9", "BFR"),
+                    dao.loadAll(Rocket.class).stream().map(Rocket::getName).collect(Collectors.toSet()));
+            assertEquals(Collections.singleton(spacex), new HashSet<>(dao.loadAll(LaunchServiceProvider.class)));
+        } finally {
+            neo4jDAO.setBatchSize(Neo4jDAO.DEFAULT_BATCH_SIZE);
+            session.query("DROP CONSTRAINT ON (r:Rocket) ASSERT r.characteristics IS UNIQUE", Collections.emptyMap());
+        }
+    }
+
+    @Test
+    public void shouldCreateTheSchemaOnlyOnce() {
+        ((Neo4jDAO) dao).createSchema();
+
+        List<String> indexes = new ArrayList<>();
+        for (Map<String, Object> index : session.query("CALL db.indexes()", Collections.emptyMap()).queryResults()) {
+            assertEquals("ONLINE", index.get("state"));
+            indexes.add((String) index.get("description"));
+        }
+        Collections.sort(indexes);
+        assertEquals(Arrays.asList("INDEX ON :Launch(launchDate, launchSite, launchOutcome)",
+                "INDEX ON :LaunchServiceProvider(name, yearFounded, country)",
+                "INDEX ON :Rocket(name, country)",
+                "INDEX ON :UpsertLock(key)",
+                "INDEX ON :User(email)"), indexes);
+        assertTrue(session.query("CALL db.constraints()", Collections.emptyMap()).queryResults().iterator().hasNext());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenUsersShareAnEmail() {
+        session.query("DROP CONSTRAINT ON (u:User) ASSERT u.email IS UNIQUE", Collections.emptyMap());
+        try {
+            session.query("CREATE (:User {email: 'a@b.com'}), (:User {email: 'a@b.com'})", Collections.emptyMap());
+            assertThrows(CypherException.class, ((Neo4jDAO) dao)::createSchema);
+        } finally {
+            session.purgeDatabase();
+            ((Neo4jDAO) dao).createSchema();
+        }
+    }
+
+    @Test
+    public void shouldMergeEntitiesOnTheirNaturalKeys() {
+        Neo4jDAO neo4jDAO = (Neo4jDAO) dao;
+        dao.createOrUpdate(rocket);
+        Metrics metrics = new Metrics();
+        neo4jDAO.setUpsertMode(Neo4jDAO.UpsertMode.MERGE);
+        neo4jDAO.setMetrics(metrics);
+        try {
+            LaunchServiceProvider manufacturer = new LaunchServiceProvider("SpaceX", 2002, "USA");
+            manufacturer.setHeadquarters("Hawthorne");
+            Rocket merged = new Rocket("F9", "USA", manufacturer);
+            merged.setWikilink("https://en.wikipedia.org/wiki/Falcon_9");
+            merged.setMassToLEO(22_800);
+            Rocket created = new Rocket("BFR", "USA", manufacturer);
+
+            assertSame(merged, dao.createOrUpdate(merged));
+            dao.createOrUpdate(created);
+            assertEquals(rocket.getId(), merged.getId());
+            assertEquals(spacex.getId(), manufacturer.getId());
+            assertNotNull(created.getId());
+            assertEquals(2, dao.loadAll(Rocket.class).size());
+            assertEquals(1, dao.loadAll(LaunchServiceProvider.class).size());
+
+            Rocket loaded = dao.load(Rocket.class, rocket.getId());
+            assertEquals(merged.getWikilink(), loaded.getWikilink());
+            assertEquals(22_800, loaded.getMassToLEO());
+            assertEquals(spacex, loaded.getManufacturer());
+            assertEquals("Hawthorne", loaded.getManufacturer().getHeadquarters());
+
+            SortedMap<String, OperationStats> snapshot = metrics.snapshot();
+            assertEquals(2, snapshot.get("Neo4jDAO.createOrUpdate").getCalls());
+            assertFalse(snapshot.containsKey("Neo4jDAO.findExistingEntity"));
+        } finally {
+            neo4jDAO.setMetrics(null);
+            neo4jDAO.setUpsertMode(Neo4jDAO.UpsertMode.LOOKUP_THEN_SAVE);
+        }
+    }
+
+    @Test
+    public void shouldKeepTheNodeOfAMergedEntityWhoseKeyChanged() {
+        Neo4jDAO neo4jDAO = (Neo4jDAO) dao;
+        neo4jDAO.setUpsertMode(Neo4jDAO.UpsertMode.MERGE);
+        try {
+            User user = new User();
+            user.setEmail("elon@spacex.com");
+            user.setLastName("Musk");
+            dao.createOrUpdate(user);
+            Long id = user.getId();
+            assertNotNull(id);
+
+            user.setEmail("elon@tesla.com");
+            dao.createOrUpdate(user);
+            assertEquals(id, user.getId());
+            Collection<User> users = dao.loadAll(User.class);
+            assertEquals(1, users.size());
+            assertEquals("elon@tesla.com", users.iterator().next().getEmail());
+        } finally {
+            neo4jDAO.setUpsertMode(Neo4jDAO.UpsertMode.LOOKUP_THEN_SAVE);
+        }
+    }
+
+    @Test
+    public void shouldReplaceTheRelationshipsOfAMergedEntity() {
+        Neo4jDAO neo4jDAO = (Neo4jDAO) dao;
+        neo4jDAO.setUpsertMode(Neo4jDAO.UpsertMode.MERGE);
+        try {
+            Rocket falcon = new Rocket("Falcon", "USA", spacex);
+            Rocket heavy = new Rocket("Falcon Heavy", "USA", spacex);
+            rocket.setRocketKind(falcon);
+            dao.createOrUpdate(rocket);
+            Rocket merged = new Rocket("F9", "USA", esa);
+            merged.setRocketKind(heavy);
+            dao.createOrUpdate(merged);
+            assertEquals(rocket.getId(), merged.getId());
+
+            String kinds = "MATCH (r:Rocket)-[k:ROCKET_KIND]->(kind) WHERE id(r) = $id RETURN kind.name AS name";
+            List<Object> names = new ArrayList<>();
+            neo4jDAO.query(kinds, Collections.singletonMap("id", rocket.getId())).forEach(row -> names.add(row.get("name")));
+            assertEquals(Collections.singletonList("Falcon Heavy"), names);
+            assertEquals(esa, dao.load(Rocket.class, rocket.getId()).getManufacturer());
+            assertEquals(3, dao.loadAll(Rocket.class).size());
+
+            merged.setRocketKind(null);
+            dao.createOrUpdate(merged);
+            assertFalse(neo4jDAO.query(kinds, Collections.singletonMap("id", rocket.getId())).iterator().hasNext());
+        } finally {
+            neo4jDAO.setUpsertMode(Neo4jDAO.UpsertMode.LOOKUP_THEN_SAVE);
+        }
+    }
+
+    @Test
+    public void shouldNotCreateDuplicatesWhenMergingConcurrently() throws Exception {
+        int writers = 8;
+        int rockets = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                futures.add(executor.submit(() -> {
+                    Neo4jDAO writer = new Neo4jDAO(sessionFactory.openSession());
+                    writer.setUpsertMode(Neo4jDAO.UpsertMode.MERGE);
+                    LaunchServiceProvider manufacturer = new LaunchServiceProvider("SpaceX", 2002, "USA");
+                    start.await();
+                    for (int j = 0; j < rockets; j++) {
+                        writer.createOrUpdate(new Rocket("rocket_" + j, "USA", manufacturer));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> counts = ((Neo4jDAO) dao).query(
+                "MATCH (r:Rocket) OPTIONAL MATCH (r)-[m:MANUFACTURER]->() " +
+                "RETURN count(DISTINCT r) AS rockets, count(m) AS manufacturers",
+                Collections.emptyMap()).iterator().next();
+        assertEquals(rockets, ((Number) counts.get("rockets")).intValue());
+        assertEquals(rockets, ((Number) counts.get("manufacturers")).intValue());
+        assertEquals(1, dao.loadAll(LaunchServiceProvider.class).size());
+    }
+
+    @Test
+    public void shouldNotWaitForMergesOfOtherKeys() throws Exception {
+        Session other = sessionFactory.openSession();
+        Neo4jDAO writer = new Neo4jDAO(other);
+        writer.setUpsertMode(Neo4jDAO.UpsertMode.MERGE);
+        ((Neo4jDAO) dao).setUpsertMode(Neo4jDAO.UpsertMode.MERGE);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Transaction tx = other.beginTransaction();
+        try {
+            writer.createOrUpdate(rocket);
+            Rocket ariane = new Rocket("Ariane5", "Europe", esa);
+            executor.submit(() -> dao.createOrUpdate(ariane)).get(1, TimeUnit.MINUTES);
+            assertNotNull(ariane.getId());
+        } finally {
+            tx.rollback();
+            tx.close();
+            executor.shutdownNow();
+            ((Neo4jDAO) dao).setUpsertMode(Neo4jDAO.UpsertMode.LOOKUP_THEN_SAVE);
+        }
+    }
+
+    @Test
+    public void shouldKeepABoundedNumberOfLockNodes() {
+        session.query("CREATE (:UpsertLock {key: 'Rocket:F9:USA'})", Collections.emptyMap());
+        ((Neo4jDAO) dao).createSchema();
+        ((Neo4jDAO) dao).setUpsertMode(Neo4jDAO.UpsertMode.MERGE);
+        try {
+            for (int i = 0; i < 10 * Neo4jDAO.LOCK_STRIPES; i++) {
+                dao.createOrUpdate(new Rocket("rocket_" + i, "USA", spacex));
+            }
+        } finally {
+            ((Neo4jDAO) dao).setUpsertMode(Neo4jDAO.UpsertMode.LOOKUP_THEN_SAVE);
+        }
+
+        assertEquals(10 * Neo4jDAO.LOCK_STRIPES, dao.loadAll(Rocket.class).size());
+        Map<String, Object> locks = ((Neo4jDAO) dao).query(
+                "MATCH (l:UpsertLock) RETURN count(l) AS locks, min(l.key) AS first, max(l.key) AS last",
+                Collections.emptyMap()).iterator().next();
+        assertTrue(((Number) locks.get("locks")).intValue() <= Neo4jDAO.LOCK_STRIPES);
+        assertTrue(((Number) locks.get("first")).intValue() >= 0);
+        assertTrue(((Number) locks.get("last")).intValue() < Neo4jDAO.LOCK_STRIPES);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenPageSizeIsNotPositive() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ((Neo4jDAO) dao).setPageSize(0));
+        assertEquals("pageSize must be positive", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> ((Neo4jDAO) dao).setBatchSize(0));
+        assertEquals("batchSize must be positive", exception.getMessage());
+    }
+
+    private Launch newLaunch(Rocket vehicle, LaunchServiceProvider provider, LocalDate date, Launch.LaunchOutcome outcome) {
+        Launch launch = new Launch();
+        launch.setLaunchDate(date);
+        launch.setLaunchVehicle(vehicle);
+        launch.setLaunchServiceProvider(provider);
+        launch.setLaunchSite("VAFB");
+        launch.setOrbit("LEO");
+        launch.setLaunchOutcome(outcome);
+        return launch;
+    }
+
     @AfterEach
     public void tearDown() {
         session.purgeDatabase();
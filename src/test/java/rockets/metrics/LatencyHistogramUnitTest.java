@@ -0,0 +1,56 @@
+package rockets.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramUnitTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 7, 8, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE})
+    public void shouldCountValueInBucketHoldingIt(long value) {
+        int bucket = LatencyHistogram.bucketOf(value);
+        assertTrue(value <= LatencyHistogram.upperBoundOf(bucket));
+        assertTrue(bucket == 0 || value > LatencyHistogram.upperBoundOf(bucket - 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.5, 0.95, 0.99})
+    public void shouldReportPercentileWithinBucketError(double quantile) {
+        Random random = new Random(5);
+        long[] values = new long[10_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1_000 + random.nextInt(10_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+        long reported = histogram.percentile(quantile);
+        assertTrue(reported >= exact, reported + " < " + exact);
+        assertTrue(reported <= exact * 1.125, reported + " > " + exact + " + 12.5%");
+    }
+
+    @DisplayName("should report the largest latency as max and cap percentiles with it")
+    @Test
+    public void shouldTrackMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_001);
+        histogram.record(-5);
+        assertEquals(1_001, histogram.max());
+        assertEquals(1_001, histogram.percentile(0.99));
+        assertEquals(0, histogram.percentile(0.5));
+    }
+
+    @DisplayName("should report 0 when nothing was recorded")
+    @Test
+    public void shouldReportZeroWhenEmpty() {
+        assertEquals(0, new LatencyHistogram().percentile(0.5));
+    }
+}
@@ -0,0 +1,86 @@
+package rockets.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.mining.RocketMiner;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsUnitTest {
+    private Metrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = new Metrics();
+    }
+
+    @DisplayName("should count the calls, rows and errors of an operation")
+    @Test
+    public void shouldCountCallsRowsAndErrors() {
+        assertEquals(Arrays.asList(1, 2), metrics.measure("op", () -> Arrays.asList(1, 2)));
+        assertNull(metrics.measure("op", () -> null));
+        metrics.measure("op", () -> "one");
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> metrics.measure("op", () -> {
+                    throw new IllegalStateException("failed");
+                }));
+        assertEquals("failed", exception.getMessage());
+
+        OperationStats stats = metrics.snapshot().get("op");
+        assertEquals(4, stats.getCalls());
+        assertEquals(1, stats.getErrors());
+        assertEquals(3, stats.getRows());
+        assertTrue(stats.getP50Nanos() <= stats.getP99Nanos());
+        assertTrue(stats.getP99Nanos() <= stats.getMaxNanos());
+    }
+
+    @DisplayName("should record the queries of a miner by name")
+    @Test
+    public void shouldRecordMinerQueries() {
+        InMemoryDAO dao = new InMemoryDAO();
+        LaunchServiceProvider spacex = dao.createOrUpdate(new LaunchServiceProvider("SpaceX", 2002, "USA"));
+        dao.createOrUpdate(new Rocket("Falcon9", "USA", spacex));
+        RocketMiner miner = new RocketMiner(dao);
+        miner.setMetrics(metrics);
+        miner.mostLaunchedRockets(3);
+        miner.mostReliableLaunchServiceProviders(3);
+        miner.mostReliableLaunchServiceProviders(3);
+        assertEquals(1, metrics.snapshot().get("RocketMiner.mostLaunchedRockets").getRows());
+        assertEquals(2, metrics.snapshot().get("RocketMiner.mostReliableLaunchServiceProviders").getCalls());
+        assertEquals(Arrays.asList("RocketMiner.mostLaunchedRockets", "RocketMiner.mostReliableLaunchServiceProviders"),
+                Arrays.asList(metrics.snapshot().keySet().toArray()));
+    }
+
+    @DisplayName("should expose every operation as an MBean, including later ones")
+    @Test
+    public void shouldRegisterMBeans() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        metrics.measure("before", () -> Collections.singletonList(1));
+        metrics.registerMBeans(server, "rockets");
+        metrics.measure("after", () -> Arrays.asList(1, 2));
+        assertEquals(1L, server.getAttribute(metrics.objectName("before"), "Calls"));
+        assertEquals(2L, server.getAttribute(metrics.objectName("after"), "Rows"));
+        assertTrue((Double) server.getAttribute(metrics.objectName("after"), "MaxMillis") >= 0);
+
+        metrics.unregisterMBeans();
+        assertTrue(server.queryNames(null, null).stream().noneMatch(n -> n.getDomain().equals("rockets")));
+    }
+
+    @DisplayName("should throw exception when the MBeans are registered twice")
+    @Test
+    public void shouldThrowExceptionWhenRegisteredTwice() {
+        metrics.registerMBeans(MBeanServerFactory.newMBeanServer(), "rockets");
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> metrics.registerMBeans(MBeanServerFactory.newMBeanServer(), "rockets"));
+        assertEquals("the MBeans are already registered", exception.getMessage());
+    }
+}
@@ -0,0 +1,124 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.mining.sketch.CountMinSketch;
+import rockets.mining.sketch.HeavyHitter;
+import rockets.mining.sketch.HyperLogLog;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApproximateRocketMinerUnitTest {
+    private static final String[] ORBITS = {"LEO", "GTO", "SSO"};
+
+    private DAO dao;
+    private RocketMiner miner;
+    private Map<Rocket, Long> launchCounts;
+
+    // rockets and providers are drawn with Zipf-like skew, so a few of them dominate
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(23);
+        dao = new InMemoryDAO();
+        List<LaunchServiceProvider> lsps = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lsps.add(dao.createOrUpdate(new LaunchServiceProvider("lsp_" + i, 1950, "country_" + i % 60)));
+        }
+        List<Rocket> rockets = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            rockets.add(dao.createOrUpdate(new Rocket("rocket_" + i, "USA", lsps.get(skewed(random, lsps.size())))));
+        }
+        launchCounts = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            Rocket rocket = rockets.get(skewed(random, rockets.size()));
+            Launch launch = new Launch();
+            launch.setLaunchVehicle(rocket);
+            launch.setLaunchServiceProvider(rocket.getManufacturer());
+            launch.setOrbit(ORBITS[random.nextInt(ORBITS.length)]);
+            dao.createOrUpdate(launch);
+            launchCounts.merge(rocket, 1L, Long::sum);
+        }
+        miner = new RocketMiner(dao);
+    }
+
+    private static int skewed(Random random, int n) {
+        return (int) Math.floor(Math.pow(n + 1, random.nextDouble())) - 1;
+    }
+
+    @DisplayName("should bound the launch counts of the most launched rockets and find the exact top ones")
+    @Test
+    public void shouldFindMostLaunchedRocketsWithinBounds() {
+        ApproximateRocketMiner approximate = new ApproximateRocketMiner(dao, 200, 12);
+        List<HeavyHitter<Rocket>> top = approximate.mostLaunchedRockets(10);
+        List<Rocket> exact = miner.mostLaunchedRockets(10);
+        assertEquals(10, top.size());
+        for (HeavyHitter<Rocket> hitter : top) {
+            long count = launchCounts.get(hitter.getItem());
+            assertTrue(hitter.getLowerBound() <= count && count <= hitter.getCount(), hitter.toString());
+        }
+        assertEquals(new HashSet<>(exact.subList(0, 5)),
+                top.subList(0, 5).stream().map(HeavyHitter::getItem).collect(Collectors.toSet()));
+    }
+
+    @DisplayName("should rank like the miner when every rocket has a counter")
+    @Test
+    public void shouldRankLikeTheMinerBelowCapacity() {
+        ApproximateRocketMiner approximate = new ApproximateRocketMiner(dao, 4_096, 12);
+        List<HeavyHitter<Rocket>> top = approximate.mostLaunchedRockets(20);
+        assertEquals(miner.mostLaunchedRockets(20), top.stream().map(HeavyHitter::getItem).collect(Collectors.toList()));
+        assertTrue(top.stream().allMatch(h -> h.getError() == 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"LEO", "GTO", "SSO"})
+    public void shouldFindDominantsLikeTheMiner(String orbit) {
+        ApproximateRocketMiner approximate = new ApproximateRocketMiner(dao, 16, 12);
+        HeavyHitter<String> country = approximate.dominantCountry(orbit);
+        HeavyHitter<LaunchServiceProvider> provider = approximate.dominantLaunchServiceProvider(orbit);
+        assertEquals(miner.dominantCountry(orbit), country.getItem());
+        assertEquals(miner.dominantLaunchServiceProvider(orbit), provider.getItem());
+        long launches = dao.loadAll(Launch.class).stream()
+                .filter(l -> l.getOrbit().equals(orbit) && l.getLaunchServiceProvider().equals(provider.getItem())).count();
+        assertTrue(provider.getLowerBound() <= launches && launches <= provider.getCount());
+    }
+
+    @DisplayName("should estimate rocket launch counts and distinct rockets within their bounds")
+    @Test
+    public void shouldEstimateCountsWithinBounds() {
+        ApproximateRocketMiner approximate = new ApproximateRocketMiner(dao);
+        CountMinSketch<Rocket> counts = approximate.rocketLaunchCounts();
+        for (Map.Entry<Rocket, Long> e : launchCounts.entrySet()) {
+            long estimate = counts.estimate(e.getKey());
+            assertTrue(e.getValue() <= estimate && estimate <= e.getValue() + counts.getErrorBound());
+        }
+        HyperLogLog distinct = approximate.distinctLaunchedRockets();
+        assertEquals(launchCounts.size(), distinct.estimate(), 3 * distinct.getStandardError() * launchCounts.size());
+    }
+
+    @DisplayName("should return null when no launch went to the orbit")
+    @Test
+    public void shouldReturnNullWhenOrbitHasNoLaunch() {
+        ApproximateRocketMiner approximate = new ApproximateRocketMiner(dao);
+        assertNull(approximate.dominantCountry("HEO"));
+        assertNull(approximate.dominantLaunchServiceProvider("HEO"));
+    }
+
+    @DisplayName("should throw exception when counters is not positive")
+    @Test
+    public void shouldThrowExceptionWhenCountersIsNotPositive() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new ApproximateRocketMiner(dao, 0, 12));
+        assertEquals("counters must be positive", exception.getMessage());
+    }
+}
@@ -0,0 +1,161 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncRocketMinerUnitTest {
+    private RocketMiner miner;
+    private Deque<Runnable> tasks;
+    private ScheduledExecutorService scheduler;
+    private AsyncRocketMiner asyncMiner;
+    private List<Rocket> rockets;
+
+    @BeforeEach
+    public void setUp() {
+        LaunchServiceProvider spacex = new LaunchServiceProvider("SpaceX", 2002, "USA");
+        rockets = Arrays.asList(new Rocket("Falcon9", "USA", spacex), new Rocket("FalconHeavy", "USA", spacex));
+        miner = mock(RocketMiner.class);
+        when(miner.mostLaunchedRockets(2)).thenAnswer(invocation -> new ArrayList<>(rockets));
+        when(miner.dominantCountry("LEO")).thenReturn("USA");
+        // queries run only when the test runs the submitted tasks
+        tasks = new ArrayDeque<>();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        asyncMiner = new AsyncRocketMiner(miner, tasks::add, scheduler);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    @DisplayName("should share one computation between concurrent identical queries")
+    @Test
+    public void shouldCoalesceIdenticalQueries() throws Exception {
+        CompletableFuture<List<Rocket>> first = asyncMiner.mostLaunchedRockets(2);
+        CompletableFuture<List<Rocket>> second = asyncMiner.mostLaunchedRockets(2);
+        CompletableFuture<String> country = asyncMiner.dominantCountry("LEO");
+        assertEquals(2, tasks.size());
+        assertEquals(2, asyncMiner.inFlight());
+        runTasks();
+        assertEquals(rockets, first.get());
+        assertEquals(rockets, second.get());
+        assertEquals("USA", country.get());
+        verify(miner, times(1)).mostLaunchedRockets(2);
+        assertEquals(0, asyncMiner.inFlight());
+    }
+
+    @DisplayName("should compute a query again once the shared computation is done")
+    @Test
+    public void shouldNotCoalesceSequentialQueries() throws Exception {
+        asyncMiner.mostLaunchedRockets(2);
+        runTasks();
+        CompletableFuture<List<Rocket>> again = asyncMiner.mostLaunchedRockets(2);
+        runTasks();
+        assertEquals(rockets, again.get());
+        verify(miner, times(2)).mostLaunchedRockets(2);
+    }
+
+    @DisplayName("should give each caller its own copy of a list")
+    @Test
+    public void shouldCopyResultsForEachCaller() throws Exception {
+        CompletableFuture<List<Rocket>> first = asyncMiner.mostLaunchedRockets(2);
+        CompletableFuture<List<Rocket>> second = asyncMiner.mostLaunchedRockets(2);
+        runTasks();
+        first.get().clear();
+        assertEquals(rockets, second.get());
+    }
+
+    @DisplayName("should keep computing for the callers that did not cancel")
+    @Test
+    public void shouldCancelOneCaller() throws Exception {
+        CompletableFuture<List<Rocket>> cancelled = asyncMiner.mostLaunchedRockets(2);
+        CompletableFuture<List<Rocket>> kept = asyncMiner.mostLaunchedRockets(2);
+        assertTrue(cancelled.cancel(false));
+        runTasks();
+        assertTrue(cancelled.isCancelled());
+        assertEquals(rockets, kept.get());
+    }
+
+    @DisplayName("should skip a computation every caller cancelled")
+    @Test
+    public void shouldSkipAbandonedComputation() throws Exception {
+        asyncMiner.mostLaunchedRockets(2).cancel(false);
+        asyncMiner.mostLaunchedRockets(2).cancel(false);
+        assertEquals(0, asyncMiner.inFlight());
+        CompletableFuture<List<Rocket>> later = asyncMiner.mostLaunchedRockets(2);
+        runTasks();
+        assertEquals(rockets, later.get());
+        verify(miner, times(1)).mostLaunchedRockets(2);
+    }
+
+    @DisplayName("should fail with a timeout when the result is late")
+    @Test
+    public void shouldTimeOut() throws Exception {
+        asyncMiner.setTimeout(Duration.ofMillis(20));
+        CompletableFuture<List<Rocket>> late = asyncMiner.mostLaunchedRockets(2);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> late.get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+        // the caller leaves the computation on the scheduler thread, after get returned
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (asyncMiner.inFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, asyncMiner.inFlight());
+        runTasks();
+        verify(miner, never()).mostLaunchedRockets(2);
+    }
+
+    @DisplayName("should fail the callers with the exception of the query")
+    @Test
+    public void shouldPropagateExceptions() {
+        when(miner.mostRecentLaunches(-1)).thenThrow(new IllegalArgumentException("k cannot be negative"));
+        CompletableFuture<?> failed = asyncMiner.mostRecentLaunches(-1);
+        runTasks();
+        ExecutionException exception = assertThrows(ExecutionException.class, failed::get);
+        assertEquals("k cannot be negative", exception.getCause().getMessage());
+    }
+
+    @DisplayName("should answer like the miner on a thread pool")
+    @Test
+    public void shouldRunOnExecutor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            AsyncRocketMiner pooled = new AsyncRocketMiner(miner, executor);
+            List<CompletableFuture<List<Rocket>>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(pooled.mostLaunchedRockets(2));
+            }
+            for (CompletableFuture<List<Rocket>> future : futures) {
+                assertEquals(rockets, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @DisplayName("should throw exception when a timeout is set without a scheduler")
+    @Test
+    public void shouldThrowExceptionWhenTimeoutHasNoScheduler() {
+        AsyncRocketMiner unscheduled = new AsyncRocketMiner(miner, tasks::add);
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> unscheduled.setTimeout(Duration.ofSeconds(1)));
+        assertEquals("timeouts need a scheduler", exception.getMessage());
+    }
+}
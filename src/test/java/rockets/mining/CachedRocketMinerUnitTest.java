@@ -0,0 +1,118 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rockets.dataaccess.DataVersions;
+import rockets.dataaccess.ObservableDAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+import rockets.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachedRocketMinerUnitTest {
+    private ObservableDAO dao;
+    private RocketMiner miner;
+    private CachedRocketMiner cachedMiner;
+    private Rocket falcon;
+    private LaunchServiceProvider spacex;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(3);
+        dao = new ObservableDAO(new InMemoryDAO());
+        DataVersions versions = new DataVersions();
+        dao.addListener(versions);
+        spacex = dao.createOrUpdate(new LaunchServiceProvider("SpaceX", 2002, "USA"));
+        LaunchServiceProvider esa = dao.createOrUpdate(new LaunchServiceProvider("ESA", 1975, "Europe"));
+        falcon = dao.createOrUpdate(new Rocket("Falcon9", "USA", spacex));
+        Rocket ariane = dao.createOrUpdate(new Rocket("Ariane5", "Europe", esa));
+        for (int i = 0; i < 20; i++) {
+            Rocket rocket = i % 3 == 0 ? ariane : falcon;
+            dao.createOrUpdate(newLaunch(rocket, LocalDate.of(2017, 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    i % 2 == 0 ? "LEO" : "GTO", random.nextInt(1000)));
+        }
+        miner = new RocketMiner(dao);
+        cachedMiner = new CachedRocketMiner(dao, versions, new MinerCache(100, MinerCache.Eviction.LRU));
+    }
+
+    private Launch newLaunch(Rocket rocket, LocalDate date, String orbit, int price) {
+        Launch launch = new Launch();
+        launch.setLaunchDate(date);
+        launch.setLaunchVehicle(rocket);
+        launch.setLaunchServiceProvider(rocket.getManufacturer());
+        launch.setOrbit(orbit);
+        launch.setPrice(BigDecimal.valueOf(price));
+        launch.setLaunchOutcome(Launch.LaunchOutcome.SUCCESSFUL);
+        return launch;
+    }
+
+    @DisplayName("should answer like the miner, from the cache the second time")
+    @Test
+    public void shouldAnswerLikeTheMiner() {
+        for (int round = 0; round < 2; round++) {
+            assertEquals(miner.mostLaunchedRockets(2), cachedMiner.mostLaunchedRockets(2));
+            assertEquals(miner.mostRecentLaunches(5), cachedMiner.mostRecentLaunches(5));
+            assertEquals(miner.mostExpensiveLaunches(3), cachedMiner.mostExpensiveLaunches(3));
+            assertEquals(miner.mostReliableLaunchServiceProviders(2), cachedMiner.mostReliableLaunchServiceProviders(2));
+            assertEquals(miner.highestRevenueLaunchServiceProviders(2, 2017), cachedMiner.highestRevenueLaunchServiceProviders(2, 2017));
+            assertEquals(miner.launchesInMonth(2017, 3), cachedMiner.launchesInMonth(2017, 3));
+            assertEquals(miner.dominantCountry("LEO"), cachedMiner.dominantCountry("LEO"));
+            assertEquals(miner.dominantLaunchServiceProvider("GTO"), cachedMiner.dominantLaunchServiceProvider("GTO"));
+            assertEquals(miner.dominanceTable(), cachedMiner.dominanceTable());
+        }
+        MinerCache.Stats stats = cachedMiner.getCache().stats();
+        assertEquals(stats.getMisses(), stats.getHits());
+    }
+
+    @DisplayName("should recompute the queries that read a written entity type")
+    @Test
+    public void shouldInvalidateOnWrite() {
+        List<Launch> recent = cachedMiner.mostRecentLaunches(1);
+        List<LaunchServiceProvider> reliable = cachedMiner.mostReliableLaunchServiceProviders(2);
+        Launch newest = dao.createOrUpdate(newLaunch(falcon, LocalDate.of(2019, 1, 1), "LEO", 1));
+        assertEquals(Collections.singletonList(newest), cachedMiner.mostRecentLaunches(1));
+        assertEquals(reliable, cachedMiner.mostReliableLaunchServiceProviders(2));
+        assertNotEquals(recent, cachedMiner.mostRecentLaunches(1));
+        assertEquals(2, cachedMiner.getCache().stats().getInvalidations());
+    }
+
+    @DisplayName("should recompute the queries that read an entity type a save cascades to")
+    @Test
+    public void shouldInvalidateOnCascadedWrite() {
+        cachedMiner.mostReliableLaunchServiceProviders(2);
+        spacex.setHeadquarters("Hawthorne");
+        dao.createOrUpdate(new Rocket("Starship", "USA", spacex));
+        assertEquals(miner.mostReliableLaunchServiceProviders(2), cachedMiner.mostReliableLaunchServiceProviders(2));
+        assertEquals(1, cachedMiner.getCache().stats().getInvalidations());
+    }
+
+    @DisplayName("should keep the results when an entity type no query reads is written")
+    @Test
+    public void shouldNotInvalidateOnUnrelatedWrite() {
+        cachedMiner.mostLaunchedRockets(2);
+        cachedMiner.dominantCountry("LEO");
+        User user = new User();
+        user.setEmail("abc@example.com");
+        dao.createOrUpdate(user);
+        cachedMiner.mostLaunchedRockets(2);
+        cachedMiner.dominantCountry("LEO");
+        assertEquals(2, cachedMiner.getCache().stats().getHits());
+        assertEquals(0, cachedMiner.getCache().stats().getInvalidations());
+    }
+
+    @DisplayName("should not let callers change the cached results")
+    @Test
+    public void shouldCopyResults() {
+        List<Rocket> rockets = cachedMiner.mostLaunchedRockets(2);
+        rockets.clear();
+        assertEquals(miner.mostLaunchedRockets(2), cachedMiner.mostLaunchedRockets(2));
+    }
+}
@@ -0,0 +1,166 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+import rockets.model.Payloads;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LaunchColumnStoreUnitTest {
+    private DAO dao;
+    private RocketMiner miner;
+    private RocketMiner columnMiner;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(7);
+        dao = new InMemoryDAO();
+        List<LaunchServiceProvider> lsps = Arrays.asList(
+                new LaunchServiceProvider("ULA", 1990, "USA"),
+                new LaunchServiceProvider("SpaceX", 2002, "USA"),
+                new LaunchServiceProvider("ESA", 1975, "Europe"),
+                new LaunchServiceProvider("CASC", 1999, "China"),
+                new LaunchServiceProvider("Roscosmos", 1992, "Russia"));
+        for (LaunchServiceProvider lsp : lsps) {
+            dao.createOrUpdate(lsp);
+        }
+        List<Rocket> rockets = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Rocket rocket = new Rocket("rocket_" + i, "USA", lsps.get(i % 4));
+            rocket.setMassToLEO(100_000);
+            rocket.setMassToGTO(100_000);
+            rocket.setMassToOther(100_000);
+            rockets.add(dao.createOrUpdate(rocket));
+        }
+        String[] orbits = {"LEO", "GTO", "SSO"};
+        for (int i = 0; i < 200; i++) {
+            Rocket rocket = rockets.get(random.nextInt(10));
+            Launch launch = new Launch();
+            launch.setLaunchDate(LocalDate.of(2015 + random.nextInt(4), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            launch.setLaunchVehicle(rocket);
+            launch.setLaunchServiceProvider(rocket.getManufacturer());
+            launch.setLaunchSite("site_" + random.nextInt(3));
+            launch.setOrbit(orbits[random.nextInt(orbits.length)]);
+            launch.setPrice(BigDecimal.valueOf(random.nextInt(10_000), random.nextInt(3)));
+            launch.setLaunchOutcome(random.nextInt(4) == 0 ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+            Set<Payloads> payloads = new HashSet<>();
+            for (int j = 0; j < 1 + random.nextInt(3); j++) {
+                Payloads payload = new Payloads("payload_" + i + "_" + j, "USA", "SPACEX");
+                payload.setMassToLEO(random.nextInt(5_000));
+                payload.setMassToGTO(random.nextInt(2_000));
+                payload.setMassToOther(random.nextInt(1_000));
+                payloads.add(payload);
+            }
+            launch.setPayload(payloads);
+            dao.createOrUpdate(launch);
+        }
+        miner = new RocketMiner(dao);
+        columnMiner = new RocketMiner(dao);
+        columnMiner.setColumnStore(LaunchColumnStore.load(dao));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3, 12, 20})
+    public void shouldRankLikeTheMinerWithTopK(int k) {
+        assertEquals(miner.mostLaunchedRockets(k), columnMiner.mostLaunchedRockets(k));
+        assertEquals(miner.mostReliableLaunchServiceProviders(k), columnMiner.mostReliableLaunchServiceProviders(k));
+        assertEquals(miner.mostRecentLaunches(k), columnMiner.mostRecentLaunches(k));
+        assertEquals(miner.mostExpensiveLaunches(k), columnMiner.mostExpensiveLaunches(k));
+        assertEquals(miner.lightestPayloadsLauchInLEO(k), columnMiner.lightestPayloadsLauchInLEO(k));
+        for (int year = 2014; year <= 2018; year++) {
+            assertEquals(miner.highestRevenueLaunchServiceProviders(k, year), columnMiner.highestRevenueLaunchServiceProviders(k, year));
+        }
+        for (ReliabilityRanking ranking : ReliabilityRanking.values()) {
+            assertEquals(miner.mostReliableLaunchServiceProviders(k, ranking, 50),
+                    columnMiner.mostReliableLaunchServiceProviders(k, ranking, 50));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"LEO", "GTO", "SSO"})
+    public void shouldFindDominantsLikeTheMiner(String orbit) {
+        assertEquals(miner.dominantCountry(orbit), columnMiner.dominantCountry(orbit));
+        assertEquals(miner.dominantLaunchServiceProvider(orbit), columnMiner.dominantLaunchServiceProvider(orbit));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"LEO", "gto", "Other", "SSO"})
+    public void shouldFindDominantCountryInPayloadsLikeTheMiner(String orbit) {
+        assertEquals(miner.dominantCountryInPayLoads(orbit), columnMiner.dominantCountryInPayLoads(orbit));
+    }
+
+    @DisplayName("should return null when no launch went to the orbit")
+    @Test
+    public void shouldReturnNullWhenOrbitHasNoLaunch() {
+        assertNull(columnMiner.dominantCountry("HEO"));
+        assertNull(columnMiner.dominantLaunchServiceProvider("HEO"));
+    }
+
+    @DisplayName("should leave a launch without vehicle or provider out of the rankings")
+    @Test
+    public void shouldSkipLaunchWithoutVehicleOrProvider() {
+        List<Rocket> rockets = miner.mostLaunchedRockets(20);
+        List<LaunchServiceProvider> reliable = miner.mostReliableLaunchServiceProviders(20);
+        List<LaunchServiceProvider> revenue = miner.highestRevenueLaunchServiceProviders(20, 2016);
+        Map<String, Object> dominants = new HashMap<>();
+        for (String orbit : new String[]{"LEO", "GTO", "SSO"}) {
+            dominants.put("country " + orbit, miner.dominantCountry(orbit));
+            dominants.put("provider " + orbit, miner.dominantLaunchServiceProvider(orbit));
+            dominants.put("payloads " + orbit, miner.dominantCountryInPayLoads(orbit));
+        }
+        // launched often enough to rank first if it were counted
+        for (int i = 0; i < 100; i++) {
+            Launch launch = new Launch();
+            launch.setLaunchDate(LocalDate.of(2016, 6, 1));
+            launch.setOrbit("LEO");
+            launch.setPrice(BigDecimal.valueOf(1_000_000));
+            launch.setLaunchOutcome(Launch.LaunchOutcome.SUCCESSFUL);
+            dao.createOrUpdate(launch);
+        }
+        columnMiner.setColumnStore(LaunchColumnStore.load(dao));
+
+        assertEquals(rockets, columnMiner.mostLaunchedRockets(20));
+        assertEquals(reliable, columnMiner.mostReliableLaunchServiceProviders(20));
+        assertEquals(revenue, columnMiner.highestRevenueLaunchServiceProviders(20, 2016));
+        for (String orbit : new String[]{"LEO", "GTO", "SSO"}) {
+            assertEquals(dominants.get("country " + orbit), columnMiner.dominantCountry(orbit));
+            assertEquals(dominants.get("provider " + orbit), columnMiner.dominantLaunchServiceProvider(orbit));
+            assertEquals(dominants.get("payloads " + orbit), columnMiner.dominantCountryInPayLoads(orbit));
+        }
+    }
+
+    @DisplayName("should not see launches saved after the store was loaded")
+    @Test
+    public void shouldBeASnapshot() {
+        LaunchColumnStore store = LaunchColumnStore.load(dao);
+        Launch launch = new Launch();
+        launch.setLaunchDate(LocalDate.of(2020, 1, 1));
+        launch.setOrbit("LEO");
+        dao.createOrUpdate(launch);
+        assertEquals(200, store.size());
+    }
+
+    @DisplayName("should throw exception when prices are in different currencies")
+    @Test
+    public void shouldThrowExceptionWhenCurrenciesDiffer() {
+        Launch launch = dao.loadAll(Launch.class).iterator().next();
+        launch.setPriceMoney(Money.ofMinor(100, "EUR"));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> LaunchColumnStore.load(dao));
+        assertEquals("cannot mix EUR and USD", exception.getMessage());
+    }
+}
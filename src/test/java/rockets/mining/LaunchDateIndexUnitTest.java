@@ -0,0 +1,149 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.dataaccess.ObservableDAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Launch;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LaunchDateIndexUnitTest {
+    private Random random;
+    private ObservableDAO dao;
+    private LaunchDateIndex index;
+    private RocketMiner miner;
+    private RocketMiner indexMiner;
+
+    @BeforeEach
+    public void setUp() {
+        random = new Random(17);
+        dao = new ObservableDAO(new InMemoryDAO());
+        for (int i = 0; i < 300; i++) {
+            dao.createOrUpdate(newLaunch());
+        }
+        index = LaunchDateIndex.load(dao);
+        dao.addListener(index);
+        miner = new RocketMiner(dao);
+        indexMiner = new RocketMiner(dao);
+        indexMiner.setDateIndex(index);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 10, 300, 400})
+    public void shouldFindMostRecentLaunchesLikeTheMiner(int k) {
+        assertEquals(miner.mostRecentLaunches(k), indexMiner.mostRecentLaunches(k));
+    }
+
+    @DisplayName("should find the launches of date windows, quarters and months like the miner")
+    @Test
+    public void shouldFindLaunchesOfWindowsLikeTheMiner() {
+        assertWindowsLikeTheMiner();
+    }
+
+    @DisplayName("should follow created, moved and deleted launches")
+    @Test
+    public void shouldFollowWrites() {
+        List<Launch> launches = new ArrayList<>(dao.loadAll(Launch.class));
+        for (int i = 0; i < 50; i++) {
+            Launch launch = launches.get(random.nextInt(launches.size()));
+            launch.setLaunchDate(LocalDate.of(2017, 1, 1).plusDays(random.nextInt(60)));
+            dao.createOrUpdate(launch);
+        }
+        for (Launch launch : launches.subList(0, 100)) {
+            dao.delete(launch);
+        }
+        for (int i = 0; i < 50; i++) {
+            dao.createOrUpdate(newLaunch());
+        }
+        assertEquals(miner.mostRecentLaunches(400), indexMiner.mostRecentLaunches(400));
+        assertWindowsLikeTheMiner();
+    }
+
+    @DisplayName("should stay ordered while launches are saved concurrently")
+    @Test
+    public void shouldStayOrderedUnderConcurrentWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                long seed = w;
+                writers.add(executor.submit(() -> {
+                    Random writerRandom = new Random(seed);
+                    for (int i = 0; i < 500; i++) {
+                        Launch launch = new Launch();
+                        launch.setLaunchDate(LocalDate.of(2000, 1, 1).plusDays(writerRandom.nextInt(10_000)));
+                        launch.setOrbit("LEO");
+                        dao.createOrUpdate(launch);
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        List<Launch> recent = index.mostRecentLaunches(50);
+                        for (int i = 1; i < recent.size(); i++) {
+                            assertFalse(recent.get(i).getLaunchDate().isAfter(recent.get(i - 1).getLaunchDate()));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+        List<Launch> all = index.mostRecentLaunches(10_000);
+        assertEquals(2_300, all.size());
+        assertEquals(new HashSet<>(dao.loadAll(Launch.class)), new HashSet<>(all));
+    }
+
+    @DisplayName("should throw exception when a window is empty or out of the calendar")
+    @Test
+    public void shouldThrowExceptionWhenWindowIsInvalid() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> indexMiner.launchesBetween(LocalDate.of(2016, 2, 1), LocalDate.of(2016, 1, 1)));
+        assertEquals("from cannot be after to", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> miner.launchesInQuarter(2016, 5));
+        assertEquals("quarter must be between 1 and 4", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> miner.launchesInMonth(2016, 0));
+        assertEquals("month must be between 1 and 12", exception.getMessage());
+    }
+
+    private Launch newLaunch() {
+        Launch launch = new Launch();
+        // few distinct days so that there are many launches on the same day
+        launch.setLaunchDate(LocalDate.of(2015, 1, 1).plusDays(random.nextInt(900)));
+        launch.setOrbit("LEO");
+        return launch;
+    }
+
+    private void assertWindowsLikeTheMiner() {
+        assertEquals(miner.launchesBetween(LocalDate.of(2015, 3, 10), LocalDate.of(2016, 7, 4)),
+                indexMiner.launchesBetween(LocalDate.of(2015, 3, 10), LocalDate.of(2016, 7, 4)));
+        assertEquals(miner.launchesBetween(LocalDate.of(2010, 1, 1), LocalDate.of(2010, 12, 31)),
+                indexMiner.launchesBetween(LocalDate.of(2010, 1, 1), LocalDate.of(2010, 12, 31)));
+        for (int quarter = 1; quarter <= 4; quarter++) {
+            assertEquals(miner.launchesInQuarter(2016, quarter), indexMiner.launchesInQuarter(2016, quarter));
+        }
+        for (int month = 1; month <= 12; month++) {
+            assertEquals(miner.launchesInMonth(2015, month), indexMiner.launchesInMonth(2015, month));
+        }
+    }
+}
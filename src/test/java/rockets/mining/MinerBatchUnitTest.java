@@ -0,0 +1,152 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MinerBatchUnitTest {
+    private DAO dao;
+    private RocketMiner miner;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(5);
+        dao = spy(new InMemoryDAO());
+        List<LaunchServiceProvider> lsps = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            lsps.add(dao.createOrUpdate(new LaunchServiceProvider("lsp_" + i, 1950 + i, "country_" + i % 3)));
+        }
+        List<Rocket> rockets = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            rockets.add(dao.createOrUpdate(new Rocket("rocket_" + i, "USA", lsps.get(i % 5))));
+        }
+        String[] orbits = {"LEO", "GTO", "SSO"};
+        for (int i = 0; i < 500; i++) {
+            Rocket rocket = rockets.get(random.nextInt(12));
+            Launch launch = new Launch();
+            launch.setLaunchDate(LocalDate.of(2015 + random.nextInt(4), 1 + random.nextInt(12), 1));
+            launch.setLaunchVehicle(rocket);
+            launch.setLaunchServiceProvider(rocket.getManufacturer());
+            launch.setOrbit(orbits[random.nextInt(orbits.length)]);
+            launch.setPrice(BigDecimal.valueOf(random.nextInt(100)));
+            launch.setLaunchOutcome(random.nextInt(4) == 0 ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+            dao.createOrUpdate(launch);
+        }
+        miner = new RocketMiner(dao);
+    }
+
+    @DisplayName("should answer every query like the miner")
+    @Test
+    public void shouldAnswerLikeTheMiner() {
+        assertAnswersLikeTheMiner(miner);
+    }
+
+    @DisplayName("should answer every query like the miner when the pass runs in parallel")
+    @Test
+    public void shouldAnswerLikeTheMinerInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            RocketMiner parallelMiner = new RocketMiner(dao);
+            parallelMiner.setForkJoinPool(pool);
+            assertAnswersLikeTheMiner(parallelMiner);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @DisplayName("should pass queries on to the column store")
+    @Test
+    public void shouldPassQueriesOnToColumnStore() {
+        RocketMiner columnMiner = new RocketMiner(dao);
+        columnMiner.setColumnStore(LaunchColumnStore.load(dao));
+        assertAnswersLikeTheMiner(columnMiner);
+    }
+
+    @DisplayName("should load each entity type once per batch")
+    @Test
+    public void shouldLoadOncePerBatch() {
+        MinerBatch batch = miner.batch();
+        batch.mostLaunchedRockets(3);
+        batch.mostReliableLaunchServiceProviders(3);
+        batch.dominantCountry("LEO");
+        batch.mostExpensiveLaunches(3);
+        batch.highestRevenueLaunchServiceProviders(3, 2016);
+        batch.highestRevenueLaunchServiceProviders(3, 2017);
+        batch.run();
+        verify(dao, times(1)).loadAll(Launch.class);
+        verify(dao, times(1)).loadAll(Rocket.class);
+        verify(dao, times(1)).loadAll(LaunchServiceProvider.class);
+    }
+
+    @DisplayName("should throw exception when a result is read before the batch has run")
+    @Test
+    public void shouldThrowExceptionWhenNotRun() {
+        MinerBatch.Result<String> result = miner.batch().dominantCountry("LEO");
+        assertFalse(result.isDone());
+        IllegalStateException exception = assertThrows(IllegalStateException.class, result::get);
+        assertEquals("the batch has not run yet", exception.getMessage());
+    }
+
+    @DisplayName("should throw exception when the batch is run twice")
+    @Test
+    public void shouldThrowExceptionWhenRunTwice() {
+        MinerBatch batch = miner.batch();
+        batch.mostLaunchedRockets(1);
+        batch.run();
+        IllegalStateException exception = assertThrows(IllegalStateException.class, batch::run);
+        assertEquals("the batch has already run", exception.getMessage());
+        assertThrows(IllegalStateException.class, () -> batch.mostLaunchedRockets(1));
+    }
+
+    @DisplayName("should throw exception when k is negative")
+    @Test
+    public void shouldThrowExceptionWhenKIsNegative() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> miner.batch().mostExpensiveLaunches(-1));
+        assertEquals("k cannot be negative", exception.getMessage());
+    }
+
+    private void assertAnswersLikeTheMiner(RocketMiner batchMiner) {
+        MinerBatch batch = batchMiner.batch();
+        List<MinerBatch.Result<List<Rocket>>> rockets = new ArrayList<>();
+        List<MinerBatch.Result<List<LaunchServiceProvider>>> reliable = new ArrayList<>();
+        List<MinerBatch.Result<List<Launch>>> expensive = new ArrayList<>();
+        int[] ks = {0, 1, 4, 20};
+        for (int k : ks) {
+            rockets.add(batch.mostLaunchedRockets(k));
+            reliable.add(batch.mostReliableLaunchServiceProviders(k, ReliabilityRanking.WILSON_LOWER_BOUND, 80));
+            expensive.add(batch.mostExpensiveLaunches(k));
+        }
+        Map<Integer, MinerBatch.Result<List<LaunchServiceProvider>>> revenue = new HashMap<>();
+        for (int year = 2014; year <= 2018; year++) {
+            revenue.put(year, batch.highestRevenueLaunchServiceProviders(3, year));
+        }
+        MinerBatch.Result<String> leo = batch.dominantCountry("LEO");
+        MinerBatch.Result<List<LaunchServiceProvider>> mostReliable = batch.mostReliableLaunchServiceProviders(4);
+        batch.run();
+
+        for (int i = 0; i < ks.length; i++) {
+            assertEquals(miner.mostLaunchedRockets(ks[i]), rockets.get(i).get());
+            assertEquals(miner.mostReliableLaunchServiceProviders(ks[i], ReliabilityRanking.WILSON_LOWER_BOUND, 80), reliable.get(i).get());
+            assertEquals(miner.mostExpensiveLaunches(ks[i]), expensive.get(i).get());
+        }
+        for (int year = 2014; year <= 2018; year++) {
+            assertEquals(miner.highestRevenueLaunchServiceProviders(3, year), revenue.get(year).get());
+        }
+        assertEquals(miner.dominantCountry("LEO"), leo.get());
+        assertEquals(miner.mostReliableLaunchServiceProviders(4), mostReliable.get());
+    }
+}
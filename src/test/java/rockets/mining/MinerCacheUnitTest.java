@@ -0,0 +1,132 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MinerCacheUnitTest {
+    private final AtomicInteger computations = new AtomicInteger();
+
+    private String get(MinerCache cache, String key, long version) {
+        return cache.get(key, version, () -> key + computations.incrementAndGet());
+    }
+
+    @DisplayName("should compute a query once while its version is current")
+    @Test
+    public void shouldReturnCachedResult() {
+        MinerCache cache = new MinerCache(10, MinerCache.Eviction.LRU);
+        assertEquals("a1", get(cache, "a", 0));
+        assertEquals("a1", get(cache, "a", 0));
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @DisplayName("should recompute a query when its version changed")
+    @Test
+    public void shouldInvalidateOnNewVersion() {
+        MinerCache cache = new MinerCache(10, MinerCache.Eviction.LRU);
+        get(cache, "a", 0);
+        assertEquals("a2", get(cache, "a", 1));
+        assertEquals("a2", get(cache, "a", 1));
+        assertEquals(1, cache.stats().getInvalidations());
+        assertEquals(1, cache.size());
+    }
+
+    @DisplayName("should cache null results")
+    @Test
+    public void shouldCacheNull() {
+        MinerCache cache = new MinerCache(10, MinerCache.Eviction.LFU);
+        assertNull(cache.get("a", 0, () -> null));
+        assertNull(cache.get("a", 0, () -> "computed again"));
+        assertEquals(1, cache.stats().getHits());
+    }
+
+    @DisplayName("should evict the least recently used result")
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        MinerCache cache = new MinerCache(2, MinerCache.Eviction.LRU);
+        get(cache, "a", 0);
+        get(cache, "b", 0);
+        get(cache, "a", 0);
+        get(cache, "c", 0);
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals("a1", get(cache, "a", 0));
+        assertEquals("b4", get(cache, "b", 0));
+    }
+
+    @DisplayName("should evict the least frequently used result, then the least recently used one")
+    @Test
+    public void shouldEvictLeastFrequentlyUsed() {
+        MinerCache cache = new MinerCache(3, MinerCache.Eviction.LFU);
+        get(cache, "a", 0);
+        get(cache, "a", 0);
+        get(cache, "b", 0);
+        get(cache, "c", 0);
+        get(cache, "b", 0);
+        // c is used least
+        get(cache, "d", 0);
+        assertEquals("a1", get(cache, "a", 0));
+        assertEquals("b2", get(cache, "b", 0));
+        assertEquals("d4", get(cache, "d", 0));
+        // a and b are used three times, d twice
+        get(cache, "e", 0);
+        assertEquals("b2", get(cache, "b", 0));
+        assertEquals("d6", get(cache, "d", 0));
+        assertEquals(3, cache.stats().getEvictions());
+    }
+
+    @DisplayName("should find the least frequently used result after an invalidation")
+    @Test
+    public void shouldEvictLeastFrequentlyUsedAfterInvalidation() {
+        MinerCache cache = new MinerCache(2, MinerCache.Eviction.LFU);
+        get(cache, "a", 0);
+        get(cache, "b", 0);
+        get(cache, "b", 0);
+        get(cache, "a", 1);
+        get(cache, "b", 0);
+        get(cache, "c", 0);
+        assertEquals("b2", get(cache, "b", 0));
+        assertEquals("c4", get(cache, "c", 0));
+    }
+
+    @DisplayName("should recompute a result once it outlived its time to live")
+    @Test
+    public void shouldExpireResults() {
+        AtomicLong now = new AtomicLong();
+        MinerCache cache = new MinerCache(10, MinerCache.Eviction.LRU, Duration.ofSeconds(1), now::get);
+        get(cache, "a", 0);
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        assertEquals("a1", get(cache, "a", 0));
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        assertEquals("a2", get(cache, "a", 0));
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @DisplayName("should drop every result")
+    @Test
+    public void shouldInvalidateAll() {
+        MinerCache cache = new MinerCache(10, MinerCache.Eviction.LFU);
+        get(cache, "a", 0);
+        get(cache, "b", 0);
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals("a3", get(cache, "a", 0));
+    }
+
+    @DisplayName("should throw exception when the size or time to live is not positive")
+    @Test
+    public void shouldThrowExceptionWhenNotPositive() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new MinerCache(0, MinerCache.Eviction.LRU));
+        assertEquals("maximumSize must be positive", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new MinerCache(1, MinerCache.Eviction.LRU, Duration.ZERO));
+        assertEquals("timeToLive must be positive", exception.getMessage());
+    }
+}
@@ -0,0 +1,192 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rockets.dataaccess.ObservableDAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MinerViewsUnitTest {
+    private static final String[] ORBITS = {"LEO", "GTO", "SSO"};
+
+    private Random random;
+    private ObservableDAO dao;
+    private RocketMiner miner;
+    private RocketMiner viewMiner;
+    private List<LaunchServiceProvider> lsps;
+    private List<Rocket> rockets;
+
+    @BeforeEach
+    public void setUp() {
+        random = new Random(11);
+        dao = new ObservableDAO(new InMemoryDAO());
+        lsps = new ArrayList<>(Arrays.asList(
+                new LaunchServiceProvider("ULA", 1990, "USA"),
+                new LaunchServiceProvider("SpaceX", 2002, "USA"),
+                new LaunchServiceProvider("ESA", 1975, "Europe"),
+                new LaunchServiceProvider("CASC", 1999, "China"),
+                new LaunchServiceProvider("Roscosmos", 1992, "Russia")));
+        for (LaunchServiceProvider lsp : lsps) {
+            dao.createOrUpdate(lsp);
+        }
+        rockets = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            rockets.add(dao.createOrUpdate(new Rocket("rocket_" + i, "USA", lsps.get(i % 4))));
+        }
+        for (int i = 0; i < 100; i++) {
+            dao.createOrUpdate(newLaunch());
+        }
+        MinerViews views = MinerViews.load(dao);
+        dao.addListener(views);
+        miner = new RocketMiner(dao);
+        viewMiner = new RocketMiner(dao);
+        viewMiner.setViews(views);
+    }
+
+    @DisplayName("should rank like the miner right after loading")
+    @Test
+    public void shouldRankLikeTheMinerAfterLoading() {
+        assertRankLikeTheMiner();
+    }
+
+    @DisplayName("should follow launches created after loading")
+    @Test
+    public void shouldFollowCreatedLaunches() {
+        for (int i = 0; i < 50; i++) {
+            dao.createOrUpdate(newLaunch());
+        }
+        assertRankLikeTheMiner();
+    }
+
+    @DisplayName("should move updated launches between rockets, providers, years and orbits")
+    @Test
+    public void shouldFollowUpdatedLaunches() {
+        List<Launch> launches = new ArrayList<>(dao.loadAll(Launch.class));
+        for (int i = 0; i < 40; i++) {
+            Launch launch = launches.get(random.nextInt(launches.size()));
+            Rocket rocket = rockets.get(random.nextInt(rockets.size()));
+            launch.setLaunchVehicle(rocket);
+            launch.setLaunchServiceProvider(lsps.get(random.nextInt(lsps.size())));
+            launch.setLaunchDate(LocalDate.of(2015 + random.nextInt(4), 6, 1));
+            launch.setOrbit(ORBITS[random.nextInt(ORBITS.length)]);
+            launch.setPrice(BigDecimal.valueOf(random.nextInt(10_000)));
+            launch.setLaunchOutcome(random.nextBoolean() ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+            dao.createOrUpdate(launch);
+        }
+        assertRankLikeTheMiner();
+    }
+
+    @DisplayName("should forget deleted launches, rockets and providers")
+    @Test
+    public void shouldFollowDeletes() {
+        List<Launch> launches = new ArrayList<>(dao.loadAll(Launch.class));
+        Collections.shuffle(launches, random);
+        for (Launch launch : launches.subList(0, 70)) {
+            dao.delete(launch);
+        }
+        dao.delete(rockets.get(11));
+        dao.delete(lsps.get(4));
+        assertRankLikeTheMiner();
+        assertFalse(viewMiner.mostLaunchedRockets(20).contains(rockets.get(11)));
+        assertFalse(viewMiner.mostReliableLaunchServiceProviders(20).contains(lsps.get(4)));
+    }
+
+    @DisplayName("should rank a rocket without launches last once all its launches are deleted")
+    @Test
+    public void shouldRankRocketLastWhenItsLaunchesAreDeleted() {
+        Rocket rocket = rockets.get(0);
+        for (Launch launch : dao.loadAll(Launch.class)) {
+            if (launch.getLaunchVehicle().equals(rocket)) {
+                dao.delete(launch);
+            }
+        }
+        List<Rocket> ranked = viewMiner.mostLaunchedRockets(20);
+        assertEquals(rockets.size(), ranked.size());
+        assertTrue(ranked.subList(ranked.size() - 3, ranked.size()).contains(rocket));
+    }
+
+    @DisplayName("should reject a launch priced in another currency before it is written")
+    @Test
+    public void shouldRejectLaunchInAnotherCurrency() {
+        int launches = dao.loadAll(Launch.class).size();
+        Launch launch = newLaunch();
+        launch.setPriceMoney(Money.ofMinor(100_000, "EUR"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> dao.createOrUpdate(launch));
+        assertEquals("cannot mix USD and EUR", exception.getMessage());
+        assertNull(launch.getId());
+        assertEquals(launches, dao.loadAll(Launch.class).size());
+        assertRankLikeTheMiner();
+    }
+
+    @DisplayName("should return null when no launch went to the orbit")
+    @Test
+    public void shouldReturnNullWhenOrbitHasNoLaunch() {
+        assertNull(viewMiner.dominantCountry("HEO"));
+    }
+
+    private Launch newLaunch() {
+        Rocket rocket = rockets.get(random.nextInt(10));
+        Launch launch = new Launch();
+        launch.setLaunchDate(LocalDate.of(2015 + random.nextInt(4), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        launch.setLaunchVehicle(rocket);
+        launch.setLaunchServiceProvider(rocket.getManufacturer());
+        launch.setLaunchSite("site_" + random.nextInt(3));
+        launch.setOrbit(ORBITS[random.nextInt(ORBITS.length)]);
+        launch.setPrice(BigDecimal.valueOf(random.nextInt(10_000), random.nextInt(3)));
+        launch.setLaunchOutcome(random.nextInt(4) == 0 ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+        return launch;
+    }
+
+    // keys with equal values may be ordered differently, so rankings are compared by value and content
+    private void assertRankLikeTheMiner() {
+        Collection<Launch> launches = dao.loadAll(Launch.class);
+        Map<Rocket, Long> rocketCounts = launches.stream()
+                .collect(Collectors.groupingBy(Launch::getLaunchVehicle, Collectors.counting()));
+        Map<LaunchServiceProvider, ReliabilityCounter> counters = new HashMap<>();
+        for (Launch launch : launches) {
+            counters.computeIfAbsent(launch.getLaunchServiceProvider(), p -> new ReliabilityCounter())
+                    .record(launch.getLaunchOutcome());
+        }
+        for (int k : new int[]{0, 1, 3, 20}) {
+            assertSameRanking(k, miner.mostLaunchedRockets(k), viewMiner.mostLaunchedRockets(k),
+                    r -> rocketCounts.getOrDefault(r, 0L));
+            assertSameRanking(k, miner.mostReliableLaunchServiceProviders(k), viewMiner.mostReliableLaunchServiceProviders(k),
+                    p -> counters.containsKey(p) ? counters.get(p).successRate() : -1);
+            for (int year = 2014; year <= 2018; year++) {
+                int y = year;
+                assertSameRanking(k, miner.highestRevenueLaunchServiceProviders(k, year),
+                        viewMiner.highestRevenueLaunchServiceProviders(k, year),
+                        p -> launches.stream()
+                                .filter(l -> l.getLaunchDate().getYear() == y && l.getLaunchServiceProvider().equals(p))
+                                .map(Launch::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add).stripTrailingZeros());
+            }
+        }
+        for (String orbit : ORBITS) {
+            Map<String, Long> countryCounts = launches.stream().filter(l -> l.getOrbit().equals(orbit))
+                    .collect(Collectors.groupingBy(l -> l.getLaunchServiceProvider().getCountry(), Collectors.counting()));
+            assertEquals(countryCounts.get(miner.dominantCountry(orbit)), countryCounts.get(viewMiner.dominantCountry(orbit)));
+        }
+    }
+
+    private static <T> void assertSameRanking(int k, List<T> expected, List<T> actual, Function<T, Object> value) {
+        assertEquals(expected.stream().map(value).collect(Collectors.toList()),
+                actual.stream().map(value).collect(Collectors.toList()));
+        // below k every candidate is returned, so the contents must match too
+        if (expected.size() < k) {
+            assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rockets.dataaccess.ObservableDAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrbitDominanceIndexUnitTest {
+    private static final String[] ORBITS = {"LEO", "GTO", "SSO"};
+
+    private Random random;
+    private ObservableDAO dao;
+    private RocketMiner miner;
+    private RocketMiner indexMiner;
+    private List<LaunchServiceProvider> lsps;
+
+    @BeforeEach
+    public void setUp() {
+        random = new Random(13);
+        dao = new ObservableDAO(new InMemoryDAO());
+        lsps = Arrays.asList(
+                new LaunchServiceProvider("ULA", 1990, "USA"),
+                new LaunchServiceProvider("SpaceX", 2002, "USA"),
+                new LaunchServiceProvider("ESA", 1975, "Europe"),
+                new LaunchServiceProvider("CASC", 1999, "China"),
+                new LaunchServiceProvider("Roscosmos", 1992, "Russia"));
+        for (LaunchServiceProvider lsp : lsps) {
+            dao.createOrUpdate(lsp);
+        }
+        for (int i = 0; i < 100; i++) {
+            dao.createOrUpdate(newLaunch());
+        }
+        OrbitDominanceIndex index = OrbitDominanceIndex.load(dao);
+        dao.addListener(index);
+        miner = new RocketMiner(dao);
+        indexMiner = new RocketMiner(dao);
+        indexMiner.setDominanceIndex(index);
+    }
+
+    @DisplayName("should find the dominants of the miner right after loading")
+    @Test
+    public void shouldFindDominantsLikeTheMinerAfterLoading() {
+        assertEquals(miner.dominanceTable(), indexMiner.dominanceTable());
+        for (String orbit : ORBITS) {
+            assertEquals(miner.dominantCountry(orbit), indexMiner.dominantCountry(orbit));
+            assertEquals(miner.dominantLaunchServiceProvider(orbit), indexMiner.dominantLaunchServiceProvider(orbit));
+        }
+    }
+
+    @DisplayName("should follow launches moved between orbits and providers")
+    @Test
+    public void shouldFollowUpdatedLaunches() {
+        List<Launch> launches = new ArrayList<>(dao.loadAll(Launch.class));
+        for (int i = 0; i < 60; i++) {
+            Launch launch = launches.get(random.nextInt(launches.size()));
+            launch.setLaunchServiceProvider(lsps.get(random.nextInt(lsps.size())));
+            launch.setOrbit(ORBITS[random.nextInt(ORBITS.length)]);
+            dao.createOrUpdate(launch);
+        }
+        assertDominateLikeTheMiner();
+    }
+
+    @DisplayName("should drop an orbit once all its launches are deleted")
+    @Test
+    public void shouldFollowDeletes() {
+        for (Launch launch : dao.loadAll(Launch.class)) {
+            if (launch.getOrbit().equals("SSO") || random.nextBoolean()) {
+                dao.delete(launch);
+            }
+        }
+        assertDominateLikeTheMiner();
+        assertFalse(indexMiner.dominanceTable().containsKey("SSO"));
+        assertNull(indexMiner.dominantCountry("SSO"));
+        assertNull(indexMiner.dominantLaunchServiceProvider("SSO"));
+    }
+
+    @DisplayName("should return null when no launch went to the orbit")
+    @Test
+    public void shouldReturnNullWhenOrbitHasNoLaunch() {
+        assertNull(miner.dominantCountry("HEO"));
+        assertNull(miner.dominantLaunchServiceProvider("HEO"));
+        assertNull(indexMiner.dominantCountry("HEO"));
+        assertNull(indexMiner.dominantLaunchServiceProvider("HEO"));
+    }
+
+    @DisplayName("should return an empty table when there is no launch")
+    @Test
+    public void shouldReturnEmptyTableWhenThereIsNoLaunch() {
+        RocketMiner empty = new RocketMiner(new InMemoryDAO());
+        assertTrue(empty.dominanceTable().isEmpty());
+        assertTrue(new OrbitDominanceIndex().dominanceTable().isEmpty());
+    }
+
+    private Launch newLaunch() {
+        Launch launch = new Launch();
+        launch.setLaunchServiceProvider(lsps.get(random.nextInt(lsps.size())));
+        launch.setOrbit(ORBITS[random.nextInt(ORBITS.length)]);
+        return launch;
+    }
+
+    // countries or providers with equal counts may be ordered differently, so dominants are compared by count
+    private void assertDominateLikeTheMiner() {
+        Collection<Launch> launches = dao.loadAll(Launch.class);
+        Map<String, OrbitDominance> expected = miner.dominanceTable();
+        Map<String, OrbitDominance> actual = indexMiner.dominanceTable();
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String orbit : expected.keySet()) {
+            List<Launch> inOrbit = launches.stream().filter(l -> l.getOrbit().equals(orbit)).collect(Collectors.toList());
+            Map<String, Long> countries = inOrbit.stream()
+                    .collect(Collectors.groupingBy(l -> l.getLaunchServiceProvider().getCountry(), Collectors.counting()));
+            Map<LaunchServiceProvider, Long> providers = inOrbit.stream()
+                    .collect(Collectors.groupingBy(Launch::getLaunchServiceProvider, Collectors.counting()));
+            assertEquals(expected.get(orbit).getLaunches(), actual.get(orbit).getLaunches());
+            assertEquals(countries.get(expected.get(orbit).getCountry()), countries.get(actual.get(orbit).getCountry()));
+            assertEquals(providers.get(expected.get(orbit).getLaunchServiceProvider()),
+                    providers.get(actual.get(orbit).getLaunchServiceProvider()));
+            assertEquals(countries.get(miner.dominantCountry(orbit)), countries.get(indexMiner.dominantCountry(orbit)));
+            assertEquals(providers.get(miner.dominantLaunchServiceProvider(orbit)),
+                    providers.get(indexMiner.dominantLaunchServiceProvider(orbit)));
+        }
+    }
+}
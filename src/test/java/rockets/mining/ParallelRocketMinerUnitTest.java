@@ -0,0 +1,118 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Payloads;
+import rockets.model.Rocket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ParallelRocketMinerUnitTest {
+    private DAO dao;
+    private ForkJoinPool pool;
+    private RocketMiner miner;
+    private RocketMiner parallelMiner;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(3);
+        dao = new InMemoryDAO();
+        List<LaunchServiceProvider> lsps = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            lsps.add(dao.createOrUpdate(new LaunchServiceProvider("lsp_" + i, 1950 + i, "country_" + i % 3)));
+        }
+        List<Rocket> rockets = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Rocket rocket = new Rocket("rocket_" + i, "USA", lsps.get(i % lsps.size()));
+            rocket.setMassToLEO(100);
+            rocket.setMassToGTO(100);
+            rocket.setMassToOther(100);
+            rockets.add(dao.createOrUpdate(rocket));
+        }
+        String[] orbits = {"LEO", "GTO", "SSO"};
+        for (int i = 0; i < 5_000; i++) {
+            Rocket rocket = rockets.get(random.nextInt(25));
+            Launch launch = new Launch();
+            // few distinct dates, prices and masses so that there are many ties to break
+            launch.setLaunchDate(LocalDate.of(2015 + random.nextInt(4), 1 + random.nextInt(2), 1));
+            launch.setLaunchVehicle(rocket);
+            launch.setLaunchServiceProvider(rocket.getManufacturer());
+            launch.setOrbit(orbits[random.nextInt(orbits.length)]);
+            launch.setPrice(BigDecimal.valueOf(random.nextInt(20)));
+            launch.setLaunchOutcome(random.nextInt(4) == 0 ? Launch.LaunchOutcome.FAILED : Launch.LaunchOutcome.SUCCESSFUL);
+            Payloads payload = new Payloads("payload_" + i, "USA", "SPACEX");
+            payload.setMassToLEO(random.nextInt(10));
+            payload.setMassToGTO(random.nextInt(10));
+            payload.setMassToOther(random.nextInt(10));
+            launch.setPayload(new HashSet<>(Collections.singleton(payload)));
+            dao.createOrUpdate(launch);
+        }
+        pool = new ForkJoinPool(4);
+        miner = new RocketMiner(dao);
+        parallelMiner = new RocketMiner(dao);
+        parallelMiner.setForkJoinPool(pool);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 7, 30, 100})
+    public void shouldRankLikeTheSequentialMiner(int k) {
+        assertEquals(miner.mostLaunchedRockets(k), parallelMiner.mostLaunchedRockets(k));
+        assertEquals(miner.mostReliableLaunchServiceProviders(k), parallelMiner.mostReliableLaunchServiceProviders(k));
+        assertEquals(miner.mostRecentLaunches(k), parallelMiner.mostRecentLaunches(k));
+        assertEquals(miner.mostExpensiveLaunches(k), parallelMiner.mostExpensiveLaunches(k));
+        assertEquals(miner.lightestPayloadsLauchInLEO(k), parallelMiner.lightestPayloadsLauchInLEO(k));
+        for (int year = 2014; year <= 2018; year++) {
+            assertEquals(miner.highestRevenueLaunchServiceProviders(k, year), parallelMiner.highestRevenueLaunchServiceProviders(k, year));
+        }
+        for (ReliabilityRanking ranking : ReliabilityRanking.values()) {
+            assertEquals(miner.mostReliableLaunchServiceProviders(k, ranking, 700),
+                    parallelMiner.mostReliableLaunchServiceProviders(k, ranking, 700));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"LEO", "GTO", "SSO", "Other"})
+    public void shouldFindDominantsLikeTheSequentialMiner(String orbit) {
+        assertEquals(miner.dominantCountryInPayLoads(orbit), parallelMiner.dominantCountryInPayLoads(orbit));
+        if (!"Other".equals(orbit)) {
+            assertEquals(miner.dominantCountry(orbit), parallelMiner.dominantCountry(orbit));
+            assertEquals(miner.dominantLaunchServiceProvider(orbit), parallelMiner.dominantLaunchServiceProvider(orbit));
+        }
+    }
+
+    @DisplayName("should give the same result on every run")
+    @Test
+    public void shouldBeDeterministic() {
+        List<Launch> expected = parallelMiner.mostRecentLaunches(50);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(expected, parallelMiner.mostRecentLaunches(50));
+        }
+    }
+
+    @DisplayName("should throw exception when k is negative")
+    @Test
+    public void shouldThrowExceptionWhenKIsNegative() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> parallelMiner.mostExpensiveLaunches(-1));
+        assertEquals("k cannot be negative", exception.getMessage());
+    }
+}
@@ -0,0 +1,141 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.ObservableDAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Entity;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Payloads;
+import rockets.model.Rocket;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadIndexUnitTest {
+    private static final String[] ORBITS = {"LEO", "GTO", "SSO"};
+
+    private Random random;
+    private ObservableDAO dao;
+    private RocketMiner miner;
+    private RocketMiner indexMiner;
+    private List<LaunchServiceProvider> lsps;
+
+    @BeforeEach
+    public void setUp() {
+        random = new Random(19);
+        dao = new ObservableDAO(new InMemoryDAO());
+        lsps = Arrays.asList(
+                new LaunchServiceProvider("ULA", 1990, "USA"),
+                new LaunchServiceProvider("SpaceX", 2002, "USA"),
+                new LaunchServiceProvider("ESA", 1975, "Europe"),
+                new LaunchServiceProvider("CASC", 1999, "China"),
+                new LaunchServiceProvider("Roscosmos", 1992, "Russia"));
+        for (LaunchServiceProvider lsp : lsps) {
+            dao.createOrUpdate(lsp);
+        }
+        for (int i = 0; i < 100; i++) {
+            dao.createOrUpdate(newLaunch(i));
+        }
+        PayloadIndex index = PayloadIndex.load(dao);
+        dao.addListener(index);
+        miner = new RocketMiner(dao);
+        indexMiner = new RocketMiner(dao);
+        indexMiner.setPayloadIndex(index);
+    }
+
+    @DisplayName("should total the payloads like the miner right after loading")
+    @Test
+    public void shouldTotalPayloadsLikeTheMinerAfterLoading() {
+        assertMassLikeTheMiner();
+    }
+
+    @DisplayName("should follow launches moved between providers and given other payloads")
+    @Test
+    public void shouldFollowUpdatedLaunches() {
+        List<Launch> launches = new ArrayList<>(dao.loadAll(Launch.class));
+        for (int i = 0; i < 60; i++) {
+            Launch launch = launches.get(random.nextInt(launches.size()));
+            launch.setLaunchServiceProvider(lsps.get(random.nextInt(lsps.size())));
+            launch.setPayload(newPayloads(i));
+            dao.createOrUpdate(launch);
+        }
+        assertMassLikeTheMiner();
+    }
+
+    @DisplayName("should drop a country once all its launches are deleted")
+    @Test
+    public void shouldFollowDeletes() {
+        for (Launch launch : dao.loadAll(Launch.class)) {
+            if (launch.getLaunchServiceProvider().getCountry().equals("USA") || random.nextBoolean()) {
+                dao.delete(launch);
+            }
+        }
+        assertMassLikeTheMiner();
+        assertFalse(indexMiner.payloadMatrix().getCountries().contains("USA"));
+    }
+
+    @DisplayName("should not scan the launches to answer a payload query")
+    @Test
+    public void shouldAnswerWithoutLoadingLaunches() {
+        DAO failing = new InMemoryDAO() {
+            @Override
+            public synchronized <T extends Entity> Collection<T> loadAll(Class<T> clazz) {
+                throw new AssertionError("loaded " + clazz.getSimpleName());
+            }
+        };
+        RocketMiner indexOnly = new RocketMiner(failing);
+        indexOnly.setPayloadIndex(indexMiner.getPayloadIndex());
+        for (String orbit : new String[]{"LEO", "GTO", "other", "SSO"}) {
+            assertEquals(miner.dominantCountryInPayLoads(orbit), indexOnly.dominantCountryInPayLoads(orbit));
+        }
+    }
+
+    @DisplayName("should return null when there is no launch")
+    @Test
+    public void shouldReturnNullWhenThereIsNoLaunch() {
+        PayloadIndex empty = new PayloadIndex();
+        assertNull(empty.dominantCountryInPayLoads("LEO"));
+        assertNull(empty.dominantCountryInPayLoads("SSO"));
+        assertTrue(empty.payloadMatrix().getCountries().isEmpty());
+    }
+
+    private Launch newLaunch(int i) {
+        LaunchServiceProvider lsp = lsps.get(random.nextInt(lsps.size()));
+        Rocket rocket = new Rocket("rocket_" + i, "USA", lsp);
+        rocket.setMassToLEO(100_000);
+        rocket.setMassToGTO(100_000);
+        rocket.setMassToOther(100_000);
+        return new Launch(lsp, newPayloads(i), rocket, "site", ORBITS[random.nextInt(ORBITS.length)], "test");
+    }
+
+    private Set<Payloads> newPayloads(int i) {
+        Set<Payloads> payloads = new HashSet<>();
+        for (int j = 0; j < random.nextInt(4); j++) {
+            Payloads payload = new Payloads("payload_" + i + "_" + j, "USA", "SPACEX");
+            payload.setMassToLEO(random.nextInt(5_000));
+            payload.setMassToGTO(random.nextInt(2_000));
+            payload.setMassToOther(random.nextInt(1_000));
+            payloads.add(payload);
+        }
+        return payloads;
+    }
+
+    // countries are seen in another order once launches move, so the matrices are compared by country
+    private void assertMassLikeTheMiner() {
+        PayloadMatrix expected = miner.payloadMatrix();
+        PayloadMatrix actual = indexMiner.payloadMatrix();
+        assertEquals(new HashSet<>(expected.getCountries()), new HashSet<>(actual.getCountries()));
+        for (PayloadOrbit orbit : PayloadOrbit.values()) {
+            for (String country : expected.getCountries()) {
+                assertEquals(expected.mass(country, orbit), actual.mass(country, orbit));
+            }
+            String dominant = indexMiner.dominantCountryInPayLoads(orbit.name());
+            assertEquals(expected.mass(expected.dominantCountry(orbit), orbit), actual.mass(dominant, orbit));
+        }
+    }
+}
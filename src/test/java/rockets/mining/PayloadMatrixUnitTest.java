@@ -0,0 +1,123 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import rockets.dataaccess.DAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.metrics.Metrics;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Payloads;
+import rockets.model.Rocket;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadMatrixUnitTest {
+    private DAO dao;
+    private RocketMiner miner;
+    private List<Launch> launches;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(17);
+        dao = new InMemoryDAO();
+        List<LaunchServiceProvider> lsps = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            lsps.add(dao.createOrUpdate(new LaunchServiceProvider("lsp_" + i, 1950 + i, "country_" + i % 25)));
+        }
+        String[] orbits = {"LEO", "GTO", "SSO"};
+        launches = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            LaunchServiceProvider lsp = lsps.get(random.nextInt(lsps.size()));
+            Rocket rocket = new Rocket("rocket_" + i, "USA", lsp);
+            rocket.setMassToLEO(100_000);
+            rocket.setMassToGTO(100_000);
+            rocket.setMassToOther(100_000);
+            Set<Payloads> payloads = new HashSet<>();
+            for (int j = 0; j < random.nextInt(4); j++) {
+                Payloads payload = new Payloads("payload_" + i + "_" + j, "USA", "SPACEX");
+                payload.setMassToLEO(random.nextInt(5_000));
+                payload.setMassToGTO(random.nextInt(2_000));
+                payload.setMassToOther(random.nextInt(1_000));
+                payloads.add(payload);
+            }
+            launches.add(dao.createOrUpdate(new Launch(lsp, payloads, rocket, "site", orbits[random.nextInt(orbits.length)], "test")));
+        }
+        miner = new RocketMiner(dao);
+    }
+
+    @DisplayName("should total the payload mass of every country to every orbit")
+    @Test
+    public void shouldTotalPayloadMassByCountryAndOrbit() {
+        PayloadMatrix matrix = miner.payloadMatrix();
+        List<String> countries = launches.stream().map(l -> l.getLaunchServiceProvider().getCountry())
+                .distinct().collect(Collectors.toList());
+        assertEquals(countries, matrix.getCountries());
+        for (String country : countries) {
+            List<Payloads> payloads = launches.stream().filter(l -> l.getLaunchServiceProvider().getCountry().equals(country))
+                    .flatMap(l -> l.getPayload().stream()).collect(Collectors.toList());
+            assertEquals(payloads.stream().mapToLong(Payloads::getMassToLEO).sum(), matrix.mass(country, PayloadOrbit.LEO));
+            assertEquals(payloads.stream().mapToLong(Payloads::getMassToGTO).sum(), matrix.mass(country, PayloadOrbit.GTO));
+            assertEquals(payloads.stream().mapToLong(Payloads::getMassToOther).sum(), matrix.mass(country, PayloadOrbit.OTHER));
+        }
+        assertEquals(0, matrix.mass("nowhere", PayloadOrbit.LEO));
+    }
+
+    @ParameterizedTest
+    @EnumSource(PayloadOrbit.class)
+    public void shouldCollectInParallelLikeSequentially(PayloadOrbit orbit) {
+        PayloadMatrix sequential = launches.stream().collect(PayloadMatrix.collector());
+        PayloadMatrix parallel = launches.parallelStream().collect(PayloadMatrix.collector());
+        assertEquals(sequential.getCountries(), parallel.getCountries());
+        for (String country : sequential.getCountries()) {
+            assertEquals(sequential.mass(country, orbit), parallel.mass(country, orbit));
+        }
+        assertEquals(sequential.dominantCountry(orbit), parallel.dominantCountry(orbit));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"LEO", "gto", "Other", "SSO"})
+    public void shouldFindDominantCountryInPayloadsLikeTheColumnStore(String orbit) {
+        RocketMiner columnMiner = new RocketMiner(dao);
+        columnMiner.setColumnStore(LaunchColumnStore.load(dao));
+        assertEquals(columnMiner.dominantCountryInPayLoads(orbit), miner.dominantCountryInPayLoads(orbit));
+    }
+
+    @DisplayName("should resolve orbit names ignoring case")
+    @Test
+    public void shouldResolveOrbitNamesIgnoringCase() {
+        assertEquals(PayloadOrbit.LEO, PayloadOrbit.of("leo"));
+        assertEquals(PayloadOrbit.GTO, PayloadOrbit.of("GTO"));
+        assertEquals(PayloadOrbit.OTHER, PayloadOrbit.of("Other"));
+        assertNull(PayloadOrbit.of("SSO"));
+        assertNull(PayloadOrbit.of(null));
+    }
+
+    @DisplayName("should return null when there is no launch")
+    @Test
+    public void shouldReturnNullWhenThereIsNoLaunch() {
+        RocketMiner empty = new RocketMiner(new InMemoryDAO());
+        assertTrue(empty.payloadMatrix().getCountries().isEmpty());
+        assertNull(empty.payloadMatrix().dominantCountry(PayloadOrbit.LEO));
+        assertNull(empty.dominantCountryInPayLoads("LEO"));
+        empty.setColumnStore(LaunchColumnStore.load(new InMemoryDAO()));
+        assertNull(empty.dominantCountryInPayLoads("LEO"));
+    }
+
+    @DisplayName("should record the dominant payload country once, without the matrix it is built on")
+    @Test
+    public void shouldMeasureDominantCountryInPayloadsOnce() {
+        Metrics metrics = new Metrics();
+        miner.setMetrics(metrics);
+        miner.dominantCountryInPayLoads("LEO");
+        assertEquals(Collections.singleton("RocketMiner.dominantCountryInPayLoads"), metrics.snapshot().keySet());
+        assertEquals(1, metrics.snapshot().get("RocketMiner.dominantCountryInPayLoads").getCalls());
+    }
+}
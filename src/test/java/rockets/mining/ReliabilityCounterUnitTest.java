@@ -0,0 +1,67 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static rockets.model.Launch.LaunchOutcome.FAILED;
+import static rockets.model.Launch.LaunchOutcome.SUCCESSFUL;
+
+public class ReliabilityCounterUnitTest {
+    private ReliabilityCounter target;
+
+    @BeforeEach
+    public void setUp() {
+        target = new ReliabilityCounter();
+    }
+
+    @DisplayName("should count launches without an outcome as successes")
+    @Test
+    public void shouldCountSuccessesAndFailures() {
+        target.record(SUCCESSFUL);
+        target.record(FAILED);
+        target.record(null);
+        assertEquals(2, target.getSuccesses());
+        assertEquals(1, target.getFailures());
+        assertEquals(3, target.getLaunches());
+        assertEquals(2.0 / 3, target.successRate(), 1e-12);
+    }
+
+    @DisplayName("should score zero when there is no launch")
+    @Test
+    public void shouldScoreZeroWithoutLaunches() {
+        assertEquals(0, target.successRate());
+        assertEquals(0, target.wilsonLowerBound(ReliabilityRanking.WILSON_Z));
+    }
+
+    @Test
+    public void shouldComputeWilsonLowerBound() {
+        target.record(SUCCESSFUL);
+        assertEquals(0.2065, target.wilsonLowerBound(1.96), 1e-4);
+    }
+
+    @DisplayName("should rank a long record above a single success by Wilson lower bound")
+    @Test
+    public void shouldPreferLargerSampleByWilsonLowerBound() {
+        target.record(SUCCESSFUL);
+        ReliabilityCounter veteran = new ReliabilityCounter();
+        for (int i = 0; i < 100; i++) {
+            veteran.record(i < 90 ? SUCCESSFUL : FAILED);
+        }
+        assertTrue(ReliabilityRanking.SUCCESS_RATE.score(target) > ReliabilityRanking.SUCCESS_RATE.score(veteran));
+        assertTrue(ReliabilityRanking.WILSON_LOWER_BOUND.score(target) < ReliabilityRanking.WILSON_LOWER_BOUND.score(veteran));
+    }
+
+    @Test
+    public void shouldMergeCounters() {
+        target.record(SUCCESSFUL);
+        ReliabilityCounter other = new ReliabilityCounter();
+        other.record(FAILED);
+        other.record(SUCCESSFUL);
+        target.merge(other);
+        assertEquals(2, target.getSuccesses());
+        assertEquals(1, target.getFailures());
+    }
+}
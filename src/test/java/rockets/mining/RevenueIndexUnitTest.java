@@ -0,0 +1,157 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import rockets.dataaccess.ObservableDAO;
+import rockets.dataaccess.memory.InMemoryDAO;
+import rockets.model.Launch;
+import rockets.model.LaunchServiceProvider;
+import rockets.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RevenueIndexUnitTest {
+    private Random random;
+    private ObservableDAO dao;
+    private List<LaunchServiceProvider> lsps;
+    private RevenueIndex index;
+    private RocketMiner miner;
+
+    @BeforeEach
+    public void setUp() {
+        random = new Random(13);
+        dao = new ObservableDAO(new InMemoryDAO());
+        lsps = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            lsps.add(dao.createOrUpdate(new LaunchServiceProvider("lsp_" + i, 1950 + i, "USA")));
+        }
+        for (int i = 0; i < 200; i++) {
+            dao.createOrUpdate(newLaunch(2000, 2010));
+        }
+        index = RevenueIndex.load(dao);
+        dao.addListener(index);
+        miner = new RocketMiner(dao);
+    }
+
+    @DisplayName("should sum the revenue of any range of years")
+    @Test
+    public void shouldSumRevenueOfYearRanges() {
+        assertRevenueLikeTheLaunches();
+    }
+
+    @DisplayName("should cover years before and after the indexed years")
+    @Test
+    public void shouldWidenToNewYears() {
+        for (int i = 0; i < 50; i++) {
+            dao.createOrUpdate(newLaunch(1960, 2030));
+        }
+        assertRevenueLikeTheLaunches();
+    }
+
+    @DisplayName("should move updated launches between years and providers")
+    @Test
+    public void shouldFollowUpdatedLaunches() {
+        List<Launch> launches = new ArrayList<>(dao.loadAll(Launch.class));
+        for (int i = 0; i < 60; i++) {
+            Launch launch = launches.get(random.nextInt(launches.size()));
+            launch.setLaunchServiceProvider(lsps.get(random.nextInt(lsps.size())));
+            launch.setLaunchDate(LocalDate.of(1995 + random.nextInt(20), 3, 1));
+            launch.setPrice(BigDecimal.valueOf(random.nextInt(100_000), 2));
+            dao.createOrUpdate(launch);
+        }
+        assertRevenueLikeTheLaunches();
+    }
+
+    @DisplayName("should forget deleted launches and providers")
+    @Test
+    public void shouldFollowDeletes() {
+        List<Launch> launches = new ArrayList<>(dao.loadAll(Launch.class));
+        for (Launch launch : launches.subList(0, 150)) {
+            dao.delete(launch);
+        }
+        LaunchServiceProvider lsp = new LaunchServiceProvider("unused", 2000, "USA");
+        dao.createOrUpdate(lsp);
+        assertTrue(index.highestRevenueLaunchServiceProviders(20, 2005).contains(lsp));
+        dao.delete(lsp);
+        assertFalse(index.highestRevenueLaunchServiceProviders(20, 2005).contains(lsp));
+        assertRevenueLikeTheLaunches();
+    }
+
+    @DisplayName("should reject a launch priced in another currency before it is written")
+    @Test
+    public void shouldRejectLaunchInAnotherCurrency() {
+        int launches = dao.loadAll(Launch.class).size();
+        Launch launch = newLaunch(2000, 2010);
+        launch.setPriceMoney(Money.ofMinor(100_000, "EUR"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> dao.createOrUpdate(launch));
+        assertEquals("cannot mix USD and EUR", exception.getMessage());
+        assertNull(launch.getId());
+        assertEquals(launches, dao.loadAll(Launch.class).size());
+        assertRevenueLikeTheLaunches();
+    }
+
+    @DisplayName("should rank the trailing years like the equivalent range")
+    @Test
+    public void shouldRankTrailingYearsAsRange() {
+        assertEquals(index.highestRevenueLaunchServiceProviders(3, 2006, 2008),
+                index.highestTrailingRevenueLaunchServiceProviders(3, 3, 2008));
+        assertEquals(miner.highestRevenueLaunchServiceProviders(3, 2006, 2008),
+                miner.highestTrailingRevenueLaunchServiceProviders(3, 3, 2008));
+    }
+
+    @DisplayName("should throw exception when the range of years is empty")
+    @Test
+    public void shouldThrowExceptionWhenRangeIsEmpty() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> index.highestRevenueLaunchServiceProviders(3, 2008, 2006));
+        assertEquals("fromYear cannot be after toYear", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> miner.highestTrailingRevenueLaunchServiceProviders(3, 0, 2006));
+        assertEquals("years must be positive", exception.getMessage());
+    }
+
+    private Launch newLaunch(int fromYear, int toYear) {
+        Launch launch = new Launch();
+        launch.setLaunchDate(LocalDate.of(fromYear + random.nextInt(toYear - fromYear + 1), 1 + random.nextInt(12), 1));
+        launch.setLaunchServiceProvider(lsps.get(random.nextInt(lsps.size() - 1)));
+        launch.setOrbit("LEO");
+        // few distinct prices so that there are ties
+        launch.setPrice(BigDecimal.valueOf(random.nextInt(20) * 1_000L, random.nextInt(3)));
+        return launch;
+    }
+
+    // providers with the same revenue may be ordered differently, so rankings are compared by revenue and content
+    private void assertRevenueLikeTheLaunches() {
+        Collection<Launch> launches = dao.loadAll(Launch.class);
+        int[][] ranges = {{2000, 2000}, {2003, 2007}, {1990, 2040}, {1959, 1961}, {2010, 2015}};
+        for (int[] range : ranges) {
+            Map<LaunchServiceProvider, BigDecimal> expected = launches.stream()
+                    .filter(l -> l.getLaunchDate().getYear() >= range[0] && l.getLaunchDate().getYear() <= range[1])
+                    .collect(Collectors.groupingBy(Launch::getLaunchServiceProvider,
+                            Collectors.reducing(BigDecimal.ZERO, Launch::getPrice, BigDecimal::add)));
+            for (LaunchServiceProvider lsp : lsps) {
+                assertEquals(0, expected.getOrDefault(lsp, BigDecimal.ZERO).compareTo(index.revenue(lsp, range[0], range[1]).toBigDecimal()));
+            }
+            for (int k : new int[]{0, 2, 20}) {
+                List<LaunchServiceProvider> fromMiner = miner.highestRevenueLaunchServiceProviders(k, range[0], range[1]);
+                List<LaunchServiceProvider> fromIndex = index.highestRevenueLaunchServiceProviders(k, range[0], range[1]);
+                assertEquals(revenues(fromMiner, expected), revenues(fromIndex, expected));
+                if (fromMiner.size() < k) {
+                    assertEquals(new HashSet<>(fromMiner), new HashSet<>(fromIndex));
+                }
+            }
+        }
+    }
+
+    private static List<BigDecimal> revenues(List<LaunchServiceProvider> ranked, Map<LaunchServiceProvider, BigDecimal> revenue) {
+        return ranked.stream().map(p -> revenue.containsKey(p) ? revenue.get(p).stripTrailingZeros() : null)
+                .collect(Collectors.toList());
+    }
+}
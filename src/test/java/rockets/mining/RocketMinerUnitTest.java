@@ -2,6 +2,7 @@ package rockets.mining;
 
 import com.google.common.collect.Lists;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -31,6 +32,13 @@ import static rockets.model.Launch.LaunchOutcome.SUCCESSFUL;
 public class RocketMinerUnitTest {
     Logger logger = LoggerFactory.getLogger(RocketMinerUnitTest.class);
 
+    // the BigDecimal accumulator RocketMiner used before ReliabilityCounter, kept as the reference ranking
+    static class ReliableServer{
+        public BigDecimal success;
+        public BigDecimal failed;
+        public BigDecimal percentage;
+    }
+
     private DAO dao;
     private RocketMiner miner;
     private List<Rocket> rockets;
@@ -40,6 +48,8 @@ public class RocketMinerUnitTest {
     @BeforeEach
     public void setUp() {
         dao = mock(Neo4jDAO.class);
+        // the miner streams what the tests stub for loadAll
+        when(dao.stream(any())).thenAnswer(invocation -> dao.loadAll(invocation.getArgument(0)).stream());
         miner = new RocketMiner(dao);
         rockets = Lists.newArrayList();
 
@@ -158,10 +168,10 @@ public class RocketMinerUnitTest {
     public void shouldReturnMostReliableLaunchServiceProviders(int k){
         when(dao.loadAll(Launch.class)).thenReturn(launches);
         when(dao.loadAll(LaunchServiceProvider.class)).thenReturn(lsps);
-        HashMap<LaunchServiceProvider, RocketMiner.ReliableServer> reliableServers = new HashMap<LaunchServiceProvider, RocketMiner.ReliableServer>();
+        HashMap<LaunchServiceProvider, ReliableServer> reliableServers = new HashMap<LaunchServiceProvider, ReliableServer>();
         for(Launch l:launches){
             if(reliableServers.containsKey(l.getLaunchServiceProvider())) {
-                RocketMiner.ReliableServer oldValue = reliableServers.get(l.getLaunchServiceProvider());
+                ReliableServer oldValue = reliableServers.get(l.getLaunchServiceProvider());
                 if(l.getLaunchOutcome()==FAILED){
                     oldValue.failed = oldValue.failed.add(new BigDecimal(1));
                 }else{
@@ -170,23 +180,23 @@ public class RocketMinerUnitTest {
                 oldValue.percentage = oldValue.success.divide(oldValue.failed.add(oldValue.success),10,ROUND_HALF_DOWN);
                 reliableServers.replace(l.getLaunchServiceProvider(),oldValue);
             }else{
-                RocketMiner.ReliableServer server = new RocketMiner.ReliableServer();
+                ReliableServer server = new ReliableServer();
                 if(l.getLaunchOutcome()==FAILED){
                     server.failed = new BigDecimal(1);
                     server.success = new BigDecimal(0);
-                    server.percentage = new BigDecimal(1);
+                    server.percentage = new BigDecimal(0);
                 }else{
                     server.failed = new BigDecimal(0);
                     server.success = new BigDecimal(1);
-                    server.percentage = new BigDecimal(0);
+                    server.percentage = new BigDecimal(1);
                 }
                 reliableServers.put(l.getLaunchServiceProvider(),server);
             }
         }
-        List<Map.Entry<LaunchServiceProvider, RocketMiner.ReliableServer>> list = new ArrayList<Map.Entry<LaunchServiceProvider, RocketMiner.ReliableServer>>(reliableServers.entrySet());
-        Collections.sort(list, new Comparator<Map.Entry<LaunchServiceProvider, RocketMiner.ReliableServer>>() {
+        List<Map.Entry<LaunchServiceProvider, ReliableServer>> list = new ArrayList<Map.Entry<LaunchServiceProvider, ReliableServer>>(reliableServers.entrySet());
+        Collections.sort(list, new Comparator<Map.Entry<LaunchServiceProvider, ReliableServer>>() {
             @Override
-            public int compare(Map.Entry<LaunchServiceProvider, RocketMiner.ReliableServer> o1, Map.Entry<LaunchServiceProvider, RocketMiner.ReliableServer> o2) {
+            public int compare(Map.Entry<LaunchServiceProvider, ReliableServer> o1, Map.Entry<LaunchServiceProvider, ReliableServer> o2) {
                 return o2.getValue().percentage.subtract(o1.getValue().percentage).compareTo(BigDecimal.ZERO);
             }
         });
@@ -202,6 +212,27 @@ public class RocketMinerUnitTest {
         assertEquals(result.subList(0,k),loadedProviders);
     }
 
+    @Test
+    public void shouldRankByWilsonLowerBound(){
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        when(dao.loadAll(LaunchServiceProvider.class)).thenReturn(lsps);
+        // SpaceX has 1 successful launch, ULA 4 out of 9
+        assertEquals(Arrays.asList(lsps.get(1), lsps.get(0), lsps.get(2)),
+                miner.mostReliableLaunchServiceProviders(3, ReliabilityRanking.SUCCESS_RATE, 1));
+        assertEquals(Arrays.asList(lsps.get(1), lsps.get(0), lsps.get(2)),
+                miner.mostReliableLaunchServiceProviders(3, ReliabilityRanking.WILSON_LOWER_BOUND, 1));
+    }
+
+    @Test
+    public void shouldRankProvidersBelowMinLaunchesLast(){
+        when(dao.loadAll(Launch.class)).thenReturn(launches);
+        when(dao.loadAll(LaunchServiceProvider.class)).thenReturn(lsps);
+        assertEquals(Arrays.asList(lsps.get(0), lsps.get(1), lsps.get(2)),
+                miner.mostReliableLaunchServiceProviders(3, ReliabilityRanking.SUCCESS_RATE, 2));
+        assertEquals(Arrays.asList(lsps.get(0), lsps.get(1), lsps.get(2)),
+                miner.mostReliableLaunchServiceProviders(3, ReliabilityRanking.SUCCESS_RATE, 10));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"LEO"})
     public void shouldReturnDominantCountry(String orbit){
@@ -290,29 +321,14 @@ public class RocketMinerUnitTest {
     @ValueSource(ints = {1,2,3})
     public void shouldReturnLightestPayloadsLauchInLEO(int k){
         when(dao.loadAll(Launch.class)).thenReturn(launches);
-        HashMap<Launch,Integer> launchPayloadsInLEO = new HashMap<Launch,Integer>();
-        for(Launch l:launches){
-            if(launchPayloadsInLEO.containsKey(l)){
-                int oldValue = launchPayloadsInLEO.get(l);
-                for(Payloads p:l.getPayload()){
-                    oldValue+=p.getMassToLEO();
-                }
-                launchPayloadsInLEO.replace(l,oldValue);
-            }else{
-                int newValue = 0;
-                for(Payloads p:l.getPayload()){
-                    newValue+=p.getMassToLEO();
-                }
-                launchPayloadsInLEO.put(l,newValue);
+        //Launches with the same mass stay in launch order
+        List<Launch> sortedLaunch = launches.stream().sorted(Comparator.comparingInt(l->{
+            int mass = 0;
+            for(Payloads p:l.getPayload()){
+                mass+=p.getMassToLEO();
             }
-        }
-        List<Map.Entry<Launch,Integer>> list = new ArrayList<Map.Entry<Launch,Integer>>(launchPayloadsInLEO.entrySet());
-        List<Launch> sortedLaunch = list.stream().sorted(new Comparator<Map.Entry<Launch, Integer>>() {
-            @Override
-            public int compare(Map.Entry<Launch, Integer> o1, Map.Entry<Launch, Integer> o2) {
-                return o1.getValue()-o2.getValue();
-            }
-        }).map(s->s.getKey()).collect(Collectors.toList());
+            return mass;
+        })).collect(Collectors.toList());
         List<Launch> loadedLaunch = miner.lightestPayloadsLauchInLEO(k);
         assertEquals(k,loadedLaunch.size());
         assertEquals(sortedLaunch.subList(0,k),loadedLaunch);
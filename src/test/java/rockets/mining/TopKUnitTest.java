@@ -0,0 +1,104 @@
+package rockets.mining;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopKUnitTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 5, 99, 100, 150})
+    public void shouldMatchStableSortWithLimit(int k) {
+        Random random = new Random(42);
+        List<Integer> values = IntStream.range(0, 100).mapToObj(i -> random.nextInt(10)).collect(Collectors.toList());
+        List<Integer> indices = IntStream.range(0, values.size()).boxed().collect(Collectors.toList());
+        Comparator<Integer> byValueDesc = (a, b) -> Integer.compare(values.get(b), values.get(a));
+
+        List<Integer> expected = indices.stream().sorted(byValueDesc).limit(k).collect(Collectors.toList());
+        assertEquals(expected, TopK.select(indices, k, byValueDesc));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 5, 99, 100, 150})
+    public void shouldCollectInParallelLikeSelect(int k) {
+        Random random = new Random(42);
+        List<int[]> values = IntStream.range(0, 10_000).mapToObj(i -> new int[]{random.nextInt(10), i}).collect(Collectors.toList());
+        Comparator<int[]> byValue = Comparator.comparingInt(v -> v[0]);
+
+        assertEquals(TopK.select(values, k, byValue), values.parallelStream().collect(TopK.collector(k, byValue)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 5, 99, 100, 150})
+    public void shouldSelectSmallestLikeStableSortWithLimit(int k) {
+        Random random = new Random(42);
+        int[] values = IntStream.range(0, 100).map(i -> random.nextInt(10)).toArray();
+        int[] expected = IntStream.range(0, values.length).boxed()
+                .sorted(Comparator.comparingInt(i -> values[i])).limit(k).mapToInt(i -> i).toArray();
+        assertArrayEquals(expected, TopK.smallest(values, k));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 5, 99, 100, 150})
+    public void shouldSelectBestIndicesLikeSelect(int k) {
+        Random random = new Random(42);
+        long[] values = IntStream.range(0, 100).mapToLong(i -> random.nextInt(10)).toArray();
+        List<Integer> indices = IntStream.range(0, values.length).boxed().collect(Collectors.toList());
+        Comparator<Integer> byValueDesc = (a, b) -> Long.compare(values[b], values[a]);
+
+        int[] expected = TopK.select(indices, k, byValueDesc).stream().mapToInt(i -> i).toArray();
+        assertArrayEquals(expected, TopK.best(values.length, k, (a, b) -> Long.compare(values[b], values[a])));
+    }
+
+    @DisplayName("should rank merged elements after the elements already offered")
+    @Test
+    public void shouldMergeAfterOfferedElements() {
+        TopK<String> left = new TopK<>(3, (x, y) -> 0);
+        left.offer("a");
+        TopK<String> right = new TopK<>(3, (x, y) -> 0);
+        right.offer("b");
+        right.offer("c");
+        right.offer("d");
+        assertEquals(Arrays.asList("a", "b", "c"), left.merge(right).toList());
+    }
+
+    @DisplayName("should keep the first offered element when ranks are equal")
+    @Test
+    public void shouldBreakTiesByOfferOrder() {
+        List<String> result = TopK.select(Arrays.asList("b", "a", "c", "d"), 2, (x, y) -> 0);
+        assertEquals(Arrays.asList("b", "a"), result);
+    }
+
+    @DisplayName("should return an empty list when nothing is offered")
+    @Test
+    public void shouldReturnEmptyListWhenNothingOffered() {
+        TopK<String> topK = new TopK<>(3, Comparator.naturalOrder());
+        assertEquals(0, topK.size());
+        assertTrue(topK.toList().isEmpty());
+    }
+
+    @DisplayName("should keep every element when k is larger than any collection")
+    @Test
+    public void shouldAcceptHugeK() {
+        assertEquals(Arrays.asList("a", "b", "c"),
+                TopK.select(Arrays.asList("c", "a", "b"), Integer.MAX_VALUE, Comparator.naturalOrder()));
+        assertArrayEquals(new int[]{1, 0}, TopK.smallest(new int[]{5, 3}, Integer.MAX_VALUE));
+    }
+
+    @DisplayName("should throw exception when k is negative")
+    @Test
+    public void shouldThrowExceptionWhenKIsNegative() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new TopK<String>(-1, Comparator.naturalOrder()));
+        assertEquals("k cannot be negative", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> TopK.smallest(new int[0], -1));
+        assertEquals("k cannot be negative", exception.getMessage());
+    }
+}
@@ -0,0 +1,67 @@
+package rockets.mining.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountMinSketchUnitTest {
+
+    @DisplayName("should never estimate below the true count and rarely beyond the error bound")
+    @Test
+    public void shouldBoundEstimatesOfZipfStream() {
+        int[] stream = SpaceSavingUnitTest.zipf(50_000, 200_000, 4);
+        CountMinSketch<Integer> sketch = CountMinSketch.withError(0.001, 0.01, 1);
+        Map<Integer, Long> exact = new HashMap<>();
+        for (int item : stream) {
+            sketch.add(item);
+            exact.merge(item, 1L, Long::sum);
+        }
+        assertEquals(stream.length, sketch.getTotal());
+        int beyond = 0;
+        for (Map.Entry<Integer, Long> e : exact.entrySet()) {
+            long estimate = sketch.estimate(e.getKey());
+            assertTrue(estimate >= e.getValue());
+            if (estimate - e.getValue() > sketch.getErrorBound()) {
+                beyond++;
+            }
+        }
+        assertTrue(beyond <= (1 - sketch.getConfidence()) * exact.size() + 1, beyond + " estimates beyond the bound");
+    }
+
+    @DisplayName("should estimate like one sketch of the whole stream after merging")
+    @Test
+    public void shouldMergeLikeOneSketch() {
+        int[] stream = SpaceSavingUnitTest.zipf(10_000, 50_000, 5);
+        CountMinSketch<Integer> whole = CountMinSketch.withError(0.01, 0.01, 1);
+        CountMinSketch<Integer> left = CountMinSketch.withError(0.01, 0.01, 1);
+        CountMinSketch<Integer> right = CountMinSketch.withError(0.01, 0.01, 1);
+        for (int i = 0; i < stream.length; i++) {
+            whole.add(stream[i]);
+            (i % 2 == 0 ? left : right).add(stream[i]);
+        }
+        left.merge(right);
+        for (int item = 0; item < 10_000; item++) {
+            assertEquals(whole.estimate(item), left.estimate(item));
+        }
+    }
+
+    @DisplayName("should throw exception when merging sketches of different sizes")
+    @Test
+    public void shouldThrowExceptionWhenSizesDiffer() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new CountMinSketch<String>(10, 3, 1).merge(new CountMinSketch<>(20, 3, 1)));
+        assertEquals("cannot merge sketches of different sizes or seeds", exception.getMessage());
+    }
+
+    @DisplayName("should throw exception when epsilon is out of range")
+    @Test
+    public void shouldThrowExceptionWhenEpsilonIsOutOfRange() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> CountMinSketch.withError(0, 0.01, 1));
+        assertEquals("epsilon must be between 0 and 1", exception.getMessage());
+    }
+}
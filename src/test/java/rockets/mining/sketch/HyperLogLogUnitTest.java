@@ -0,0 +1,48 @@
+package rockets.mining.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogUnitTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 10, 1_000, 50_000, 500_000})
+    public void shouldEstimateWithinThreeStandardErrors(int distinct) {
+        HyperLogLog sketch = new HyperLogLog(12, 1);
+        for (int i = 0; i < distinct; i++) {
+            // every item is offered twice, duplicates must not count
+            sketch.offer("item_" + i);
+            sketch.offer("item_" + i);
+        }
+        assertEquals(distinct, sketch.estimate(), 3 * sketch.getStandardError() * distinct + 1);
+    }
+
+    @DisplayName("should estimate the union after merging overlapping sketches")
+    @Test
+    public void shouldMergeLikeOneSketch() {
+        HyperLogLog whole = new HyperLogLog(12, 1);
+        HyperLogLog left = new HyperLogLog(12, 1);
+        HyperLogLog right = new HyperLogLog(12, 1);
+        for (int i = 0; i < 100_000; i++) {
+            whole.offer(i);
+            if (i < 60_000) {
+                left.offer(i);
+            }
+            if (i >= 40_000) {
+                right.offer(i);
+            }
+        }
+        assertEquals(whole.estimate(), left.merge(right).estimate());
+    }
+
+    @DisplayName("should throw exception when precision is out of range")
+    @Test
+    public void shouldThrowExceptionWhenPrecisionIsOutOfRange() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3, 1));
+        assertEquals("precision must be between 4 and 18", exception.getMessage());
+    }
+}
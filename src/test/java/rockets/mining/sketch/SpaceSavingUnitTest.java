@@ -0,0 +1,109 @@
+package rockets.mining.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpaceSavingUnitTest {
+
+    // item i is drawn with probability proportional to 1 / (i + 1)
+    static int[] zipf(int items, int draws, long seed) {
+        double[] cumulative = new double[items];
+        double sum = 0;
+        for (int i = 0; i < items; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(seed);
+        int[] stream = new int[draws];
+        for (int i = 0; i < draws; i++) {
+            int found = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            stream[i] = found >= 0 ? found : -found - 1;
+        }
+        return stream;
+    }
+
+    private static Map<Integer, Long> exactCounts(int[] stream) {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        for (int item : stream) {
+            counts.merge(item, 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 5, 50})
+    public void shouldCountExactlyBelowCapacity(int k) {
+        int[] stream = zipf(40, 5_000, 1);
+        SpaceSaving<Integer> summary = new SpaceSaving<>(64);
+        for (int item : stream) {
+            summary.offer(item);
+        }
+        List<HeavyHitter<Integer>> expected = exactCounts(stream).entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed()).limit(k)
+                .map(e -> new HeavyHitter<>(e.getKey(), e.getValue(), 0)).collect(Collectors.toList());
+        assertEquals(expected, summary.top(k));
+    }
+
+    @DisplayName("should bound the true count of every reported item and keep every frequent item")
+    @Test
+    public void shouldBoundCountsOfZipfStream() {
+        int[] stream = zipf(100_000, 200_000, 2);
+        SpaceSaving<Integer> summary = new SpaceSaving<>(500);
+        for (int item : stream) {
+            summary.offer(item);
+        }
+        assertBounds(exactCounts(stream), summary);
+    }
+
+    @DisplayName("should keep the bounds when summaries of two halves are merged")
+    @Test
+    public void shouldBoundCountsAfterMerge() {
+        int[] stream = zipf(100_000, 200_000, 3);
+        SpaceSaving<Integer> left = new SpaceSaving<>(500);
+        SpaceSaving<Integer> right = new SpaceSaving<>(500);
+        for (int i = 0; i < stream.length; i++) {
+            (i < stream.length / 2 ? left : right).offer(stream[i]);
+        }
+        SpaceSaving<Integer> merged = left.merge(right);
+        assertEquals(stream.length, merged.getTotal());
+        assertEquals(500, merged.size());
+        assertBounds(exactCounts(stream), merged);
+    }
+
+    @DisplayName("should return null when nothing is offered")
+    @Test
+    public void shouldReturnNullWhenNothingOffered() {
+        assertNull(new SpaceSaving<String>(4).first());
+        assertTrue(new SpaceSaving<String>(4).top(3).isEmpty());
+    }
+
+    @DisplayName("should throw exception when capacity is not positive")
+    @Test
+    public void shouldThrowExceptionWhenCapacityIsNotPositive() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new SpaceSaving<String>(0));
+        assertEquals("capacity must be positive", exception.getMessage());
+    }
+
+    private static void assertBounds(Map<Integer, Long> exact, SpaceSaving<Integer> summary) {
+        List<HeavyHitter<Integer>> reported = summary.top(summary.size());
+        Set<Integer> kept = new HashSet<>();
+        for (HeavyHitter<Integer> hitter : reported) {
+            long count = exact.getOrDefault(hitter.getItem(), 0L);
+            assertTrue(hitter.getLowerBound() <= count && count <= hitter.getCount(), hitter.toString());
+            assertTrue(hitter.getError() <= summary.getErrorBound());
+            kept.add(hitter.getItem());
+        }
+        exact.forEach((item, count) -> {
+            if (count > summary.getErrorBound()) {
+                assertTrue(kept.contains(item), "lost item " + item);
+            }
+        });
+    }
+}
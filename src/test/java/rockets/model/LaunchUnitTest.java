@@ -82,5 +82,38 @@ public class LaunchUnitTest {
 
     }
 
+    @DisplayName("should total the payload mass to each orbit")
+    @Test
+    public void shouldTotalPayloadMassToEachOrbit() {
+        LaunchServiceProvider launchServiceProvider = new LaunchServiceProvider("rtest", 1, "rtest");
+        Rocket rocket = new Rocket("test", "test", launchServiceProvider);
+        rocket.setMassToLEO(100);
+        Set<Payloads> payloads = new HashSet<>();
+        for (int i = 1; i <= 3; i++) {
+            Payloads payload = new Payloads("test" + i, "test", "test");
+            payload.setMassToLEO(10 * i);
+            payload.setMassToGTO(i);
+            payload.setMassToOther(100 * i);
+            payloads.add(payload);
+        }
+        target = new Launch(launchServiceProvider, payloads, rocket, "test", "leo", "test");
+        payloads.clear();
+        assertEquals(60, target.getPayloadMassToLEO());
+        assertEquals(6, target.getPayloadMassToGTO());
+        assertEquals(600, target.getPayloadMassToOther());
+        assertEquals(3, target.getPayload().size());
 
-}
\ No newline at end of file
+        target.setPayload(Collections.emptySet());
+        assertEquals(0, target.getPayloadMassToLEO());
+        assertEquals(0, target.getPayloadMassToOther());
+    }
+
+    @DisplayName("should not allow the payloads to be changed behind the launch")
+    @Test
+    public void shouldReturnReadOnlyPayloads() {
+        LaunchServiceProvider launchServiceProvider = new LaunchServiceProvider("rtest", 1, "rtest");
+        Rocket rocket = new Rocket("test", "test", launchServiceProvider);
+        target = new Launch(launchServiceProvider, new HashSet<>(), rocket, "test", "leo", "test");
+        assertThrows(UnsupportedOperationException.class, () -> target.getPayload().add(new Payloads("test", "test", "test")));
+    }
+}
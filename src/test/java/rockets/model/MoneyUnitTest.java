@@ -0,0 +1,75 @@
+package rockets.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyUnitTest {
+
+    @DisplayName("should keep amounts as minor units of the currency")
+    @Test
+    public void shouldKeepMinorUnits() {
+        assertEquals(12345, Money.of(new BigDecimal("123.45"), "USD").getMinorUnits());
+        assertEquals(12300, Money.of(new BigDecimal("123"), "USD").getMinorUnits());
+        assertEquals(123, Money.of(new BigDecimal("123"), "JPY").getMinorUnits());
+        assertEquals(0, new BigDecimal("123.45").compareTo(Money.ofMinor(12345, "USD").toBigDecimal()));
+        assertEquals("USD 123.45", Money.ofMinor(12345, "USD").toString());
+    }
+
+    @DisplayName("should throw exception when an amount has more decimal places than its currency")
+    @Test
+    public void shouldThrowExceptionWhenAmountCannotBeScaled() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.005"), "USD"));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.5"), "JPY"));
+    }
+
+    @DisplayName("should throw exception when an amount does not fit in a long")
+    @Test
+    public void shouldThrowExceptionWhenAmountOverflows() {
+        assertThrows(ArithmeticException.class, () -> Money.of(BigDecimal.valueOf(Long.MAX_VALUE), "USD"));
+        Money max = Money.ofMinor(Long.MAX_VALUE, "USD");
+        assertThrows(ArithmeticException.class, () -> max.add(Money.ofMinor(1, "USD")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE, "USD").subtract(Money.ofMinor(1, "USD")));
+    }
+
+    @DisplayName("should add, subtract and compare amounts of the same currency")
+    @Test
+    public void shouldDoArithmeticInOneCurrency() {
+        Money a = Money.ofMinor(250, "USD");
+        Money b = Money.ofMinor(100, "USD");
+        assertEquals(Money.ofMinor(350, "USD"), a.add(b));
+        assertEquals(Money.ofMinor(150, "USD"), a.subtract(b));
+        assertTrue(a.compareTo(b) > 0);
+        assertEquals(0, a.compareTo(Money.ofMinor(250, "USD")));
+    }
+
+    @DisplayName("should throw exception when currencies are mixed")
+    @Test
+    public void shouldThrowExceptionWhenCurrenciesDiffer() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> Money.ofMinor(1, "USD").add(Money.ofMinor(1, "EUR")));
+        assertEquals("cannot mix USD and EUR", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(1, "USD").compareTo(Money.ofMinor(1, "EUR")));
+    }
+
+    @DisplayName("should throw exception when the currency is unknown")
+    @Test
+    public void shouldThrowExceptionWhenCurrencyIsUnknown() {
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(1, "XYZ"));
+        assertThrows(NullPointerException.class, () -> Money.ofMinor(1, null));
+    }
+
+    @DisplayName("should keep the price of a launch as money")
+    @Test
+    public void shouldKeepLaunchPriceAsMoney() {
+        Launch launch = new Launch();
+        launch.setPrice(new BigDecimal("99.90"));
+        assertEquals(Money.ofMinor(9990, Money.DEFAULT_CURRENCY), launch.getPriceMoney());
+        launch.setPrice(null);
+        assertNull(launch.getPriceMoney());
+        assertNull(launch.getPrice());
+    }
+}